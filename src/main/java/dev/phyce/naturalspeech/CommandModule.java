@@ -4,9 +4,14 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import com.google.inject.Inject;
 import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.executor.ChatWorker;
 import dev.phyce.naturalspeech.statics.MagicNames;
 import dev.phyce.naturalspeech.texttospeech.VoiceID;
 import dev.phyce.naturalspeech.texttospeech.VoiceManager;
+import dev.phyce.naturalspeech.texttospeech.engine.AdmissionController;
+import dev.phyce.naturalspeech.texttospeech.engine.cache.AudioCache;
+import dev.phyce.naturalspeech.texttospeech.engine.cache.DiskAudioCache;
+import dev.phyce.naturalspeech.utils.ChatHelper;
 import java.util.Arrays;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,11 +26,29 @@ public class CommandModule implements PluginModule {
 
 	private final Client client;
 	private final VoiceManager voiceManager;
+	private final AudioCache audioCache;
+	private final DiskAudioCache diskAudioCache;
+	private final ChatHelper chatHelper;
+	private final AdmissionController admissionController;
+	private final ChatWorker chatWorker;
 
 	@Inject
-	public CommandModule(Client client, VoiceManager voiceManager) {
+	public CommandModule(
+		Client client,
+		VoiceManager voiceManager,
+		AudioCache audioCache,
+		DiskAudioCache diskAudioCache,
+		ChatHelper chatHelper,
+		AdmissionController admissionController,
+		ChatWorker chatWorker
+	) {
 		this.client = client;
 		this.voiceManager = voiceManager;
+		this.audioCache = audioCache;
+		this.diskAudioCache = diskAudioCache;
+		this.chatHelper = chatHelper;
+		this.admissionController = admissionController;
+		this.chatWorker = chatWorker;
 	}
 
 	@Subscribe
@@ -50,6 +73,30 @@ public class CommandModule implements PluginModule {
 				client.addChatMessage(ChatMessageType.CONSOLE, "", message, null);
 				break;
 			}
+			case "nscache": {
+				if (arguments.length > 0 && arguments[0].equals("clear")) {
+					audioCache.clear();
+					client.addChatMessage(ChatMessageType.CONSOLE, "", "Audio cache cleared.", null);
+				}
+				else {
+					client.addChatMessage(ChatMessageType.CONSOLE, "", "Audio cache " + audioCache.getStats(), null);
+					client.addChatMessage(ChatMessageType.CONSOLE, "", "Saved dialog cache " + diskAudioCache.getStats(),
+						null);
+				}
+				break;
+			}
+			case "nschat": {
+				client.addChatMessage(ChatMessageType.CONSOLE, "", "Muted chat " + chatHelper.getMuteStats(), null);
+				break;
+			}
+			case "nsflood": {
+				client.addChatMessage(ChatMessageType.CONSOLE, "", "Shed speech " + admissionController.getStats(), null);
+				break;
+			}
+			case "nsworker": {
+				client.addChatMessage(ChatMessageType.CONSOLE, "", "Chat handlers " + chatWorker.getStats(), null);
+				break;
+			}
 			case "setvoice": {
 				if (arguments.length < 2) {
 					client.addChatMessage(ChatMessageType.CONSOLE, "",
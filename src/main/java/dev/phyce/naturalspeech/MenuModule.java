@@ -7,6 +7,8 @@ import static dev.phyce.naturalspeech.MenuStrings.CONFIG_STRING;
 import static dev.phyce.naturalspeech.MenuStrings.SPEAK_STRING;
 import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
 import dev.phyce.naturalspeech.audio.AudioEngine;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
 import dev.phyce.naturalspeech.entity.EntityID;
 import dev.phyce.naturalspeech.statics.ConfigKeys;
 import dev.phyce.naturalspeech.texttospeech.MuteManager;
@@ -45,7 +47,7 @@ import net.runelite.client.util.Text;
 public class MenuModule implements PluginModule {
 
 	private final Client client;
-	private final NaturalSpeechConfig config;
+	private final ConfigTracker configTracker;
 	private final SpeechManager speechManager;
 	private final Provider<VoiceConfigChatboxTextInput> voiceConfigChatboxTextInputProvider;
 	private final VoiceManager voiceManager;
@@ -57,7 +59,7 @@ public class MenuModule implements PluginModule {
 	@Inject
 	public MenuModule(
 		Client client,
-		NaturalSpeechConfig config,
+		ConfigTracker configTracker,
 		SpeechManager speechManager,
 		Provider<VoiceConfigChatboxTextInput> voiceConfigChatboxTextInputProvider,
 		VoiceManager voiceManager,
@@ -67,7 +69,7 @@ public class MenuModule implements PluginModule {
 		ChatIcons chatIcons
 	) {
 		this.client = client;
-		this.config = config;
+		this.configTracker = configTracker;
 		this.speechManager = speechManager;
 		this.voiceConfigChatboxTextInputProvider = voiceConfigChatboxTextInputProvider;
 		this.voiceManager = voiceManager;
@@ -141,7 +143,7 @@ public class MenuModule implements PluginModule {
 
 			Menu subMenu = parent.createSubMenu();
 
-			final int currentVolumeIndex = config.masterVolume() / 10;
+			final int currentVolumeIndex = configTracker.getSnapshot().getMasterVolume() / 10;
 
 			for (int colorIndex = colorScheme.length - 1; colorIndex > -1; colorIndex--) {
 				final int volume = colorIndex * 10;
@@ -255,8 +257,8 @@ public class MenuModule implements PluginModule {
 
 	private MenuEntry _drawMuteMenu(Menu subMenu, TabConfigMenu tab, int index, MenuAction menuType) {
 
-		final boolean state = Arrays.stream(tab.configKeys)
-			.anyMatch(key -> configManager.getConfiguration(CONFIG_GROUP, key, boolean.class));
+		ConfigSnapshot settings = configTracker.getSnapshot();
+		final boolean state = Arrays.stream(tab.configKeys).anyMatch(settings::isToggled);
 
 		String iconTag = drawIconTag(tab.icon, state);
 
@@ -302,7 +304,7 @@ public class MenuModule implements PluginModule {
 
 
 	private void drawEntityMenu(MenuEntry[] entries) {
-		if (config.holdShiftRightClickMenu() && !client.isKeyPressed(KeyCode.KC_SHIFT)) return;
+		if (configTracker.getSnapshot().isHoldShiftRightClickMenu() && !client.isKeyPressed(KeyCode.KC_SHIFT)) return;
 
 		List<Integer> interfaces = List.of(
 			InterfaceID.FRIEND_LIST,
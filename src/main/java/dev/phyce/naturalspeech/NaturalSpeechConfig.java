@@ -135,6 +135,19 @@ public interface NaturalSpeechConfig extends Config {
 		return false;
 	}
 
+	@ConfigItem(
+		position=9,
+		keyName=ConfigKeys.SYNTHESIS_LEAD_SECONDS,
+		name="Generate ahead",
+		description="Seconds of speech generated ahead of playback for long messages. Lower lets other speakers start sooner",
+		section=generalSettingsSection
+	)
+	@Range(min=1, max=30)
+	@Units(Units.SECONDS)
+	default int synthesisLeadSeconds() {
+		return 4;
+	}
+
 
 	// endregion
 
@@ -344,6 +357,18 @@ public interface NaturalSpeechConfig extends Config {
 		return true;
 	}
 
+	@ConfigItem(
+		position=5,
+		keyName=ConfigKeys.MUTE_ZONES,
+		name="Zones",
+		description="Mute or lower other players' chat while you stand in these areas. One per line, two corners and a volume,"
+			+ " for example Varrock bank: 3250,3416,3257,3423=mute or 3090,3488,3099,3499=50%",
+		section=muteOptionsSection
+	)
+	default String muteZones() {
+		return "\n";
+	}
+
 
 	@ConfigItem(
 		position=6,
@@ -368,6 +393,63 @@ public interface NaturalSpeechConfig extends Config {
 		return 0;
 	}
 
+	enum FloodPolicy {
+		DROP_NEWEST,
+		KEEP_LATEST;
+
+		@Override
+		public String toString() {
+			return this == DROP_NEWEST ? "Skip new messages" : "Latest per speaker";
+		}
+	}
+
+	@ConfigItem(
+		position=8,
+		keyName=ConfigKeys.FLOOD_POLICY,
+		name="During chat floods",
+		description="When there is more chat than can be spoken, skip new messages from busy speakers,"
+			+ " or only keep their latest message",
+		section=muteOptionsSection
+	)
+	default FloodPolicy floodPolicy() {
+		return FloodPolicy.DROP_NEWEST;
+	}
+
+	@ConfigItem(
+		position=9,
+		keyName=ConfigKeys.FLOOD_EXEMPT_FRIENDS,
+		name="Never skip friends",
+		description="Friends are always spoken during chat floods",
+		section=muteOptionsSection
+	)
+	default boolean floodExemptFriends() {
+		return true;
+	}
+
+	@ConfigItem(
+		position=10,
+		keyName=ConfigKeys.MUTE_NEAR_DUPLICATES,
+		name="Mute repeated adverts",
+		description="Mute public messages nearly the same as one said in the last minute,"
+			+ " spam bots repeat their adverts with small variations. Friends are never muted",
+		section=muteOptionsSection
+	)
+	default boolean muteNearDuplicates() {
+		return true;
+	}
+
+	@ConfigItem(
+		position=11,
+		keyName=ConfigKeys.NEAR_DUPLICATE_DISTANCE,
+		name="Repeat tolerance",
+		description="How different a message may be and still count as a repeat, higher mutes looser variations",
+		section=muteOptionsSection
+	)
+	@Range(max=16)
+	default int nearDuplicateDistance() {
+		return 8;
+	}
+
 	// endregion
 
 	// region Other Settings
@@ -407,6 +489,41 @@ public interface NaturalSpeechConfig extends Config {
 		return "\n";
 	}
 
+	@ConfigItem(
+		position=4,
+		keyName=ConfigKeys.AUDIO_CACHE_SIZE,
+		name="Audio cache size (MB)",
+		description="Memory used to keep recently generated speech, repeated lines play instantly. 0 to disable",
+		section=otherOptionsSection
+	)
+	@Range(max=512)
+	default int audioCacheSize() {
+		return 32;
+	}
+
+	@ConfigItem(
+		position=5,
+		keyName=ConfigKeys.DISK_AUDIO_CACHE_SIZE,
+		name="Saved dialog cache (MB)",
+		description="Disk space used to keep generated dialog between sessions. 0 to disable",
+		section=otherOptionsSection
+	)
+	@Range(max=4096)
+	default int diskAudioCacheSize() {
+		return 256;
+	}
+
+	@ConfigItem(
+		position=6,
+		keyName=ConfigKeys.COMPACT_AUDIO,
+		name="Compress waiting speech",
+		description="Keep queued and cached speech compressed in memory, uses about a quarter of the memory at slightly lower quality",
+		section=otherOptionsSection
+	)
+	default boolean compactAudio() {
+		return false;
+	}
+
 	@ConfigSection(
 		closedByDefault=true,
 		name="Developer Tools",
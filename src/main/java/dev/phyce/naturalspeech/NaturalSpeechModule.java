@@ -4,16 +4,24 @@ import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import dev.phyce.naturalspeech.audio.AudioEngine;
 import dev.phyce.naturalspeech.audio.VolumeManager;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
 import dev.phyce.naturalspeech.configs.PiperConfig;
 import dev.phyce.naturalspeech.configs.RuntimePathConfig;
 import dev.phyce.naturalspeech.configs.TutorialHints;
+import dev.phyce.naturalspeech.entity.ActorIndex;
+import dev.phyce.naturalspeech.entity.FriendIndex;
+import dev.phyce.naturalspeech.entity.WorldTracker;
+import dev.phyce.naturalspeech.entity.ZoneTracker;
+import dev.phyce.naturalspeech.executor.ChatWorker;
 import dev.phyce.naturalspeech.executor.PluginExecutorService;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
 import dev.phyce.naturalspeech.spamdetection.ChatFilterPluglet;
+import dev.phyce.naturalspeech.spamdetection.NearDuplicateDetector;
 import dev.phyce.naturalspeech.spamdetection.SpamFilterPluglet;
 import dev.phyce.naturalspeech.texttospeech.MuteManager;
 import dev.phyce.naturalspeech.texttospeech.VoiceManager;
 import dev.phyce.naturalspeech.texttospeech.engine.SpeechManager;
+import dev.phyce.naturalspeech.texttospeech.engine.cache.DiskAudioCache;
 import dev.phyce.naturalspeech.userinterface.TopLevelPanel;
 import dev.phyce.naturalspeech.utils.ChatHelper;
 
@@ -32,15 +40,23 @@ class NaturalSpeechModule {
 	@Inject
 	public NaturalSpeechModule(
 			RuntimePathConfig runtimeConfig,
+			ConfigTracker configTracker,
+			FriendIndex friendIndex,
+			ActorIndex actorIndex,
+			WorldTracker worldTracker,
+			ZoneTracker zoneTracker,
 			VoiceManager voiceManager,
 			MuteManager muteManager,
 			VolumeManager volumeManager,
 			AudioEngine audioEngine,
+			DiskAudioCache diskAudioCache,
 			SpeechManager speechManager,
 			PiperConfig piperConfig,
 			SpamFilterPluglet spamFilterPluglet,
 			ChatFilterPluglet chatFilterPluglet,
+			NearDuplicateDetector nearDuplicateDetector,
 			PluginExecutorService pluginExecutorService,
+			ChatWorker chatWorker,
 			ChatHelper chatHelper,
 			TutorialHints tutorialHints,
 
@@ -54,20 +70,28 @@ class NaturalSpeechModule {
 
 		ImmutableSet.Builder<PluginModule> builder = ImmutableSet.builder();
 		builder.add(runtimeConfig);
+		builder.add(configTracker);
+		builder.add(friendIndex);
+		builder.add(actorIndex);
+		builder.add(worldTracker);
+		builder.add(zoneTracker);
 		builder.add(voiceManager);
 		builder.add(muteManager);
 		builder.add(volumeManager);
 		builder.add(audioEngine);
 		builder.add(topLevelPanel);
+		builder.add(diskAudioCache);
 		builder.add(speechManager);
 		builder.add(piperConfig);
 		builder.add(spamFilterPluglet);
 		builder.add(chatFilterPluglet);
+		builder.add(nearDuplicateDetector);
 		builder.add(speechModule);
 		builder.add(menuModule);
 		builder.add(commandModule);
 		builder.add(chatHelper);
 		builder.add(pluginExecutorService);
+		builder.add(chatWorker);
 		builder.add(tutorialHints);
 		builder.add(navButtonModule);
 
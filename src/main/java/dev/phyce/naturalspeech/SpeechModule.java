@@ -6,12 +6,17 @@ import com.google.inject.Inject;
 import com.google.inject.Provider;
 import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
 import dev.phyce.naturalspeech.audio.VolumeManager;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
+import dev.phyce.naturalspeech.executor.ChatWorker;
 import dev.phyce.naturalspeech.statics.ConfigKeys;
 import dev.phyce.naturalspeech.statics.MagicNames;
+import dev.phyce.naturalspeech.utils.ChatContext;
 import dev.phyce.naturalspeech.utils.ChatHelper;
+import dev.phyce.naturalspeech.texttospeech.Gender;
 import dev.phyce.naturalspeech.texttospeech.MuteManager;
 import dev.phyce.naturalspeech.texttospeech.VoiceID;
 import dev.phyce.naturalspeech.texttospeech.VoiceManager;
+import dev.phyce.naturalspeech.texttospeech.engine.AdmissionController;
 import dev.phyce.naturalspeech.texttospeech.engine.SpeechManager;
 import dev.phyce.naturalspeech.userinterface.ingame.VoiceConfigChatboxTextInput;
 import dev.phyce.naturalspeech.utils.ChatIcons;
@@ -42,6 +47,7 @@ public class SpeechModule implements PluginModule {
 	private final Client client;
 	private final ClientHelper clientHelper;
 	private final NaturalSpeechConfig config;
+	private final ConfigTracker configTracker;
 	private final ConfigManager configManager;
 	private final SpeechManager speechManager;
 	private final VolumeManager volumeManager;
@@ -50,6 +56,7 @@ public class SpeechModule implements PluginModule {
 	private final ClientThread clientThread;
 	private final ChatHelper chatHelper;
 	private final ChatIcons chatIcons;
+	private final ChatWorker chatWorker;
 	private final Provider<VoiceConfigChatboxTextInput> voiceConfigChatboxTextInputProvider;
 
 	private final LastDialogMessage lastDialogMessage = new LastDialogMessage();
@@ -69,6 +76,7 @@ public class SpeechModule implements PluginModule {
 			ClientHelper clientHelper,
 			SpeechManager speechManager,
 			NaturalSpeechConfig config,
+			ConfigTracker configTracker,
 			ConfigManager configManager,
 			VolumeManager volumeManager,
 			VoiceManager voiceManager,
@@ -76,6 +84,7 @@ public class SpeechModule implements PluginModule {
 			ClientThread clientThread,
 			ChatHelper chatHelper,
 			ChatIcons chatIcons,
+			ChatWorker chatWorker,
 			Provider<VoiceConfigChatboxTextInput> voiceConfigChatboxTextInputProvider
 	) {
 		this.client = client;
@@ -83,6 +92,7 @@ public class SpeechModule implements PluginModule {
 		this.configManager = configManager;
 		this.speechManager = speechManager;
 		this.config = config;
+		this.configTracker = configTracker;
 		this.volumeManager = volumeManager;
 		this.voiceManager = voiceManager;
 		this.muteManager = muteManager;
@@ -90,6 +100,7 @@ public class SpeechModule implements PluginModule {
 		this.clientThread = clientThread;
 		this.chatHelper = chatHelper;
 		this.chatIcons = chatIcons;
+		this.chatWorker = chatWorker;
 		this.voiceConfigChatboxTextInputProvider = voiceConfigChatboxTextInputProvider;
 
 	}
@@ -112,24 +123,52 @@ public class SpeechModule implements PluginModule {
 	@VisibleForTesting
 	void onChatMessage(ChatMessage message) {
 		if (!speechManager.isAlive()) return;
+		long start = System.nanoTime();
 
-		if (chatHelper.isMuted(message)) return;
+		// classified once on the client thread, shared by every filter and stage on the worker
+		ChatContext context = chatHelper.classify(message);
+		chatWorker.submit(ChatWorker.Handler.CHAT_MESSAGE, () -> speakChatMessage(context));
+
+		chatWorker.record(ChatWorker.Handler.CHAT_MESSAGE, start);
+	}
+
+	private void speakChatMessage(ChatContext context) {
+		if (chatHelper.isMuted(context)) return;
+
+		ChatMessage message = context.getMessage();
+
+		ChatHelper.ChatType chatType = context.getChatType();
+		if (deduplicate(chatType, message)) return;
 
 		log.trace("Speaking Chat Message: {}", message);
 
-		EntityID entityID = chatHelper.getEntityID(message);
-		VoiceID voiceId = voiceManager.resolve(entityID);
+		EntityID entityID = context.getEntityID();
+		VoiceID voiceId = voiceManager.resolve(entityID, context.getGender());
 
-		ChatHelper.ChatType chatType = chatHelper.getChatType(message);
 		Supplier<Float> volume = volumeManager.chat(chatType, entityID);
 
 		String lineName = String.valueOf(entityID.hashCode());
 
 		String text = chatHelper.standardizeChatMessageText(chatType, message);
 
-		if (deduplicate(message)) return;
+		if (chatType == ChatHelper.ChatType.User) {
+			speechManager.speak(voiceId, text, volume, lineName);
+		}
+		else {
+			speechManager.speak(voiceId, text, volume, lineName,
+				AdmissionController.Speaker.of(entityID, admissionSource(chatType), context.isFriend()));
+		}
+	}
 
-		speechManager.speak(voiceId, text, volume, lineName);
+	private static AdmissionController.Source admissionSource(ChatHelper.ChatType chatType) {
+		switch (chatType) {
+			case RemotePlayers:
+				return AdmissionController.Source.REMOTE;
+			case System:
+				return AdmissionController.Source.SYSTEM;
+			default:
+				return AdmissionController.Source.PUBLIC;
+		}
 	}
 
 	/**
@@ -140,24 +179,33 @@ public class SpeechModule implements PluginModule {
 	void onOverheadTextChanged(OverheadTextChanged event) {
 		if (!(event.getActor() instanceof NPC)) return;
 		if (!speechManager.isAlive()) return;
-		if (!config.npcOverheadEnabled()) return;
-		if (chatHelper.isAreaDisabled()) return;
-		if (chatHelper.isTooCrowded()) return;
+		if (!configTracker.getSnapshot().isNpcOverheadEnabled()) return;
+		long start = System.nanoTime();
 
 		NPC npc = (NPC) event.getActor();
 		EntityID entityID = EntityID.npc(npc);
+		Gender gender = clientHelper.getGender(entityID);
+		String overheadText = event.getOverheadText();
+		chatWorker.submit(ChatWorker.Handler.OVERHEAD_TEXT,
+			() -> speakOverheadText(npc, entityID, gender, overheadText));
 
+		chatWorker.record(ChatWorker.Handler.OVERHEAD_TEXT, start);
+	}
+
+	private void speakOverheadText(NPC npc, EntityID entityID, Gender gender, String overheadText) {
+		if (chatHelper.isAreaDisabled()) return;
+		if (chatHelper.isTooCrowded()) return;
 		if (!muteManager.isAllowed(entityID)) return;
 
 		String lineName = entityID.toString();
 		Supplier<Float> volume = volumeManager.npc(npc);
 
-		VoiceID voiceID;
-		voiceID = voiceManager.resolve(entityID);
+		VoiceID voiceID = voiceManager.resolve(entityID, gender);
 
-		String text = chatHelper.standardizeOverheadText(event);
+		String text = chatHelper.standardizeOverheadText(overheadText);
 
-		speechManager.speak(voiceID, text, volume, lineName);
+		speechManager.speak(voiceID, text, volume, lineName,
+			AdmissionController.Speaker.of(entityID, AdmissionController.Source.OVERHEAD, false));
 
 	}
 
@@ -167,7 +215,7 @@ public class SpeechModule implements PluginModule {
 	@Subscribe
 	@VisibleForTesting
 	void onWidgetLoaded(WidgetLoaded event) {
-		if (!config.dialogEnabled()) return;
+		if (!configTracker.getSnapshot().isDialogEnabled()) return;
 		if (!speechManager.isAlive()) return;
 
 		switch (event.getGroupId()) {
@@ -389,8 +437,7 @@ public class SpeechModule implements PluginModule {
 		});
 	}
 
-	private boolean deduplicate(ChatMessage message) {
-		ChatHelper.ChatType chatType = chatHelper.getChatType(message);
+	private boolean deduplicate(ChatHelper.ChatType chatType, ChatMessage message) {
 		if (chatType == ChatHelper.ChatType.System) {
 			long currentTime = System.currentTimeMillis();
 			if (lastDialogMessage.message.equals(message.getMessage())) {
@@ -131,6 +131,7 @@ public class AudioEngine implements PluginModule {
 			}
 
 			line.setGainSupplier(augmentMute(gainSupplier));
+			line.setCompactBuffering(config.compactAudio());
 			log.trace("Buffering bytes into line {}", lineName);
 			line.buffer(bytes);
 		});
@@ -179,6 +180,14 @@ public class AudioEngine implements PluginModule {
 		lines.clear();
 	}
 
+	/**
+	 * @return seconds of audio waiting to be played on the line, 0 if the line doesn't exist.
+	 */
+	public float getBufferedSeconds(@NonNull String lineName) {
+		DynamicLine line = lines.get(lineName);
+		return line == null ? 0 : line.getBufferedSeconds();
+	}
+
 	public boolean pauseLine(@NonNull String lineName) {
 		DynamicLine line = lines.get(lineName);
 		if (line != null) {
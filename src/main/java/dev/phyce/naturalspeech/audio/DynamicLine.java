@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static dev.phyce.naturalspeech.utils.ThreadUtil.silentInterruptHandler;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.Control;
@@ -19,8 +20,17 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class DynamicLine implements SourceDataLine {
+	// buffered audio longer than this is compacted, short lines are written before it would pay off
+	private static final float COMPACT_THRESHOLD_SECONDS = 2;
+	// blocks decoded per write to the source line
+	private static final int DECODE_BLOCKS = 16;
+
 	private final SourceDataLine sourceLine;
-	private final ConcurrentLinkedQueue<byte[]> byteBuffer;
+	private final ConcurrentLinkedQueue<Chunk> byteBuffer;
+	// PCM bytes in byteBuffer not yet handed to the source line
+	private final AtomicLong queuedBytes = new AtomicLong();
+	// frame position at which the chunk being written finishes playing
+	private volatile long writingEndFrame = 0;
 
 	// Vector is synchronized
 	private final Vector<DynamicLineListener> dynamicLineListeners;
@@ -37,6 +47,22 @@ public class DynamicLine implements SourceDataLine {
 	@Setter
 	private float masterGain = 0;
 
+	/**
+	 * Keep long buffered audio IMA-ADPCM encoded (~1/4 heap) until it is written, see {@link ImaAdpcm}.
+	 */
+	@Setter
+	private boolean compactBuffering = false;
+
+	// only touched by the flusher thread
+	private final byte[] decodeBuffer = new byte[ImaAdpcm.BLOCK_PCM_BYTES * DECODE_BLOCKS];
+
+	// queued audio, raw or compacted
+	private interface Chunk {
+		int pcmLength();
+
+		void writeTo(DynamicLine line);
+	}
+
 	public void setGainSupplier(Supplier<Float> gainSupplier) {
 		this.gainSupplier = gainSupplier;
 		update();
@@ -94,9 +120,11 @@ public class DynamicLine implements SourceDataLine {
 				buffering = true;
 			}
 
-			byte[] bytes = byteBuffer.poll();
-			if (bytes != null) {
-				write(bytes, 0, bytes.length);
+			Chunk chunk = byteBuffer.poll();
+			if (chunk != null) {
+				writingEndFrame = getLongFramePosition() + chunk.pcmLength() / getFormat().getFrameSize();
+				queuedBytes.addAndGet(-chunk.pcmLength());
+				chunk.writeTo(this);
 				drain();
 			}
 			else {
@@ -134,10 +162,32 @@ public class DynamicLine implements SourceDataLine {
 	public void buffer(byte[] audioBytes) {
 		checkState(audioBytes.length % getFormat().getFrameSize() == 0,
 			"Illegal write length. Must be a multiple of frame size.");
-		byteBuffer.add(audioBytes);
+		AudioFormat format = getFormat();
+		Chunk chunk;
+		if (compactBuffering
+			&& ImaAdpcm.supports(format)
+			&& audioBytes.length > COMPACT_THRESHOLD_SECONDS * format.getFrameRate() * format.getFrameSize()) {
+			chunk = new AdpcmChunk(ImaAdpcm.encode(audioBytes));
+		}
+		else {
+			chunk = new RawChunk(audioBytes);
+		}
+
+		queuedBytes.addAndGet(chunk.pcmLength());
+		byteBuffer.add(chunk);
 		synchronized (byteBuffer) {byteBuffer.notify();}
 	}
 
+	/**
+	 * Seconds of audio buffered but not yet played, including the remainder of the chunk currently playing.
+	 */
+	public float getBufferedSeconds() {
+		AudioFormat format = getFormat();
+		long playingFrames = Math.max(0, writingEndFrame - getLongFramePosition());
+		long queuedFrames = queuedBytes.get() / format.getFrameSize();
+		return (playingFrames + queuedFrames) / format.getFrameRate();
+	}
+
 	@Override
 	public void open(AudioFormat format, int bufferSize) throws LineUnavailableException {
 		sourceLine.open(format, bufferSize);
@@ -161,6 +211,51 @@ public class DynamicLine implements SourceDataLine {
 		sourceLine.close();
 		bufferFlusherThread.interrupt();
 		byteBuffer.clear();
+		queuedBytes.set(0);
+	}
+
+	private static final class RawChunk implements Chunk {
+		private final byte[] bytes;
+
+		private RawChunk(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int pcmLength() {
+			return bytes.length;
+		}
+
+		@Override
+		public void writeTo(DynamicLine line) {
+			line.write(bytes, 0, bytes.length);
+		}
+	}
+
+	private static final class AdpcmChunk implements Chunk {
+		private final ImaAdpcm.Encoded encoded;
+
+		private AdpcmChunk(ImaAdpcm.Encoded encoded) {
+			this.encoded = encoded;
+		}
+
+		@Override
+		public int pcmLength() {
+			return encoded.pcmLength();
+		}
+
+		@Override
+		public void writeTo(DynamicLine line) {
+			byte[] buffer = line.decodeBuffer;
+			int blocks = encoded.blocks();
+			for (int block = 0; block < blocks && !line.bufferFlusherThread.isInterrupted(); ) {
+				int length = 0;
+				for (int i = 0; i < DECODE_BLOCKS && block < blocks; i++, block++) {
+					length += encoded.decodeBlock(block, buffer, length);
+				}
+				line.write(buffer, 0, length);
+			}
+		}
 	}
 
 	// region: useless function wrappers
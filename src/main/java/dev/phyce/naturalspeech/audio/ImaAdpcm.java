@@ -0,0 +1,185 @@
+package dev.phyce.naturalspeech.audio;
+
+import javax.sound.sampled.AudioFormat;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * IMA-ADPCM codec for 16-bit little-endian mono PCM, 4 bits per sample.
+ * <p>
+ * Audio is encoded in independent blocks of {@value BLOCK_BYTES} bytes (a 4 byte header holding the first sample
+ * and step index, followed by nibbles), so it can be decoded block by block right before playback.
+ * A block holds {@value BLOCK_SAMPLES} samples, about a quarter of the PCM size.
+ */
+public final class ImaAdpcm {
+
+	public static final int BLOCK_BYTES = 256;
+	private static final int HEADER_BYTES = 4;
+	public static final int BLOCK_SAMPLES = (BLOCK_BYTES - HEADER_BYTES) * 2 + 1;
+	public static final int BLOCK_PCM_BYTES = BLOCK_SAMPLES * 2;
+
+	private static final int[] INDEX_TABLE = {
+		-1, -1, -1, -1, 2, 4, 6, 8,
+		-1, -1, -1, -1, 2, 4, 6, 8
+	};
+
+	private static final int[] STEP_TABLE = {
+		7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 19, 21, 23, 25, 28, 31, 34, 37, 41, 45, 50, 55, 60, 66, 73, 80, 88, 97,
+		107, 118, 130, 143, 157, 173, 190, 209, 230, 253, 279, 307, 337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+		876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066, 2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428,
+		4871, 5358, 5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899, 15289, 16818, 18500, 20350,
+		22385, 24623, 27086, 29794, 32767
+	};
+
+	private ImaAdpcm() {}
+
+	public static boolean supports(@NonNull AudioFormat format) {
+		return format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED)
+			&& format.getSampleSizeInBits() == 16
+			&& format.getChannels() == 1
+			&& !format.isBigEndian();
+	}
+
+	public static final class Encoded {
+		private final byte[] data;
+		@Getter
+		private final int samples;
+
+		private Encoded(byte[] data, int samples) {
+			this.data = data;
+			this.samples = samples;
+		}
+
+		public int blocks() {
+			return (samples + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES;
+		}
+
+		public int pcmLength() {
+			return samples * 2;
+		}
+
+		/**
+		 * Heap used by the encoded audio.
+		 */
+		public int size() {
+			return data.length;
+		}
+
+		/**
+		 * Decodes one block into out at offset, out needs {@link #BLOCK_PCM_BYTES} of room.
+		 *
+		 * @return PCM bytes written
+		 */
+		public int decodeBlock(int block, byte[] out, int offset) {
+			int in = block * BLOCK_BYTES;
+			int count = Math.min(BLOCK_SAMPLES, samples - block * BLOCK_SAMPLES);
+
+			int predictor = (short) ((data[in] & 0xFF) | (data[in + 1] << 8));
+			int index = data[in + 2];
+			in += HEADER_BYTES;
+
+			int out0 = offset;
+			out[offset++] = (byte) predictor;
+			out[offset++] = (byte) (predictor >> 8);
+
+			for (int i = 1; i < count; i++) {
+				int nibble = (i & 1) == 1 ? data[in] & 0x0F : (data[in++] >> 4) & 0x0F;
+
+				int step = STEP_TABLE[index];
+				int diff = step >> 3;
+				if ((nibble & 4) != 0) diff += step;
+				if ((nibble & 2) != 0) diff += step >> 1;
+				if ((nibble & 1) != 0) diff += step >> 2;
+				predictor += (nibble & 8) != 0 ? -diff : diff;
+				if (predictor > Short.MAX_VALUE) predictor = Short.MAX_VALUE;
+				else if (predictor < Short.MIN_VALUE) predictor = Short.MIN_VALUE;
+
+				index += INDEX_TABLE[nibble];
+				if (index < 0) index = 0;
+				else if (index > 88) index = 88;
+
+				out[offset++] = (byte) predictor;
+				out[offset++] = (byte) (predictor >> 8);
+			}
+			return offset - out0;
+		}
+
+		public byte[] decode() {
+			byte[] pcm = new byte[pcmLength()];
+			byte[] block = new byte[BLOCK_PCM_BYTES];
+			int offset = 0;
+			for (int i = 0; i < blocks(); i++) {
+				int written = decodeBlock(i, block, 0);
+				System.arraycopy(block, 0, pcm, offset, written);
+				offset += written;
+			}
+			return pcm;
+		}
+	}
+
+	/**
+	 * @param pcm 16-bit little-endian mono samples, see {@link #supports(AudioFormat)}
+	 */
+	public static Encoded encode(@NonNull byte[] pcm) {
+		int samples = pcm.length / 2;
+		int blocks = (samples + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES;
+		byte[] data = new byte[blocks * BLOCK_BYTES];
+
+		int index = 0;
+		for (int block = 0; block < blocks; block++) {
+			int first = block * BLOCK_SAMPLES;
+			int count = Math.min(BLOCK_SAMPLES, samples - first);
+			int out = block * BLOCK_BYTES;
+
+			int predictor = sample(pcm, first);
+			data[out] = (byte) predictor;
+			data[out + 1] = (byte) (predictor >> 8);
+			data[out + 2] = (byte) index;
+			out += HEADER_BYTES;
+
+			for (int i = 1; i < count; i++) {
+				int step = STEP_TABLE[index];
+				int diff = sample(pcm, first + i) - predictor;
+				int nibble = 0;
+				if (diff < 0) {
+					nibble = 8;
+					diff = -diff;
+				}
+
+				// same quantization as the decoder, so the encoder tracks the decoded predictor exactly
+				int delta = step >> 3;
+				if (diff >= step) {
+					nibble |= 4;
+					diff -= step;
+					delta += step;
+				}
+				if (diff >= step >> 1) {
+					nibble |= 2;
+					diff -= step >> 1;
+					delta += step >> 1;
+				}
+				if (diff >= step >> 2) {
+					nibble |= 1;
+					delta += step >> 2;
+				}
+
+				predictor += (nibble & 8) != 0 ? -delta : delta;
+				if (predictor > Short.MAX_VALUE) predictor = Short.MAX_VALUE;
+				else if (predictor < Short.MIN_VALUE) predictor = Short.MIN_VALUE;
+
+				index += INDEX_TABLE[nibble];
+				if (index < 0) index = 0;
+				else if (index > 88) index = 88;
+
+				if ((i & 1) == 1) data[out] = (byte) nibble;
+				else data[out++] |= (byte) (nibble << 4);
+			}
+		}
+
+		return new Encoded(data, samples);
+	}
+
+	private static int sample(byte[] pcm, int sample) {
+		return (short) ((pcm[sample * 2] & 0xFF) | (pcm[sample * 2 + 1] << 8));
+	}
+}
@@ -2,29 +2,22 @@ package dev.phyce.naturalspeech.audio;
 
 import com.google.common.base.Optional;
 import com.google.inject.Inject;
-import dev.phyce.naturalspeech.NaturalSpeechConfig;
 import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
+import dev.phyce.naturalspeech.entity.ActorIndex;
 import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.entity.WorldTracker;
+import dev.phyce.naturalspeech.entity.ZoneTracker;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
 import dev.phyce.naturalspeech.utils.ChatHelper;
 import dev.phyce.naturalspeech.utils.ClientHelper;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
-import net.runelite.api.Client;
 import net.runelite.api.NPC;
 import net.runelite.api.Player;
-import net.runelite.api.WorldView;
-import net.runelite.api.coords.WorldPoint;
-import net.runelite.api.events.NpcDespawned;
-import net.runelite.api.events.NpcSpawned;
-import net.runelite.api.events.PlayerDespawned;
-import net.runelite.api.events.PlayerSpawned;
-import net.runelite.client.eventbus.Subscribe;
 
 @Slf4j
 @PluginSingleton
@@ -39,71 +32,60 @@ public class VolumeManager implements PluginModule {
 	public static final float CHAT_MAX_DISTANCE = 15f;
 	public static final float NPC_MAX_DISTANCE = 15f;
 
-	private final Client client;
 	private final ClientHelper clientHelper;
-	private final NaturalSpeechConfig config;
-	private final Set<Actor> spawnedActors = new HashSet<>();
-
+	private final ConfigTracker configTracker;
+	private final ActorIndex actorIndex;
+	private final WorldTracker worldTracker;
+	private final ZoneTracker zoneTracker;
 
 	@Inject
 	public VolumeManager(
-		Client client,
 		ClientHelper clientHelper,
-		NaturalSpeechConfig config
+		ConfigTracker configTracker,
+		ActorIndex actorIndex,
+		WorldTracker worldTracker,
+		ZoneTracker zoneTracker
 	) {
-		this.client = client;
 		this.clientHelper = clientHelper;
-		this.config = config;
-
-		WorldView topLevelWorldView = client.getTopLevelWorldView();
-		if (topLevelWorldView != null) {
-			spawnedActors.addAll(topLevelWorldView.npcs().stream().collect(Collectors.toList()));
-			spawnedActors.addAll(topLevelWorldView.players().stream().collect(Collectors.toList()));
-		}
-
+		this.configTracker = configTracker;
+		this.actorIndex = actorIndex;
+		this.worldTracker = worldTracker;
+		this.zoneTracker = zoneTracker;
 	}
 
+	// gain suppliers run on the audio thread, positions and settings come from snapshots instead of the client
+
 	@NonNull
 	public Supplier<Float> overhead(Actor actor) {
 		return () -> {
-			if (!config.distanceFadeEnabled()) return 0f;
+			if (!configTracker.getSnapshot().isDistanceFadeEnabled()) return 0f;
 
-			if (this.spawnedActors.contains(actor)) {
-				WorldPoint sourceLocation = actor.getWorldLocation();
-				WorldPoint listenerLocation = client.getLocalPlayer().getWorldLocation();
+			float distance = worldTracker.getSnapshot().distanceTo(actor);
+			if (Float.isNaN(distance)) return unknownDistanceGain(actor);
 
-				float distance = distance(listenerLocation, sourceLocation);
-				return Math.max(CHAT_FLOOR, attenuation(distance, CHAT_MAX_DISTANCE, CHAT_FLOOR));
-			}
-			else return NOISE_FLOOR; // actor has despawned, silence
+			return Math.max(CHAT_FLOOR, attenuation(distance, CHAT_MAX_DISTANCE, CHAT_FLOOR));
 		};
 	}
 
 	public Supplier<Float> npc(NPC npc) {
 		return () -> {
-			if (!config.distanceFadeEnabled()) return 0f;
+			if (!configTracker.getSnapshot().isDistanceFadeEnabled()) return 0f;
 
-			if (this.spawnedActors.contains(npc)) {
-				WorldPoint sourceLocation = npc.getWorldLocation();
-				WorldPoint listenerLocation = client.getLocalPlayer().getWorldLocation();
+			float distance = worldTracker.getSnapshot().distanceTo(npc);
+			if (Float.isNaN(distance)) return unknownDistanceGain(npc);
 
-				float distance = distance(listenerLocation, sourceLocation);
-				return Math.max(NPC_FLOOR, attenuation(distance, NPC_MAX_DISTANCE, NPC_FLOOR));
-			}
-			else return NOISE_FLOOR; // actor has despawned, silence
+			return Math.max(NPC_FLOOR, attenuation(distance, NPC_MAX_DISTANCE, NPC_FLOOR));
 		};
 	}
 
 	public Supplier<Float> friend(Player player) {
 		return () -> {
-			int basePercentage = config.masterVolume();
-			final int boostPercentage = config.friendsVolumeBoost();
-
-			if (config.distanceFadeEnabled()) {
-				WorldPoint sourceLoc = player.getWorldLocation();
-				WorldPoint listenLoc = client.getLocalPlayer().getWorldLocation();
-				float distance = distance(sourceLoc, listenLoc);
+			ConfigSnapshot settings = configTracker.getSnapshot();
+			int basePercentage = settings.getMasterVolume();
+			final int boostPercentage = settings.getFriendsVolumeBoost();
 
+			float distance = worldTracker.getSnapshot().distanceTo(player);
+			if (settings.isDistanceFadeEnabled() && !Float.isNaN(distance)) {
 				float attenuationFactor = easeInOutQuad(distance / CHAT_MAX_DISTANCE);
 
 				basePercentage = (int) (basePercentage * (1 + attenuationFactor));
@@ -115,10 +97,8 @@ public class VolumeManager implements PluginModule {
 
 	public Supplier<Float> friend(EntityID player) {
 		return () -> {
-			int basePercentage = config.masterVolume();
-			final int boostPercentage = config.friendsVolumeBoost();
-
-			return AudioEngine.getDecibelBoost(basePercentage, boostPercentage);
+			ConfigSnapshot settings = configTracker.getSnapshot();
+			return AudioEngine.getDecibelBoost(settings.getMasterVolume(), settings.getFriendsVolumeBoost());
 		};
 	}
 
@@ -156,6 +136,7 @@ public class VolumeManager implements PluginModule {
 				else {
 					volume = overhead(player.get());
 				}
+				volume = zoned(volume);
 				break;
 
 			case RemotePlayers:
@@ -176,6 +157,18 @@ public class VolumeManager implements PluginModule {
 		return volume;
 	}
 
+	// lowered by the volume zone the local player is standing in
+	private Supplier<Float> zoned(Supplier<Float> volume) {
+		return () -> Math.max(NOISE_FLOOR, volume.get() + zoneTracker.getListenerGain());
+	}
+
+	private float unknownDistanceGain(Actor actor) {
+		// spawned since the last tick, full volume until the next snapshot
+		if (actorIndex.isSpawned(actor)) return 0f;
+		// actor has despawned, silence
+		return NOISE_FLOOR;
+	}
+
 	public float attenuation(float distance, float maxDistance, float floor) {
 		if (distance < 1) return 0;
 
@@ -184,37 +177,9 @@ public class VolumeManager implements PluginModule {
 
 		return result;
 	}
-	// we need accurate distances, WorldPoint::distanceTo is too coarse for audio
-
-	private static float distance(WorldPoint a, WorldPoint b) {
-		int distanceX = a.getX() - b.getX();
-		int distanceY = a.getY() - b.getY();
-		int distanceZ = a.getPlane() - b.getPlane();
-		return (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ);
-	}
 	// https://easings.net/#easeInOutQuad
 
 	private static float easeInOutQuad(float x) {
 		return (float) (x < 0.5 ? 2 * x * x : 1 - Math.pow(-2 * x + 2, 2) / 2);
 	}
-
-	@Subscribe
-	private void onPlayerSpawned(PlayerSpawned event) {
-		spawnedActors.add(event.getActor());
-	}
-
-	@Subscribe
-	private void onPlayerDespawned(PlayerDespawned event) {
-		spawnedActors.remove(event.getActor());
-	}
-
-	@Subscribe
-	private void onNpcSpawned(NpcSpawned event) {
-		spawnedActors.add(event.getActor());
-	}
-
-	@Subscribe
-	private void onNpcDespawned(NpcDespawned event) {
-		spawnedActors.remove(event.getActor());
-	}
 }
@@ -0,0 +1,134 @@
+package dev.phyce.naturalspeech.configs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import dev.phyce.naturalspeech.statics.ConfigKeys;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Immutable copy of the settings read on hot paths, see {@link ConfigTracker}.
+ * <p>
+ * {@link NaturalSpeechConfig} methods are proxied {@code ConfigManager} lookups that parse strings on every call,
+ * reading a snapshot field is a plain field access and safe from any thread.
+ */
+@Value
+public class ConfigSnapshot {
+
+	boolean masterMute;
+	int masterVolume;
+	int friendsVolumeBoost;
+	boolean distanceFadeEnabled;
+	boolean holdShiftRightClickMenu;
+
+	boolean publicChatEnabled;
+	boolean privateChatEnabled;
+	boolean privateOutChatEnabled;
+	boolean clanChatEnabled;
+	boolean clanGuestChatEnabled;
+	boolean groupIronmanChatEnabled;
+	boolean examineChatEnabled;
+	boolean npcOverheadEnabled;
+	boolean dialogEnabled;
+	boolean requestsEnabled;
+	boolean systemMessagesEnabled;
+	boolean twitchChatEnabled;
+
+	boolean friendsOnlyMode;
+	boolean muteOtherPlayers;
+	boolean muteSelf;
+	boolean muteGrandExchange;
+	String muteZones;
+	int muteLevelThreshold;
+	int muteCrowds;
+	NaturalSpeechConfig.FloodPolicy floodPolicy;
+	boolean floodExemptFriends;
+	boolean muteNearDuplicates;
+	int nearDuplicateDistance;
+
+	boolean useBuiltInReplacements;
+	boolean enableDialogTextReplacements;
+
+	// the boolean settings above by config key, for menus toggling keys by name
+	@Getter(AccessLevel.NONE)
+	ImmutableMap<String, Boolean> toggles;
+
+	private ConfigSnapshot(NaturalSpeechConfig config) {
+		masterMute = config.masterMute();
+		masterVolume = config.masterVolume();
+		friendsVolumeBoost = config.friendsVolumeBoost();
+		distanceFadeEnabled = config.distanceFadeEnabled();
+		holdShiftRightClickMenu = config.holdShiftRightClickMenu();
+
+		publicChatEnabled = config.publicChatEnabled();
+		privateChatEnabled = config.privateChatEnabled();
+		privateOutChatEnabled = config.privateOutChatEnabled();
+		clanChatEnabled = config.clanChatEnabled();
+		clanGuestChatEnabled = config.clanGuestChatEnabled();
+		groupIronmanChatEnabled = config.groupIronmanChatEnabled();
+		examineChatEnabled = config.examineChatEnabled();
+		npcOverheadEnabled = config.npcOverheadEnabled();
+		dialogEnabled = config.dialogEnabled();
+		requestsEnabled = config.requestsEnabled();
+		systemMessagesEnabled = config.systemMesagesEnabled();
+		twitchChatEnabled = config.twitchChatEnabled();
+
+		friendsOnlyMode = config.friendsOnlyMode();
+		muteOtherPlayers = config.muteOtherPlayers();
+		muteSelf = config.muteSelf();
+		muteGrandExchange = config.muteGrandExchange();
+		muteZones = config.muteZones();
+		muteLevelThreshold = config.muteLevelThreshold();
+		muteCrowds = config.muteCrowds();
+		floodPolicy = config.floodPolicy();
+		floodExemptFriends = config.floodExemptFriends();
+		muteNearDuplicates = config.muteNearDuplicates();
+		nearDuplicateDistance = config.nearDuplicateDistance();
+
+		useBuiltInReplacements = config.useBuiltInReplacements();
+		enableDialogTextReplacements = config.enableDialogTextReplacements();
+
+		toggles = ImmutableMap.<String, Boolean>builder()
+			.put(ConfigKeys.MASTER_MUTE, masterMute)
+			.put(ConfigKeys.DISTANCE_FADE, distanceFadeEnabled)
+			.put(ConfigKeys.HOLD_SHIFT_RIGHT_CLICK_MENU, holdShiftRightClickMenu)
+			.put(ConfigKeys.PUBLIC_CHAT, publicChatEnabled)
+			.put(ConfigKeys.PRIVATE_CHAT, privateChatEnabled)
+			.put(ConfigKeys.PRIVATE_OUT_CHAT, privateOutChatEnabled)
+			.put(ConfigKeys.CLAN_CHAT, clanChatEnabled)
+			.put(ConfigKeys.CLAN_GUEST_CHAT, clanGuestChatEnabled)
+			.put(ConfigKeys.GIM_CHAT, groupIronmanChatEnabled)
+			.put(ConfigKeys.EXAMINE_CHAT, examineChatEnabled)
+			.put(ConfigKeys.NPC_OVERHEAD, npcOverheadEnabled)
+			.put(ConfigKeys.DIALOG, dialogEnabled)
+			.put(ConfigKeys.REQUESTS, requestsEnabled)
+			.put(ConfigKeys.SYSTEM_MESSAGES, systemMessagesEnabled)
+			.put(ConfigKeys.TWITCH_CHAT, twitchChatEnabled)
+			.put(ConfigKeys.FRIENDS_ONLY_MODE, friendsOnlyMode)
+			.put(ConfigKeys.MUTE_OTHER_PLAYERS, muteOtherPlayers)
+			.put(ConfigKeys.MUTE_SELF, muteSelf)
+			.put(ConfigKeys.MUTE_GRAND_EXCHANGE, muteGrandExchange)
+			.put(ConfigKeys.FLOOD_EXEMPT_FRIENDS, floodExemptFriends)
+			.put(ConfigKeys.MUTE_NEAR_DUPLICATES, muteNearDuplicates)
+			.put(ConfigKeys.BUILTIN_REPLACEMENTS, useBuiltInReplacements)
+			.put(ConfigKeys.ENABLE_DIALOG_TEXT_REPLACE, enableDialogTextReplacements)
+			.build();
+	}
+
+	@NonNull
+	public static ConfigSnapshot of(@NonNull NaturalSpeechConfig config) {
+		return new ConfigSnapshot(config);
+	}
+
+	/**
+	 * @param configKey one of the boolean settings in {@link ConfigKeys}
+	 */
+	public boolean isToggled(@NonNull String configKey) {
+		Boolean value = toggles.get(configKey);
+		Preconditions.checkArgument(value != null, "%s is not a snapshotted toggle", configKey);
+		return value;
+	}
+}
@@ -0,0 +1,43 @@
+package dev.phyce.naturalspeech.configs;
+
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import lombok.Getter;
+import lombok.NonNull;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+
+/**
+ * Publishes a {@link ConfigSnapshot}, rebuilt whenever a Natural Speech setting changes.
+ */
+@PluginSingleton
+public class ConfigTracker implements PluginModule {
+
+	private final NaturalSpeechConfig config;
+
+	@Getter
+	@NonNull
+	private volatile ConfigSnapshot snapshot;
+
+	@Inject
+	private ConfigTracker(NaturalSpeechConfig config) {
+		this.config = config;
+		this.snapshot = ConfigSnapshot.of(config);
+	}
+
+	@Override
+	public void startUp() {
+		snapshot = ConfigSnapshot.of(config);
+	}
+
+	// runs before other subscribers, so their ConfigChanged handlers already see the new snapshot
+	@Subscribe(priority=1)
+	private void onConfigChanged(ConfigChanged event) {
+		if (!event.getGroup().equals(CONFIG_GROUP)) return;
+
+		snapshot = ConfigSnapshot.of(config);
+	}
+}
@@ -0,0 +1,147 @@
+package dev.phyce.naturalspeech.entity;
+
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.WorldView;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.NpcChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.PlayerDespawned;
+import net.runelite.api.events.PlayerSpawned;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.Subscribe;
+
+/**
+ * Spawned players by standardized name and NPCs by id, maintained from spawn and despawn events,
+ * so actor lookups are hash probes instead of scans over the world view.
+ * <p>
+ * Updated on the client thread, readable from any thread.
+ */
+@Slf4j
+@PluginSingleton
+public class ActorIndex implements PluginModule {
+
+	private final Client client;
+	private final ClientThread clientThread;
+
+	private final Set<Actor> spawned = ConcurrentHashMap.newKeySet();
+	private final Map<EntityID, Player> players = new ConcurrentHashMap<>();
+	// several NPCs can share an id
+	private final Map<EntityID, Set<NPC>> npcs = new ConcurrentHashMap<>();
+
+	@Inject
+	private ActorIndex(Client client, ClientThread clientThread) {
+		this.client = client;
+		this.clientThread = clientThread;
+	}
+
+	@Override
+	public void startUp() {
+		// actors spawned before the plugin started
+		clientThread.invoke(() -> {
+			WorldView worldView = client.getTopLevelWorldView();
+			if (worldView == null) return;
+			worldView.players().forEach(this::addPlayer);
+			worldView.npcs().forEach(this::addNpc);
+		});
+	}
+
+	@Override
+	public void shutDown() {
+		clear();
+	}
+
+	public boolean isSpawned(@NonNull Actor actor) {
+		return spawned.contains(actor);
+	}
+
+	@CheckForNull
+	public Player getPlayer(@NonNull EntityID entityID) {
+		return players.get(entityID);
+	}
+
+	@CheckForNull
+	public NPC getNpc(@NonNull EntityID entityID) {
+		Set<NPC> matches = npcs.get(entityID);
+		if (matches == null) return null;
+		for (NPC npc : matches) return npc;
+		return null;
+	}
+
+	@Subscribe
+	private void onPlayerSpawned(PlayerSpawned event) {
+		addPlayer(event.getPlayer());
+	}
+
+	@Subscribe
+	private void onPlayerDespawned(PlayerDespawned event) {
+		Player player = event.getPlayer();
+		spawned.remove(player);
+		if (player.getName() != null) players.remove(EntityID.player(player), player);
+	}
+
+	@Subscribe
+	private void onNpcSpawned(NpcSpawned event) {
+		addNpc(event.getNpc());
+	}
+
+	@Subscribe
+	private void onNpcDespawned(NpcDespawned event) {
+		NPC npc = event.getNpc();
+		spawned.remove(npc);
+		removeNpc(EntityID.npc(npc), npc);
+	}
+
+	@Subscribe
+	private void onNpcChanged(NpcChanged event) {
+		// transformed NPCs are keyed by their transformed id
+		NPC npc = event.getNpc();
+		removeNpc(EntityID.id(event.getOld().getId()), npc);
+		removeNpc(EntityID.npc(npc), npc);
+		addNpc(npc);
+	}
+
+	@Subscribe
+	private void onGameStateChanged(GameStateChanged event) {
+		GameState state = event.getGameState();
+		if (state == GameState.LOGIN_SCREEN || state == GameState.HOPPING) clear();
+	}
+
+	private void addPlayer(@CheckForNull Player player) {
+		if (player == null) return;
+		spawned.add(player);
+		if (player.getName() != null) players.put(EntityID.player(player), player);
+	}
+
+	private void addNpc(@CheckForNull NPC npc) {
+		if (npc == null) return;
+		spawned.add(npc);
+		npcs.computeIfAbsent(EntityID.npc(npc), id -> ConcurrentHashMap.newKeySet()).add(npc);
+	}
+
+	private void removeNpc(EntityID entityID, NPC npc) {
+		npcs.computeIfPresent(entityID, (id, matches) -> {
+			matches.remove(npc);
+			return matches.isEmpty() ? null : matches;
+		});
+	}
+
+	private void clear() {
+		spawned.clear();
+		players.clear();
+		npcs.clear();
+	}
+}
@@ -1,6 +1,11 @@
 package dev.phyce.naturalspeech.entity;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -12,6 +17,7 @@ import com.google.gson.annotations.JsonAdapter;
 import dev.phyce.naturalspeech.statics.MagicNames;
 import dev.phyce.naturalspeech.utils.Standardize;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import javax.annotation.Nullable;
 import lombok.NonNull;
@@ -23,6 +29,19 @@ import net.runelite.api.Player;
 @Slf4j
 @JsonAdapter(EntityID.JSONAdaptor.class)
 public final class EntityID {
+	// interned instances, must be initialized before the constants below
+	private static final int INTERN_SIZE = 4096;
+	private static final LoadingCache<String, EntityID> canonicalNames = CacheBuilder.newBuilder()
+		.maximumSize(INTERN_SIZE)
+		.build(CacheLoader.from(standardName -> new EntityID(null, standardName)));
+	// raw names to their interned instance, skips standardizing names seen before
+	private static final LoadingCache<String, EntityID> rawNames = CacheBuilder.newBuilder()
+		.maximumSize(INTERN_SIZE)
+		.build(CacheLoader.from(name -> canonicalNames.getUnchecked(Standardize.standardName(name))));
+	private static final LoadingCache<Integer, EntityID> ids = CacheBuilder.newBuilder()
+		.maximumSize(INTERN_SIZE)
+		.build(CacheLoader.from(id -> new EntityID(id, null)));
+
 	public static final EntityID LOCAL_PLAYER = name(MagicNames.LOCAL_PLAYER);
 	public static final EntityID SYSTEM = name(MagicNames.SYSTEM);
 	public static final EntityID GLOBAL_NPC = name(MagicNames.GLOBAL_NPC);
@@ -39,32 +58,37 @@ public final class EntityID {
 		this.name = name;
 	}
 
+	/**
+	 * Interned, repeated names return the same instance without being standardized again.
+	 */
 	public static EntityID name(@NonNull String name) {
-		return new EntityID(null, Standardize.standardName(name));
+		return rawNames.getUnchecked(name);
 	}
 
 	public static EntityID id(int id) {
-		return new EntityID(id, null);
+		return ids.getUnchecked(id);
 	}
 
 	public static EntityID npc(@NonNull NPC npc) {
-		return new EntityID(Standardize.standardNpcID(npc), null);
+		return id(Standardize.standardNpcID(npc));
 	}
 
 	public static EntityID player(@NonNull Player player) {
 		Preconditions.checkNotNull(player.getName());
 
-		return new EntityID(null, Standardize.standardPlayerName(player));
+		return name(player.getName());
 	}
 
 	public static EntityID friend(@NonNull Friend friend) {
 		Preconditions.checkNotNull(friend.getName());
 
-		return new EntityID(null, Standardize.standardFriendName(friend));
+		return name(friend.getName());
 	}
 
 	@Override
 	public boolean equals(Object other) {
+		// interned instances usually compare by reference
+		if (this == other) return true;
 		if (other == null) return false;
 		if (!(other instanceof EntityID)) return false;
 
@@ -98,7 +122,7 @@ public final class EntityID {
 	}
 
 	public boolean isName(@NonNull String name) {
-		return Objects.equals(this.name, Standardize.standardName(name));
+		return Objects.equals(this.name, name(name).name);
 	}
 
 	public boolean isValid() {
@@ -119,6 +143,20 @@ public final class EntityID {
 		}
 	}
 
+	/**
+	 * Well distributed 64-bit hash, stable across sessions. Used for consistent voice assignment.
+	 */
+	public long stableHash() {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		if (id != null) {
+			hasher.putByte((byte) 0).putInt(id);
+		}
+		else if (name != null) {
+			hasher.putByte((byte) 1).putString(name, StandardCharsets.UTF_8);
+		}
+		return hasher.hash().asLong();
+	}
+
 	@NonNull
 	@Override
 	public String toString() {
@@ -167,6 +205,13 @@ public final class EntityID {
 				log.error("SID must have either id or name");
 				return null;
 			}
+			else if (name == null) {
+				return id(id);
+			}
+			else if (id == null) {
+				// serialized names are already standardized
+				return canonicalNames.getUnchecked(name);
+			}
 			else {
 				return new EntityID(id, name);
 			}
@@ -0,0 +1,119 @@
+package dev.phyce.naturalspeech.entity;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.Friend;
+import net.runelite.api.GameState;
+import net.runelite.api.NameableContainer;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.NameableNameChanged;
+import net.runelite.api.events.RemovedFriend;
+import net.runelite.client.eventbus.Subscribe;
+
+/**
+ * Index of the friend list by standardized name, rebuilt on the client thread when the friend list changes,
+ * readable from any thread.
+ * <p>
+ * Renames and removals have their own events. The friend list loading after login and added friends don't,
+ * those are noticed by the container's count changing, checked once per tick.
+ */
+@Slf4j
+@PluginSingleton
+public class FriendIndex implements PluginModule {
+
+	private final Client client;
+
+	// immutable, replaced as a whole; keyed by lower case standardized name
+	private volatile ImmutableMap<String, EntityID> friends = ImmutableMap.of();
+
+	// client thread only
+	private int indexedCount = -1;
+
+	@Inject
+	private FriendIndex(Client client) {
+		this.client = client;
+	}
+
+	@Override
+	public void shutDown() {
+		friends = ImmutableMap.of();
+		indexedCount = -1;
+	}
+
+	public boolean isFriend(@NonNull EntityID entityID) {
+		return entityID.name != null && friends.containsKey(key(entityID.name));
+	}
+
+	/**
+	 * @return the friend's EntityID, case-insensitive. null if not a friend.
+	 */
+	@CheckForNull
+	public EntityID getFriend(@NonNull String username) {
+		return friends.get(key(username));
+	}
+
+	@NonNull
+	public ImmutableList<EntityID> getFriends() {
+		return friends.values().asList();
+	}
+
+	@Subscribe
+	private void onGameTick(GameTick event) {
+		NameableContainer<Friend> container = client.getFriendContainer();
+		if (container != null && container.getCount() != indexedCount) rebuild(container);
+	}
+
+	@Subscribe
+	private void onRemovedFriend(RemovedFriend event) {
+		rebuild(client.getFriendContainer());
+	}
+
+	@Subscribe
+	private void onNameableNameChanged(NameableNameChanged event) {
+		if (event.getNameable() instanceof Friend) rebuild(client.getFriendContainer());
+	}
+
+	@Subscribe
+	private void onGameStateChanged(GameStateChanged event) {
+		if (event.getGameState() == GameState.LOGIN_SCREEN) {
+			friends = ImmutableMap.of();
+			indexedCount = -1;
+		}
+	}
+
+	private void rebuild(@CheckForNull NameableContainer<Friend> container) {
+		if (container == null) return;
+
+		Friend[] members = container.getMembers();
+		if (members == null) {
+			log.warn("client.getFriendContainer().getMembers() returned null");
+			return;
+		}
+
+		Map<String, EntityID> index = new LinkedHashMap<>(members.length * 2);
+		for (Friend friend : members) {
+			if (friend == null || friend.getName() == null) continue;
+			EntityID entityID = EntityID.friend(friend);
+			index.putIfAbsent(key(entityID.name), entityID);
+		}
+
+		friends = ImmutableMap.copyOf(index);
+		indexedCount = container.getCount();
+		log.trace("Indexed {} friends", friends.size());
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,195 @@
+package dev.phyce.naturalspeech.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.NonNull;
+import net.runelite.api.Actor;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Immutable positions of the listener and every spawned actor, captured on the client thread once per tick.
+ * <p>
+ * Safe to read from any thread, e.g. gain suppliers on the audio thread, without touching the client.
+ * Players are also bucketed into a grid of {@value CELL_SIZE}x{@value CELL_SIZE} tile cells for radius queries.
+ */
+public final class WorldSnapshot {
+
+	public static final WorldSnapshot EMPTY = new WorldSnapshot();
+
+	/**
+	 * Players within this many tiles count towards {@link #getCrowd()}.
+	 */
+	public static final int CROWD_RADIUS = 15;
+
+	private static final int CELL_SHIFT = 3;
+	private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+	private final boolean present;
+	private final int listenerX;
+	private final int listenerY;
+	private final int listenerPlane;
+
+	private final Map<Actor, Integer> indices;
+	private final int[] xs;
+	private final int[] ys;
+	private final int[] planes;
+
+	// players by cell, cellStart[cell] until cellStart[cell + 1] in cellPlayers
+	private final int gridX;
+	private final int gridY;
+	private final int gridWidth;
+	private final int gridHeight;
+	private final int[] cellStart;
+	private final int[] cellPlayers;
+	private final int listenerIndex;
+
+	/**
+	 * Players within {@link #CROWD_RADIUS} of the listener, not counting the listener.
+	 */
+	@Getter
+	private final int crowd;
+
+	private WorldSnapshot() {
+		present = false;
+		listenerX = listenerY = listenerPlane = 0;
+		indices = Collections.emptyMap();
+		xs = ys = planes = new int[0];
+		gridX = gridY = gridWidth = gridHeight = 0;
+		cellStart = new int[1];
+		cellPlayers = new int[0];
+		listenerIndex = -1;
+		crowd = 0;
+	}
+
+	private WorldSnapshot(Player listener, List<Player> players, List<NPC> npcs) {
+		int count = players.size() + npcs.size();
+		Map<Actor, Integer> indices = new IdentityHashMap<>(count * 2);
+		xs = new int[count];
+		ys = new int[count];
+		planes = new int[count];
+
+		List<Actor> actors = new ArrayList<>(count);
+		actors.addAll(players);
+		actors.addAll(npcs);
+		for (int i = 0; i < count; i++) {
+			Actor actor = actors.get(i);
+			WorldPoint location = actor.getWorldLocation();
+			xs[i] = location.getX();
+			ys[i] = location.getY();
+			planes[i] = location.getPlane();
+			indices.put(actor, i);
+		}
+		this.indices = Collections.unmodifiableMap(indices);
+
+		WorldPoint listenerLocation = listener.getWorldLocation();
+		present = true;
+		listenerX = listenerLocation.getX();
+		listenerY = listenerLocation.getY();
+		listenerPlane = listenerLocation.getPlane();
+		listenerIndex = indices.getOrDefault(listener, -1);
+
+		// players occupy indices [0, players.size())
+		int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE;
+		int maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+		for (int i = 0; i < players.size(); i++) {
+			minCellX = Math.min(minCellX, xs[i] >> CELL_SHIFT);
+			minCellY = Math.min(minCellY, ys[i] >> CELL_SHIFT);
+			maxCellX = Math.max(maxCellX, xs[i] >> CELL_SHIFT);
+			maxCellY = Math.max(maxCellY, ys[i] >> CELL_SHIFT);
+		}
+		if (players.isEmpty()) {
+			gridX = gridY = gridWidth = gridHeight = 0;
+		}
+		else {
+			gridX = minCellX;
+			gridY = minCellY;
+			gridWidth = maxCellX - minCellX + 1;
+			gridHeight = maxCellY - minCellY + 1;
+		}
+
+		cellStart = new int[gridWidth * gridHeight + 1];
+		cellPlayers = new int[players.size()];
+		for (int i = 0; i < players.size(); i++) cellStart[cell(i) + 1]++;
+		for (int cell = 0; cell < gridWidth * gridHeight; cell++) cellStart[cell + 1] += cellStart[cell];
+		int[] fill = cellStart.clone();
+		for (int i = 0; i < players.size(); i++) cellPlayers[fill[cell(i)]++] = i;
+
+		crowd = countPlayersWithin(CROWD_RADIUS);
+	}
+
+	static WorldSnapshot capture(
+		@NonNull Player listener,
+		@NonNull Iterable<? extends Player> players,
+		@NonNull Iterable<? extends NPC> npcs
+	) {
+		List<Player> playerList = new ArrayList<>();
+		for (Player player : players) if (player != null) playerList.add(player);
+		List<NPC> npcList = new ArrayList<>();
+		for (NPC npc : npcs) if (npc != null) npcList.add(npc);
+		return new WorldSnapshot(listener, playerList, npcList);
+	}
+
+	/**
+	 * Whether there was a listener when captured, false when logged out.
+	 */
+	public boolean isPresent() {
+		return present;
+	}
+
+	public boolean contains(@NonNull Actor actor) {
+		return indices.containsKey(actor);
+	}
+
+	/**
+	 * Euclidean distance in tiles from the listener, planes counting as one tile.
+	 *
+	 * @return NaN if the actor wasn't spawned when captured
+	 */
+	public float distanceTo(@NonNull Actor actor) {
+		Integer index = indices.get(actor);
+		if (index == null) return Float.NaN;
+
+		int distanceX = xs[index] - listenerX;
+		int distanceY = ys[index] - listenerY;
+		int distanceZ = planes[index] - listenerPlane;
+		return (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ);
+	}
+
+	/**
+	 * Players on the listener's plane within radius tiles on both axes (like {@link WorldPoint#distanceTo}),
+	 * not counting the listener.
+	 */
+	public int countPlayersWithin(int radius) {
+		if (!present || gridWidth == 0) return 0;
+
+		int fromX = Math.max((listenerX - radius) >> CELL_SHIFT, gridX) - gridX;
+		int toX = Math.min((listenerX + radius) >> CELL_SHIFT, gridX + gridWidth - 1) - gridX;
+		int fromY = Math.max((listenerY - radius) >> CELL_SHIFT, gridY) - gridY;
+		int toY = Math.min((listenerY + radius) >> CELL_SHIFT, gridY + gridHeight - 1) - gridY;
+
+		int count = 0;
+		for (int cellY = fromY; cellY <= toY; cellY++) {
+			for (int cellX = fromX; cellX <= toX; cellX++) {
+				int cell = cellY * gridWidth + cellX;
+				for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+					int player = cellPlayers[i];
+					if (player == listenerIndex || planes[player] != listenerPlane) continue;
+					if (Math.abs(xs[player] - listenerX) <= radius && Math.abs(ys[player] - listenerY) <= radius) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private int cell(int player) {
+		return ((ys[player] >> CELL_SHIFT) - gridY) * gridWidth + ((xs[player] >> CELL_SHIFT) - gridX);
+	}
+}
@@ -0,0 +1,57 @@
+package dev.phyce.naturalspeech.entity;
+
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Player;
+import net.runelite.api.WorldView;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.eventbus.Subscribe;
+
+/**
+ * Publishes a {@link WorldSnapshot} every game tick, for consumers that shouldn't touch the client themselves.
+ */
+@Slf4j
+@PluginSingleton
+public class WorldTracker implements PluginModule {
+
+	private final Client client;
+
+	@Getter
+	@NonNull
+	private volatile WorldSnapshot snapshot = WorldSnapshot.EMPTY;
+
+	@Inject
+	private WorldTracker(Client client) {
+		this.client = client;
+	}
+
+	@Override
+	public void shutDown() {
+		snapshot = WorldSnapshot.EMPTY;
+	}
+
+	@Subscribe
+	private void onGameTick(GameTick event) {
+		Player localPlayer = client.getLocalPlayer();
+		WorldView worldView = client.getTopLevelWorldView();
+		if (localPlayer == null || worldView == null) {
+			snapshot = WorldSnapshot.EMPTY;
+			return;
+		}
+
+		snapshot = WorldSnapshot.capture(localPlayer, worldView.players(), worldView.npcs());
+	}
+
+	@Subscribe
+	private void onGameStateChanged(GameStateChanged event) {
+		GameState state = event.getGameState();
+		if (state == GameState.LOGIN_SCREEN || state == GameState.HOPPING) snapshot = WorldSnapshot.EMPTY;
+	}
+}
@@ -0,0 +1,201 @@
+package dev.phyce.naturalspeech.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable set of rectangular mute and volume zones, indexed by map region for point queries.
+ * <p>
+ * Zones are packed into parallel arrays, and each 64x64 tile region (the id {@code WorldPoint#getRegionID} uses)
+ * lists the zones overlapping it. A query only tests the few zones in its own region,
+ * so hundreds of zones across the map cost about the same as one.
+ */
+@Slf4j
+public final class ZoneIndex {
+
+	public static final ZoneIndex EMPTY = new Builder().build();
+
+	/**
+	 * Gain of a mute zone, quieter than any volume zone.
+	 */
+	public static final float MUTE = Float.NEGATIVE_INFINITY;
+
+	/**
+	 * Matches zones on every plane.
+	 */
+	public static final int ANY_PLANE = -1;
+
+	private static final int REGION_SHIFT = 6;
+	// zones covering more regions than this are tested on every query instead of filling the index
+	private static final int MAX_REGIONS_PER_ZONE = 64;
+
+	private static final int[] NO_ZONES = new int[0];
+
+	private final int[] minXs;
+	private final int[] minYs;
+	private final int[] maxXs;
+	private final int[] maxYs;
+	private final int[] planes;
+	private final float[] gains;
+
+	private final Map<Integer, int[]> regions;
+	private final int[] large;
+
+	private ZoneIndex(Builder builder) {
+		int count = builder.gains.size();
+		minXs = new int[count];
+		minYs = new int[count];
+		maxXs = new int[count];
+		maxYs = new int[count];
+		planes = new int[count];
+		gains = new float[count];
+
+		Map<Integer, List<Integer>> regionLists = new HashMap<>();
+		List<Integer> largeList = new ArrayList<>();
+		for (int zone = 0; zone < count; zone++) {
+			int[] bounds = builder.bounds.get(zone);
+			minXs[zone] = bounds[0];
+			minYs[zone] = bounds[1];
+			maxXs[zone] = bounds[2];
+			maxYs[zone] = bounds[3];
+			planes[zone] = bounds[4];
+			gains[zone] = builder.gains.get(zone);
+
+			int fromRegionX = minXs[zone] >> REGION_SHIFT, toRegionX = maxXs[zone] >> REGION_SHIFT;
+			int fromRegionY = minYs[zone] >> REGION_SHIFT, toRegionY = maxYs[zone] >> REGION_SHIFT;
+			if ((long) (toRegionX - fromRegionX + 1) * (toRegionY - fromRegionY + 1) > MAX_REGIONS_PER_ZONE) {
+				largeList.add(zone);
+				continue;
+			}
+			for (int regionX = fromRegionX; regionX <= toRegionX; regionX++) {
+				for (int regionY = fromRegionY; regionY <= toRegionY; regionY++) {
+					regionLists.computeIfAbsent(regionId(regionX, regionY), k -> new ArrayList<>()).add(zone);
+				}
+			}
+		}
+
+		regions = new HashMap<>(regionLists.size() * 2);
+		regionLists.forEach((region, zones) -> regions.put(region, toArray(zones)));
+		large = toArray(largeList);
+	}
+
+	@NonNull
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public int size() {
+		return gains.length;
+	}
+
+	/**
+	 * Gain in decibels for a listener standing on the tile, the quietest of the zones containing it.
+	 *
+	 * @return 0 outside every zone, {@link #MUTE} inside a mute zone
+	 */
+	public float gainAt(int x, int y, int plane) {
+		if (gains.length == 0) return 0;
+
+		float gain = gainAt(large, x, y, plane, 0);
+		int[] zones = regions.getOrDefault(regionId(x >> REGION_SHIFT, y >> REGION_SHIFT), NO_ZONES);
+		return gainAt(zones, x, y, plane, gain);
+	}
+
+	private float gainAt(int[] zones, int x, int y, int plane, float gain) {
+		for (int zone : zones) {
+			if (x < minXs[zone] || x > maxXs[zone] || y < minYs[zone] || y > maxYs[zone]) continue;
+			if (planes[zone] != ANY_PLANE && planes[zone] != plane) continue;
+			gain = Math.min(gain, gains[zone]);
+		}
+		return gain;
+	}
+
+	private static int regionId(int regionX, int regionY) {
+		return regionX << 8 | regionY;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+		return array;
+	}
+
+	public static final class Builder {
+
+		private final List<int[]> bounds = new ArrayList<>();
+		private final List<Float> gains = new ArrayList<>();
+
+		private Builder() {}
+
+		/**
+		 * Adds the rectangle between two corner tiles, inclusive, in any order.
+		 *
+		 * @param plane the zone's plane, or {@link #ANY_PLANE}
+		 * @param gain  decibels, or {@link #MUTE}
+		 */
+		@NonNull
+		public Builder add(int x1, int y1, int x2, int y2, int plane, float gain) {
+			bounds.add(new int[] {Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), plane});
+			gains.add(gain);
+			return this;
+		}
+
+		/**
+		 * Adds zones written one per line, as {@code x1,y1,x2,y2=mute} or {@code x1,y1,x2,y2=volume%}.
+		 * <p>
+		 * An optional plane follows the corners, {@code x1,y1,x2,y2,plane=...}, and an optional label before a colon
+		 * names the zone, {@code Lumbridge bank: 3207,3215,3210,3222,2=mute}. Lines that don't parse are skipped.
+		 */
+		@NonNull
+		public Builder addLines(@NonNull String text) {
+			for (String line : text.split("\n")) {
+				line = line.trim();
+				if (line.isEmpty()) continue;
+				if (!addLine(line)) log.debug("Skipping invalid zone: {}", line);
+			}
+			return this;
+		}
+
+		private boolean addLine(String line) {
+			int equals = line.lastIndexOf('=');
+			if (equals == -1) return false;
+
+			String area = line.substring(line.lastIndexOf(':', equals) + 1, equals);
+			String effect = line.substring(equals + 1).trim().toLowerCase();
+
+			String[] parts = area.split(",");
+			if (parts.length != 4 && parts.length != 5) return false;
+
+			float gain;
+			int[] numbers = new int[parts.length];
+			try {
+				for (int i = 0; i < parts.length; i++) numbers[i] = Integer.parseInt(parts[i].trim());
+
+				if (effect.equals("mute")) {
+					gain = MUTE;
+				}
+				else {
+					if (effect.endsWith("%")) effect = effect.substring(0, effect.length() - 1).trim();
+					int volume = Integer.parseInt(effect);
+					if (volume < 0 || volume > 100) return false;
+					gain = volume == 0 ? MUTE : (float) (20 * Math.log10(volume / 100.0));
+				}
+			} catch (NumberFormatException ex) {
+				return false;
+			}
+
+			int plane = numbers.length == 5 ? numbers[4] : ANY_PLANE;
+			add(numbers[0], numbers[1], numbers[2], numbers[3], plane, gain);
+			return true;
+		}
+
+		@NonNull
+		public ZoneIndex build() {
+			return new ZoneIndex(this);
+		}
+	}
+}
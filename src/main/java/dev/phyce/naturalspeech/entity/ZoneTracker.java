@@ -0,0 +1,112 @@
+package dev.phyce.naturalspeech.entity;
+
+import com.google.inject.Inject;
+import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import dev.phyce.naturalspeech.statics.ConfigKeys;
+import dev.phyce.naturalspeech.utils.LocationUtil;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+
+/**
+ * Keeps the mute and volume zones in a {@link ZoneIndex}, and looks up the local player's zone once per game tick.
+ */
+@Slf4j
+@PluginSingleton
+public class ZoneTracker implements PluginModule {
+
+	private final Client client;
+	private final ConfigTracker configTracker;
+
+	@NonNull
+	private volatile ZoneIndex index = ZoneIndex.EMPTY;
+
+	@Nullable
+	private volatile WorldPoint listenerLocation = null;
+
+	/**
+	 * Gain in decibels of the zone the local player stood in last tick, {@link ZoneIndex#MUTE} in a mute zone.
+	 */
+	@Getter
+	private volatile float listenerGain = 0;
+
+	@Inject
+	private ZoneTracker(Client client, ConfigTracker configTracker) {
+		this.client = client;
+		this.configTracker = configTracker;
+	}
+
+	@Override
+	public void startUp() {
+		rebuild();
+	}
+
+	@Override
+	public void shutDown() {
+		index = ZoneIndex.EMPTY;
+		listenerLocation = null;
+		listenerGain = 0;
+	}
+
+	public boolean isListenerMuted() {
+		return listenerGain == ZoneIndex.MUTE;
+	}
+
+	@Subscribe
+	private void onGameTick(GameTick event) {
+		Player localPlayer = client.getLocalPlayer();
+		listenerLocation = localPlayer == null ? null : localPlayer.getWorldLocation();
+		updateListenerGain();
+	}
+
+	@Subscribe
+	private void onGameStateChanged(GameStateChanged event) {
+		GameState state = event.getGameState();
+		if (state == GameState.LOGIN_SCREEN || state == GameState.HOPPING) {
+			listenerLocation = null;
+			updateListenerGain();
+		}
+	}
+
+	// after ConfigTracker, which subscribes with a higher priority and has the new snapshot
+	@Subscribe
+	private void onConfigChanged(ConfigChanged event) {
+		if (!event.getGroup().equals(CONFIG_GROUP)) return;
+
+		String key = event.getKey();
+		if (key.equals(ConfigKeys.MUTE_ZONES) || key.equals(ConfigKeys.MUTE_GRAND_EXCHANGE)) rebuild();
+	}
+
+	private void rebuild() {
+		ConfigSnapshot settings = configTracker.getSnapshot();
+		ZoneIndex.Builder builder = ZoneIndex.builder();
+		if (settings.isMuteGrandExchange()) {
+			WorldPoint start = LocationUtil.GRAND_EXCHANGE.getStart();
+			WorldPoint end = LocationUtil.GRAND_EXCHANGE.getEnd();
+			builder.add(start.getX(), start.getY(), end.getX(), end.getY(), ZoneIndex.ANY_PLANE, ZoneIndex.MUTE);
+		}
+		builder.addLines(settings.getMuteZones());
+
+		index = builder.build();
+		log.trace("Loaded {} mute zones", index.size());
+		updateListenerGain();
+	}
+
+	private void updateListenerGain() {
+		WorldPoint location = listenerLocation;
+		listenerGain = location == null ? 0 : index.gainAt(location.getX(), location.getY(), location.getPlane());
+	}
+}
@@ -0,0 +1,106 @@
+package dev.phyce.naturalspeech.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A single thread filtering, normalizing and resolving chat for speech, so event handlers only
+ * capture what they need from the client and return.
+ * <p>
+ * One thread keeps messages in the order they arrived. The queue is bounded, during a flood the oldest
+ * waiting message is dropped for the newest, it would have been stale by the time it was spoken.
+ * Time spent per handler on the client thread and on the worker is kept for {@link #getStats()}.
+ */
+@Slf4j
+@PluginSingleton
+public class ChatWorker implements PluginModule {
+
+	public enum Handler {
+		CHAT_MESSAGE,
+		OVERHEAD_TEXT
+	}
+
+	@VisibleForTesting
+	static final int CAPACITY = 64;
+
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLongArray clientCalls = new AtomicLongArray(Handler.values().length);
+	private final AtomicLongArray clientNanos = new AtomicLongArray(Handler.values().length);
+	private final AtomicLongArray clientMaxNanos = new AtomicLongArray(Handler.values().length);
+	private final AtomicLongArray workerCalls = new AtomicLongArray(Handler.values().length);
+	private final AtomicLongArray workerNanos = new AtomicLongArray(Handler.values().length);
+
+	public ChatWorker() {
+		executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(CAPACITY),
+			new ThreadFactoryBuilder().setNameFormat("natural-speech-chat").setDaemon(true).build(),
+			(task, self) -> {
+				if (self.isShutdown()) return;
+				self.getQueue().poll();
+				dropped.incrementAndGet();
+				self.execute(task);
+			});
+	}
+
+	@Override
+	public void shutDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Queues work for the worker thread, the handler names it in {@link #getStats()}.
+	 */
+	public void submit(@NonNull Handler handler, @NonNull Runnable task) {
+		executor.execute(() -> {
+			long start = System.nanoTime();
+			try {
+				task.run();
+			} catch (Throwable e) {
+				log.error("Chat worker {} failed", handler, e);
+			} finally {
+				workerCalls.incrementAndGet(handler.ordinal());
+				workerNanos.addAndGet(handler.ordinal(), System.nanoTime() - start);
+			}
+		});
+	}
+
+	/**
+	 * Records the time a handler spent on the client thread since {@code startNanos}.
+	 */
+	public void record(@NonNull Handler handler, long startNanos) {
+		long nanos = System.nanoTime() - startNanos;
+		clientCalls.incrementAndGet(handler.ordinal());
+		clientNanos.addAndGet(handler.ordinal(), nanos);
+		clientMaxNanos.accumulateAndGet(handler.ordinal(), nanos, Math::max);
+	}
+
+	/**
+	 * Average and worst client thread time of each handler, and the average it handed to the worker, for diagnostics.
+	 */
+	@NonNull
+	public String getStats() {
+		StringBuilder builder = new StringBuilder();
+		for (Handler handler : Handler.values()) {
+			int i = handler.ordinal();
+			long calls = clientCalls.get(i);
+			if (calls == 0) continue;
+			long jobs = workerCalls.get(i);
+			builder.append(String.format("%s:%d client:%.1fus max:%.1fus worker:%.1fus ",
+				handler.name().toLowerCase(), calls,
+				clientNanos.get(i) / 1e3 / calls, clientMaxNanos.get(i) / 1e3,
+				jobs == 0 ? 0 : workerNanos.get(i) / 1e3 / jobs));
+		}
+		return String.format("%squeued:%d dropped:%d", builder, executor.getQueue().size(), dropped.get());
+	}
+}
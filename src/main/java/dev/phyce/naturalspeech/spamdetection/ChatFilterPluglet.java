@@ -2,20 +2,20 @@ package dev.phyce.naturalspeech.spamdetection;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import dev.phyce.naturalspeech.PluginModule;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
+import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import static net.runelite.api.ChatMessageType.*;
@@ -56,8 +56,27 @@ public class ChatFilterPluglet implements PluginModule {
 	);
 
 	private final CharMatcher jagexPrintableCharMatcher = Text.JAGEX_PRINTABLE_CHAR_MATCHER;
-	private List<Pattern> filteredPatterns = Collections.emptyList();
-	private List<Pattern> filteredNamePatterns = Collections.emptyList();
+
+	/**
+	 * Chat Filter's settings and compiled filters, rebuilt when the chatfilter group changes
+	 * so messages don't go through {@link ConfigManager} lookups.
+	 */
+	@Value
+	private static class Filters {
+		static final Filters NONE = new Filters(0, false, false, false, false,
+			WordAutomaton.EMPTY, ImmutableList.of(), ImmutableList.of());
+
+		int maxRepeatedPublicChats;
+		boolean filterFriends;
+		boolean filterFriendsChat;
+		boolean filterClanChat;
+		boolean stripAccents;
+		WordAutomaton filteredWords;
+		ImmutableList<Pattern> filteredPatterns;
+		ImmutableList<Pattern> filteredNamePatterns;
+	}
+
+	private volatile Filters filters = Filters.NONE;
 
 	private static class Duplicate {
 		int messageId;
@@ -109,7 +128,12 @@ public class ChatFilterPluglet implements PluginModule {
 		private int getInteger(String key, int defaultValue) {
 			String result = configManager.getConfiguration(CHAT_FILTER_GROUP_NAME, key);
 			if (result != null) {
-				return Integer.parseInt(result);
+				try {
+					return Integer.parseInt(result);
+				} catch (NumberFormatException e) {
+					log.error("Error parsing {} from chat filters' config", key, e);
+					return defaultValue;
+				}
 			}
 			log.trace("{} doesn't exist in configManager, likely ChatFilter has never been enabled.", key);
 			return defaultValue;
@@ -168,39 +192,68 @@ public class ChatFilterPluglet implements PluginModule {
 		this.isChatFilterEnabled = Boolean.parseBoolean(
 			configManager.getConfiguration("runelite", ChatFilterClassName));
 
-		updateFilteredPatterns();
+		updateFilters();
+	}
+
+	/**
+	 * What Chat Filter decides about a message before matching its text, see {@link #precheck(String, String)}.
+	 */
+	public enum Precheck {
+		// Chat Filter is off, or doesn't filter the sender
+		EXEMPT,
+		// repeated more often than Chat Filter allows
+		REPEATED,
+		// the sender's name and the message still need matching
+		MATCH
 	}
 
 	public boolean isSpam(final String username, final String message) {
-		if (!isChatFilterEnabled) return false;
+		return isSpam(precheck(username, message), username, message);
+	}
 
-		if (username == null) {
-			return false;
-		}
-		else {
-			if (!canFilterPlayer(username)) {
-				return false;
-			}
-			if (isNameFiltered(username)) {
-				return true;
+	/**
+	 * The checks reading the client and the repeat counts, on the client thread as the message arrives.
+	 */
+	@NonNull
+	public Precheck precheck(final String username, final String message) {
+		if (!isChatFilterEnabled || username == null || !canFilterPlayer(username)) return Precheck.EXEMPT;
+
+		int maxRepeated = filters.getMaxRepeatedPublicChats();
+		if (maxRepeated > 0) {
+			Duplicate duplicateCacheEntry = duplicateChatCache.get(username + ":" + message);
+			if (duplicateCacheEntry != null && duplicateCacheEntry.count > maxRepeated) {
+				return Precheck.REPEATED;
 			}
 		}
+		return Precheck.MATCH;
+	}
 
-		Duplicate duplicateCacheEntry = duplicateChatCache.get(username + ":" + message);
-		//		log.trace("Duplicate chat entry count:{} for ({})", duplicateCacheEntry.count, duplicateCacheEntry);
-		if (config.maxRepeatedPublicChats() > 0 && duplicateCacheEntry.count > config.maxRepeatedPublicChats()) {
-			//			log.trace("Duplicate chat filtered ({})", duplicateCacheEntry);
+	/**
+	 * Matches the name and message against Chat Filter's filters, safe from any thread.
+	 */
+	public boolean isSpam(@NonNull Precheck precheck, final String username, final String message) {
+		if (precheck != Precheck.MATCH) return precheck == Precheck.REPEATED;
+
+		if (isNameFiltered(username)) {
 			return true;
 		}
 
+		Filters filters = this.filters;
+		if (filters.getFilteredWords().isEmpty() && filters.getFilteredPatterns().isEmpty()) {
+			return false;
+		}
+
 		String strippedMessage = jagexPrintableCharMatcher.retainFrom(message)
 			.replace('\u00A0', ' ')
-			.replaceAll("<lt>", "<")
-			.replaceAll("<gt>", ">");
-		String strippedAccents = stripAccents(strippedMessage);
+			.replace("<lt>", "<")
+			.replace("<gt>", ">");
+		String strippedAccents = filters.isStripAccents() ? StringUtils.stripAccents(strippedMessage) : strippedMessage;
 
+		if (filters.getFilteredWords().containsAny(strippedAccents)) {
+			return true;
+		}
 
-		for (Pattern pattern : filteredPatterns) {
+		for (Pattern pattern : filters.getFilteredPatterns()) {
 			Matcher m = pattern.matcher(strippedAccents);
 			if (m.find()) {
 				return true;
@@ -215,13 +268,12 @@ public class ChatFilterPluglet implements PluginModule {
 		// if spam filter was installed after runelite session started
 		if (event.getPlugin().getName().equals("Chat Filter")) {
 			if (event.isLoaded()) {
-				updateFilteredPatterns();
+				updateFilters();
 				log.trace("Detected ChatFilterPlugin activated");
 				isChatFilterEnabled = true;
 			}
 			else {
-				filteredPatterns = Collections.emptyList();
-				filteredNamePatterns = Collections.emptyList();
+				filters = Filters.NONE;
 				duplicateChatCache.clear();
 				log.trace("Detected ChatFilterPlugin deactivated");
 				isChatFilterEnabled = false;
@@ -268,15 +320,16 @@ public class ChatFilterPluglet implements PluginModule {
 			return;
 		}
 
-		updateFilteredPatterns();
+		updateFilters();
 	}
 
 	boolean canFilterPlayer(String playerName) {
+		Filters filters = this.filters;
 		boolean isMessageFromSelf = playerName.equals(client.getLocalPlayer().getName());
 		return !isMessageFromSelf &&
-			(config.filterFriends() || !client.isFriended(playerName, false)) &&
-			(config.filterFriendsChat() || !isFriendsChatMember(playerName)) &&
-			(config.filterClanChat() || !isClanChatMember(playerName));
+			(filters.isFilterFriends() || !client.isFriended(playerName, false)) &&
+			(filters.isFilterFriendsChat() || !isFriendsChatMember(playerName)) &&
+			(filters.isFilterClanChat() || !isClanChatMember(playerName));
 	}
 
 	private boolean isFriendsChatMember(String name) {
@@ -299,48 +352,37 @@ public class ChatFilterPluglet implements PluginModule {
 		return false;
 	}
 
-	private void updateFilteredPatterns() {
-		log.trace("Updating filtered patterns");
-		List<Pattern> patterns = new ArrayList<>();
-		List<Pattern> namePatterns = new ArrayList<>();
-
-		Text.fromCSV(config.filteredWords()).stream()
-			.map(this::stripAccents)
-			.map(s -> Pattern.compile(Pattern.quote(s), Pattern.CASE_INSENSITIVE))
-			.forEach(patterns::add);
-
-		NEWLINE_SPLITTER.splitToList(config.filteredRegex()).stream()
-			.map(this::stripAccents)
-			.map(ChatFilterPluglet::compilePattern)
-			.filter(Objects::nonNull)
-			.forEach(patterns::add);
-
-		NEWLINE_SPLITTER.splitToList(config.filteredNames()).stream()
-			.map(this::stripAccents)
-			.map(ChatFilterPluglet::compilePattern)
-			.filter(Objects::nonNull)
-			.forEach(namePatterns::add);
-
-		filteredPatterns = patterns;
-		filteredNamePatterns = namePatterns;
-
-	}
-
-	private String stripAccents(String input) {
-		return config.stripAccents() ? StringUtils.stripAccents(input) : input;
-	}
-
-	private static Pattern compilePattern(String pattern) {
-		try {
-			return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
-		} catch (PatternSyntaxException ex) {
-			return null;
-		}
+	private void updateFilters() {
+		log.trace("Updating filters");
+		boolean stripAccents = config.stripAccents();
+
+		List<String> words = Text.fromCSV(config.filteredWords()).stream()
+			.map(word -> stripAccents ? StringUtils.stripAccents(word) : word)
+			.collect(Collectors.toList());
+
+		List<String> regexes = NEWLINE_SPLITTER.splitToList(config.filteredRegex()).stream()
+			.map(regex -> stripAccents ? StringUtils.stripAccents(regex) : regex)
+			.collect(Collectors.toList());
+
+		List<String> nameRegexes = NEWLINE_SPLITTER.splitToList(config.filteredNames()).stream()
+			.map(regex -> stripAccents ? StringUtils.stripAccents(regex) : regex)
+			.collect(Collectors.toList());
+
+		filters = new Filters(
+			config.maxRepeatedPublicChats(),
+			config.filterFriends(),
+			config.filterFriendsChat(),
+			config.filterClanChat(),
+			stripAccents,
+			WordAutomaton.of(words),
+			FilterPatterns.compile(regexes),
+			FilterPatterns.compile(nameRegexes)
+		);
 	}
 
 	private boolean isNameFiltered(final String playerName) {
 		String sanitizedName = Text.standardize(playerName);
-		for (Pattern pattern : filteredNamePatterns) {
+		for (Pattern pattern : filters.getFilteredNamePatterns()) {
 			Matcher m = pattern.matcher(sanitizedName);
 			if (m.find()) {
 				return true;
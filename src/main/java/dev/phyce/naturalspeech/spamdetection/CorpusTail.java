@@ -0,0 +1,85 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Follows a corpus file that is only appended to, counting the tokens of each line once.
+ * <p>
+ * The trailing line without a newline is counted too, and uncounted again when the file grows,
+ * in case the line was still being written.
+ */
+final class CorpusTail {
+
+	private final File file;
+
+	// bytes of complete lines already counted
+	private long offset = 0;
+	// the trailing line without a newline, counted but possibly incomplete
+	private String partial = "";
+	private int partialBytes = 0;
+
+	CorpusTail(@NonNull File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Counts the lines appended since the previous read into counts.
+	 *
+	 * @return false if the file shrank, it was rewritten and counts must be rebuilt after {@link #reset()}
+	 */
+	boolean read(@NonNull Map<String, Integer> counts) throws IOException {
+		long length = file.exists() ? file.length() : 0;
+		if (length < offset + partialBytes) return false;
+		if (length == offset + partialBytes) return true;
+
+		byte[] bytes;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// lines appended after length() are read next time
+			ByteBuffer buffer = ByteBuffer.allocate((int) (length - offset));
+			while (buffer.hasRemaining()) {
+				// truncated while reading
+				if (channel.read(buffer, offset + buffer.position()) < 0) return false;
+			}
+			bytes = buffer.array();
+		}
+
+		if (!partial.isEmpty()) countLine(counts, partial, -1);
+
+		// a newline byte is never part of a multibyte UTF-8 sequence
+		int start = 0;
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] != '\n') continue;
+			int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+			countLine(counts, new String(bytes, start, end - start, StandardCharsets.UTF_8), 1);
+			start = i + 1;
+		}
+		offset += start;
+
+		partial = new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+		partialBytes = bytes.length - start;
+		if (!partial.isEmpty()) countLine(counts, partial, 1);
+		return true;
+	}
+
+	void reset() {
+		offset = 0;
+		partial = "";
+		partialBytes = 0;
+	}
+
+	/**
+	 * Tokenizes the same way as Spam Filter, empty lines count an empty token.
+	 */
+	static void countLine(@NonNull Map<String, Integer> counts, @NonNull String line, int delta) {
+		for (String token : line.toLowerCase().split("\\s")) {
+			counts.merge(token, delta, (count, add) -> count + add == 0 ? null : count + add);
+		}
+	}
+}
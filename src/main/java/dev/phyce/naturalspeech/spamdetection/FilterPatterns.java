@@ -0,0 +1,57 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.NonNull;
+
+/**
+ * Compiles Chat Filter's regexes into as few patterns as possible, so a message isn't scanned once per regex.
+ * <p>
+ * Regexes are joined into one case-insensitive alternation, finding the alternation is finding any of them.
+ * Regexes that can't share an alternation are kept as their own pattern, invalid ones are skipped like Chat Filter.
+ */
+final class FilterPatterns {
+
+	// backreferences and named groups would be renumbered or collide,
+	// \Q and comment mode would swallow the alternatives that follow
+	private static final Pattern NOT_COMBINABLE = Pattern.compile("\\\\[1-9kQ]|\\(\\?<[a-zA-Z]|\\(\\?[a-zA-Z-]*x");
+
+	private FilterPatterns() {}
+
+	@NonNull
+	static ImmutableList<Pattern> compile(@NonNull List<String> regexes) {
+		List<Pattern> separate = new ArrayList<>();
+		List<Pattern> combinable = new ArrayList<>();
+		StringBuilder alternation = new StringBuilder();
+
+		for (String regex : regexes) {
+			Pattern pattern = compilePattern(regex);
+			if (pattern == null) continue;
+
+			if (NOT_COMBINABLE.matcher(regex).find()) {
+				separate.add(pattern);
+				continue;
+			}
+			if (alternation.length() > 0) alternation.append('|');
+			alternation.append("(?:").append(regex).append(')');
+			combinable.add(pattern);
+		}
+
+		ImmutableList.Builder<Pattern> patterns = ImmutableList.builder();
+		Pattern combined = combinable.size() > 1 ? compilePattern(alternation.toString()) : null;
+		if (combined != null) patterns.add(combined);
+		else patterns.addAll(combinable);
+		return patterns.addAll(separate).build();
+	}
+
+	private static Pattern compilePattern(String pattern) {
+		try {
+			return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+		} catch (PatternSyntaxException ex) {
+			return null;
+		}
+	}
+}
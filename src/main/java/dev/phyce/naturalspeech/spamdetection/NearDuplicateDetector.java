@@ -0,0 +1,143 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import lombok.Synchronized;
+import net.runelite.api.GameState;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.client.eventbus.Subscribe;
+
+/**
+ * Spots public messages that are nearly the same as one said recently, spam bots rotate small variations
+ * of the same advert that exact duplicate checks miss.
+ * <p>
+ * Every message is reduced to a 64-bit SimHash of its character trigrams, similar messages have fingerprints
+ * a few bits apart. The fingerprints of the last {@value CAPACITY} messages are kept in a ring with their time,
+ * the messages themselves are not kept. Hopping or logging out forgets them.
+ */
+@PluginSingleton
+public class NearDuplicateDetector implements PluginModule {
+
+	private static final int CAPACITY = 512;
+	private static final long WINDOW_NANOS = 60_000_000_000L;
+	// short messages ("gz", "ty") share too few trigrams to tell apart, and are said by everyone
+	private static final int MIN_CHARS = 16;
+
+	private final LongSupplier clock;
+
+	private final long[] fingerprints = new long[CAPACITY];
+	private final long[] times = new long[CAPACITY];
+	private int size = 0;
+	private int next = 0;
+
+	// reused, guarded by the lock
+	private final int[] weights = new int[64];
+	private final char[] normalized = new char[256];
+
+	@Inject
+	private NearDuplicateDetector() {
+		this(System::nanoTime);
+	}
+
+	@VisibleForTesting
+	NearDuplicateDetector(@NonNull LongSupplier clock) {
+		this.clock = clock;
+	}
+
+	@Override
+	public void shutDown() {
+		clear();
+	}
+
+	/**
+	 * Remembers the message, and checks it against the messages seen in the last minute.
+	 *
+	 * @param distance bits two fingerprints may differ by and still be duplicates
+	 */
+	@Synchronized
+	public boolean isNearDuplicate(@NonNull String message, int distance) {
+		int length = normalize(message);
+		if (length < MIN_CHARS) return false;
+
+		long fingerprint = simHash(length);
+		long now = clock.getAsLong();
+
+		boolean duplicate = false;
+		for (int i = 0; i < size; i++) {
+			if (now - times[i] > WINDOW_NANOS) continue;
+			if (Long.bitCount(fingerprints[i] ^ fingerprint) <= distance) {
+				duplicate = true;
+				break;
+			}
+		}
+
+		// the latest variant keeps the window open
+		fingerprints[next] = fingerprint;
+		times[next] = now;
+		next = (next + 1) % CAPACITY;
+		size = Math.max(size, next == 0 ? CAPACITY : next);
+		return duplicate;
+	}
+
+	@Synchronized
+	public void clear() {
+		size = 0;
+		next = 0;
+	}
+
+	@Subscribe
+	private void onGameStateChanged(GameStateChanged event) {
+		GameState state = event.getGameState();
+		if (state == GameState.LOGIN_SCREEN || state == GameState.HOPPING) clear();
+	}
+
+	// lowercase letters and digits, other runs collapsed to one space, into normalized
+	private int normalize(String message) {
+		int length = 0;
+		boolean space = true;
+		for (int i = 0; i < message.length() && length < normalized.length; i++) {
+			char c = message.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				normalized[length++] = Character.toLowerCase(c);
+				space = false;
+			}
+			else if (!space) {
+				normalized[length++] = ' ';
+				space = true;
+			}
+		}
+		if (space && length > 0) length--;
+		return length;
+	}
+
+	private long simHash(int length) {
+		Arrays.fill(weights, 0);
+		for (int i = 0; i + 3 <= length; i++) {
+			long hash = mix(((long) normalized[i] << 32) | ((long) normalized[i + 1] << 16) | normalized[i + 2]);
+			for (int bit = 0; bit < 64; bit++) {
+				weights[bit] += ((hash >>> bit) & 1) != 0 ? 1 : -1;
+			}
+		}
+
+		long fingerprint = 0;
+		for (int bit = 0; bit < 64; bit++) {
+			if (weights[bit] > 0) fingerprint |= 1L << bit;
+		}
+		return fingerprint;
+	}
+
+	// murmur3 fmix64
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
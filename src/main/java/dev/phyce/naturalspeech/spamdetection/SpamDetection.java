@@ -21,4 +21,15 @@ public class SpamDetection {
 	public boolean isSpam(String username, String text) {
 		return spamFilterPluglet.isSpam(text) || chatFilterPluglet.isSpam(username, text);
 	}
+
+	/**
+	 * The part of {@link #isSpam(ChatFilterPluglet.Precheck, String, String)} that must run on the client thread.
+	 */
+	public ChatFilterPluglet.Precheck precheck(String username, String text) {
+		return chatFilterPluglet.precheck(username, text);
+	}
+
+	public boolean isSpam(ChatFilterPluglet.Precheck precheck, String username, String text) {
+		return spamFilterPluglet.isSpam(text) || chatFilterPluglet.isSpam(precheck, username, text);
+	}
 }
@@ -2,6 +2,7 @@ package dev.phyce.naturalspeech.spamdetection;
 
 import com.google.inject.Inject;
 import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.executor.PluginExecutorService;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
 import java.io.BufferedReader;
 import java.io.File;
@@ -9,14 +10,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.MenuAction;
 import net.runelite.api.MenuEntry;
@@ -38,35 +34,48 @@ public class SpamFilterPluglet implements PluginModule {
 
 	private final PluginManager pluginManager;
 	private final ConfigManager configManager;
+	private final PluginExecutorService pluginExecutorService;
 
 	private static final String SPAM_FILTER_GROUP_NAME = "spamfilter";
 	private static final String SPAM_FILTER_CONFIG_KEY_THRESHOLD = "threshold";
 	private static final String SPAM_FILTER_MARK_SPAM_OPTION = "Mark spam";
 	private static final String SPAM_FILTER_MARK_HAM_OPTION = "Mark ham";
 
-	private boolean goodCorpusDirty = false;
-	private boolean badCorpusDirty = false;
+	// Spam Filter appends to its corpus in its own click handler, which may run after ours
+	private static final long CORPUS_REFRESH_DELAY_MS = 500;
 
-	private int threshold = 100;
+	private volatile int threshold = 100;
 
+	// scoring only reads the published model, it's rebuilt off the client thread
+	private volatile SpamModel model = SpamModel.EMPTY;
 
-	private final List<String> builtinGoodCorpus = new ArrayList<>();
-	private final List<String> builtinBadCorpus = new ArrayList<>();
-	private final List<String> userGoodCorpus = new ArrayList<>();
-	private final List<String> userBadCorpus = new ArrayList<>();
-
+	// all guarded by this, only touched by refreshes
+	private final Map<String, Integer> builtinGoodCounts = new HashMap<>();
+	private final Map<String, Integer> builtinBadCounts = new HashMap<>();
 	private final Map<String, Integer> goodCounts = new HashMap<>();
 	private final Map<String, Integer> badCounts = new HashMap<>();
+	private final CorpusTail userGoodCorpus;
+	private final CorpusTail userBadCorpus;
 
 	private static final String FILE_NAME_GOOD_CORPUS = "spamfilter_good_corpus.txt";
 	private static final String FILE_NAME_BAD_CORPUS = "spamfilter_bad_corpus.txt";
 
-	private boolean isPluginEnabled;
+	private volatile boolean isPluginEnabled;
 
 	@Inject
-	public SpamFilterPluglet(PluginManager pluginManager, ConfigManager configManager) {
+	public SpamFilterPluglet(
+		PluginManager pluginManager,
+		ConfigManager configManager,
+		PluginExecutorService pluginExecutorService
+	) {
 		this.pluginManager = pluginManager;
 		this.configManager = configManager;
+		this.pluginExecutorService = pluginExecutorService;
+
+		// spam-filter saves user corupus in .runelite/spam-filter/user_good_corpus.txt
+		File configDir = new File(RuneLite.RUNELITE_DIR, "spam-filter");
+		userGoodCorpus = new CorpusTail(new File(configDir, "user_good_corpus.txt"));
+		userBadCorpus = new CorpusTail(new File(configDir, "user_bad_corpus.txt"));
 
 		// look for spam filter if it's already loaded
 		Plugin spamFilterPlugin = null;
@@ -78,37 +87,24 @@ public class SpamFilterPluglet implements PluginModule {
 		}
 		isPluginEnabled = spamFilterPlugin != null && pluginManager.isPluginEnabled(spamFilterPlugin);
 
-		// built-in corpus is copied into Natural Speech's resource folder
-		// Must be loaded first beauce loadUserCorpus implicitly counts
-		// but load Built-in does not. This is to avoid reading the built-in over and over again.
+		// built-in corpus is copied into Natural Speech's resource folder, counted once
 		loadBuiltinCorpus();
 
-		// spam-filter saves user corupus in .runelite/spam-filter/user_good_corpus.txt
-		loadUserCorpus();
-
 		// try load threshold
 		loadThreshold();
 	}
 
+	@Override
+	public void startUp() {
+		pluginExecutorService.execute(this::refreshUserCorpus);
+	}
+
 	public boolean isSpam(String text) {
 		if (!isPluginEnabled) {
 			return false;
 		}
 
-		if (goodCorpusDirty) {
-			//			log.trace("Reloading good corpus, due to dirty flag...");
-			loadUserGoodCorpus();
-			goodCorpusDirty = false;
-		}
-		if (badCorpusDirty) {
-			//			log.trace("Reloading bad corpus, due to dirty flag...");
-			loadUserBadCorpus();
-			badCorpusDirty = false;
-
-		}
-
-		float spamScore = pMessageBad(text);
-		return spamScore > threshold / 100f;
+		return model.isSpam(text, threshold);
 	}
 
 	private void loadThreshold() {
@@ -125,70 +121,35 @@ public class SpamFilterPluglet implements PluginModule {
 		}
 	}
 
-	private void loadUserCorpus() {
-		loadUserGoodCorpus();
-		loadUserBadCorpus();
-	}
-
-	private void loadUserBadCorpus() {
-		File configDir = new File(RuneLite.RUNELITE_DIR, "spam-filter");
-		if (!configDir.exists()) {
-			log.trace("No {} found", configDir);
-			return;
-		}
-		File userBadCorpusFile = new File(configDir, "user_bad_corpus.txt");
-		if (userBadCorpusFile.exists()) {
-			try {
-				userBadCorpus.clear();
-				userBadCorpus.addAll(Files.readAllLines(userBadCorpusFile.toPath()));
-				log.trace("Loaded user bad corpus of {} lines", userBadCorpus.size());
-
-				badCounts.clear();
-				countTokens(badCounts, builtinBadCorpus);
-				countTokens(badCounts, userBadCorpus);
-			} catch (IOException e) {
-				log.error("ErrorResult reading {}", userBadCorpusFile);
-			}
-		}
-		else {
-			log.trace("No {} found", userBadCorpusFile);
-		}
+	/**
+	 * Counts lines appended to the user corpora since the last refresh and publishes a new model.
+	 */
+	private synchronized void refreshUserCorpus() {
+		tail(userGoodCorpus, goodCounts, builtinGoodCounts);
+		tail(userBadCorpus, badCounts, builtinBadCounts);
+		model = SpamModel.of(goodCounts, badCounts);
 	}
 
-	private void loadUserGoodCorpus() {
-		File configDir = new File(RuneLite.RUNELITE_DIR, "spam-filter");
-
-		if (!configDir.exists()) {
-			log.trace("No {} found", configDir);
-			return;
-		}
-
-		File userGoodCorpusFile = new File(configDir, "user_good_corpus.txt");
-		if (userGoodCorpusFile.exists()) {
-			try {
-				userGoodCorpus.clear();
-				userGoodCorpus.addAll(Files.readAllLines(userGoodCorpusFile.toPath()));
-				log.trace("Loaded user good corpus of {} lines", userGoodCorpus.size());
-
-				goodCounts.clear();
-				countTokens(goodCounts, builtinGoodCorpus);
-				countTokens(goodCounts, userGoodCorpus);
-			} catch (IOException e) {
-				log.error("ErrorResult reading {}", userGoodCorpusFile);
+	private static void tail(CorpusTail corpus, Map<String, Integer> counts, Map<String, Integer> builtinCounts) {
+		try {
+			if (!corpus.read(counts)) {
+				log.trace("User corpus was rewritten, recounting");
+				counts.clear();
+				counts.putAll(builtinCounts);
+				corpus.reset();
+				corpus.read(counts);
 			}
+		} catch (IOException e) {
+			log.error("ErrorResult reading user corpus", e);
 		}
-		else {
-			log.trace("No {} found", userGoodCorpusFile);
-		}
-
 	}
 
-	private void loadBuiltinCorpus() {
+	private synchronized void loadBuiltinCorpus() {
 		InputStream goodCorpusRes = this.getClass().getResourceAsStream(FILE_NAME_GOOD_CORPUS);
 		if (goodCorpusRes != null) {
 			BufferedReader goodCorpusReader =
 				new BufferedReader(new InputStreamReader(goodCorpusRes, StandardCharsets.UTF_8));
-			goodCorpusReader.lines().forEach(builtinGoodCorpus::add);
+			goodCorpusReader.lines().forEach(line -> CorpusTail.countLine(builtinGoodCounts, line, 1));
 			try {
 				goodCorpusReader.close();
 			} catch (IOException e) {
@@ -200,57 +161,17 @@ public class SpamFilterPluglet implements PluginModule {
 		if (badCorpusRes != null) {
 			BufferedReader badCorpusReader =
 				new BufferedReader(new InputStreamReader(badCorpusRes, StandardCharsets.UTF_8));
-			badCorpusReader.lines().forEach(builtinBadCorpus::add);
+			badCorpusReader.lines().forEach(line -> CorpusTail.countLine(builtinBadCounts, line, 1));
 			try {
 				badCorpusReader.close();
 			} catch (IOException e) {
 				log.error("ErrorResult reading SpamFilter file from {}.", FILE_NAME_BAD_CORPUS);
 			}
 		}
-	}
 
-	private float pTokenBad(String token) {
-		int goodCount = goodCounts.getOrDefault(token, 0);
-		int badCount = badCounts.getOrDefault(token, 0);
-		if (goodCount + badCount == 0) {
-			return 0.4f;
-		}
-		float rawProbability = (float) badCount / (float) (goodCount + badCount);
-		float clampUpperBound = Math.min(rawProbability, 0.99f);
-		//noinspection UnnecessaryLocalVariable
-		float clampLowerBound = Math.max(clampUpperBound, 0.01f);
-
-		return clampLowerBound;
-	}
-
-	private float pMessageBad(String message) {
-		String msg = message.toLowerCase();
-		String[] tokens = msg.split("\\s+");
-		if (tokens.length == 1 && !message.startsWith("!")) {
-			// single-word messages easily induce false positives so we ignore them.
-			// however, messages starting with "!" are still processed since they are often commands
-			// for gambling bots (e.g. "!w")
-			return 0.0f;
-		}
-		Set<String> tokensUnique = new HashSet<>(Arrays.asList(tokens));
-		float pPredictorsCorrect = 1f;
-		float pPredictorsIncorrect = 1f;
-		for (String token : tokensUnique) {
-			float p = pTokenBad(token);
-			pPredictorsCorrect *= p;
-			pPredictorsIncorrect *= (1 - p);
-		}
-		return pPredictorsCorrect / (pPredictorsCorrect + pPredictorsIncorrect);
-	}
-
-	private static void countTokens(Map<String, Integer> out_result, List<String> corpus) {
-		for (String message : corpus) {
-			message = message.toLowerCase();
-			String[] tokens = message.split("\\s");
-			for (String token : tokens) {
-				out_result.put(token, out_result.getOrDefault(token, 0) + 1);
-			}
-		}
+		goodCounts.putAll(builtinGoodCounts);
+		badCounts.putAll(builtinBadCounts);
+		model = SpamModel.of(goodCounts, badCounts);
 	}
 
 	@Subscribe
@@ -259,7 +180,7 @@ public class SpamFilterPluglet implements PluginModule {
 		if (event.getPlugin().getClass().getSimpleName().equals("SpamFilterPlugin")) {
 			if (event.isLoaded()) {
 				log.trace("Detected SpamFilter plugin activated.");
-				loadUserCorpus();
+				pluginExecutorService.execute(this::refreshUserCorpus);
 				loadThreshold();
 				isPluginEnabled = true;
 			}
@@ -287,13 +208,10 @@ public class SpamFilterPluglet implements PluginModule {
 
 		MenuEntry menuEntry = event.getMenuEntry();
 		if (menuEntry.getType() == MenuAction.RUNELITE) {
-			if (menuEntry.getOption().equals(SPAM_FILTER_MARK_HAM_OPTION)) {
-				goodCorpusDirty = true;
-				log.trace("Detected SpamFilter Mark ham. Marking goodCorpus file dirty.");
-			}
-			if (menuEntry.getOption().equals(SPAM_FILTER_MARK_SPAM_OPTION)) {
-				badCorpusDirty = true;
-				log.trace("Detected SpamFilter Mark spam. Marking badCorpus file dirty.");
+			if (menuEntry.getOption().equals(SPAM_FILTER_MARK_HAM_OPTION)
+				|| menuEntry.getOption().equals(SPAM_FILTER_MARK_SPAM_OPTION)) {
+				log.trace("Detected SpamFilter {}. Refreshing user corpus.", menuEntry.getOption());
+				pluginExecutorService.schedule(this::refreshUserCorpus, CORPUS_REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
 			}
 		}
 	}
@@ -0,0 +1,261 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import lombok.NonNull;
+
+/**
+ * Spam Filter's naive Bayes model compiled into a token table of log-odds, immutable so scoring can read it from
+ * any thread while {@link SpamFilterPluglet} builds the next one.
+ * <p>
+ * Spam Filter multiplies token probabilities, {@code p(bad) = Πp / (Πp + Π(1-p))}, which underflows to NaN on
+ * long messages. The same score is {@code 1 / (1 + e^-Σlog(p/(1-p)))}, so a message is scored by summing the
+ * precomputed log-odds of its unique tokens and comparing against the threshold's log-odds.
+ * Scores within rounding of the threshold fall back to the products, clamped probabilities often tie exactly.
+ * <p>
+ * Messages are tokenized like {@code message.toLowerCase().split("\\s+")} without allocating,
+ * tokens are looked up by hashing the characters in place.
+ */
+public final class SpamModel {
+
+	static final SpamModel EMPTY = new SpamModel(Map.of(), Map.of());
+
+	// tokens in neither corpus
+	private static final float UNKNOWN_PROBABILITY = 0.4f;
+	private static final float UNKNOWN_LOG_ODDS = logOdds(UNKNOWN_PROBABILITY);
+	private static final int UNKNOWN = -1;
+	private static final int DUPLICATE = -2;
+	// log-odds this close to the threshold are decided with Spam Filter's arithmetic, so exact ties agree
+	private static final float TIE_MARGIN = 1e-3f;
+
+	// by threshold percent
+	private static final float[] THRESHOLD_LOG_ODDS = new float[100];
+
+	static {
+		for (int threshold = 1; threshold < 100; threshold++) THRESHOLD_LOG_ODDS[threshold] = logOdds(threshold / 100f);
+	}
+
+	// open addressing, a token's slot is its id
+	private final String[] tokens;
+	private final float[] tokenLogOdds;
+	private final float[] tokenProbabilities;
+	private final int mask;
+
+	private static final class Scratch {
+		int count;
+		int[] ids = new int[32];
+		int[] starts = new int[32];
+		int[] ends = new int[32];
+	}
+
+	private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	private SpamModel(Map<String, Integer> goodCounts, Map<String, Integer> badCounts) {
+		Set<String> vocabulary = new HashSet<>(goodCounts.keySet());
+		vocabulary.addAll(badCounts.keySet());
+
+		int capacity = Integer.highestOneBit(Math.max(4, vocabulary.size() * 2 - 1)) << 1;
+		tokens = new String[capacity];
+		tokenLogOdds = new float[capacity];
+		tokenProbabilities = new float[capacity];
+		mask = capacity - 1;
+
+		for (String token : vocabulary) {
+			int slot = mix(token.hashCode()) & mask;
+			while (tokens[slot] != null) slot = (slot + 1) & mask;
+			tokens[slot] = token;
+			tokenProbabilities[slot] = pTokenBad(goodCounts.getOrDefault(token, 0), badCounts.getOrDefault(token, 0));
+			tokenLogOdds[slot] = logOdds(tokenProbabilities[slot]);
+		}
+	}
+
+	@NonNull
+	public static SpamModel of(@NonNull Map<String, Integer> goodCounts, @NonNull Map<String, Integer> badCounts) {
+		return new SpamModel(goodCounts, badCounts);
+	}
+
+	/**
+	 * Same decision as Spam Filter's {@code pMessageBad(message) > threshold / 100f}, without the underflow.
+	 *
+	 * @param threshold Spam Filter's threshold config, percent
+	 */
+	public boolean isSpam(@NonNull String message, int threshold) {
+		if (threshold >= 100) return false;
+
+		Scratch s = scratch.get();
+		float logOdds = score(message, s);
+		if (logOdds == Float.NEGATIVE_INFINITY) return false;
+		if (threshold <= 0) return true;
+
+		float margin = logOdds - THRESHOLD_LOG_ODDS[threshold];
+		if (Math.abs(margin) < TIE_MARGIN) {
+			float product = productScore(s);
+			if (!Float.isNaN(product)) return product > threshold / 100f;
+		}
+		return margin > 0;
+	}
+
+	/**
+	 * @return the message's log-odds of being spam, negative infinity for ignored messages
+	 */
+	public float logOddsBad(@NonNull String message) {
+		return score(message, scratch.get());
+	}
+
+	/**
+	 * @return p(bad), as Spam Filter's {@code pMessageBad}
+	 */
+	public float pMessageBad(@NonNull String message) {
+		float logOdds = logOddsBad(message);
+		if (logOdds == Float.NEGATIVE_INFINITY) return 0f;
+		return (float) (1 / (1 + Math.exp(-logOdds)));
+	}
+
+	/**
+	 * Tokenizes into scratch, duplicate tokens are marked.
+	 */
+	private float score(String message, Scratch s) {
+		// String.toLowerCase only differs from ASCII case folding outside ASCII and for Turkic locales
+		boolean fold = isAscii(message) && !isTurkic(Locale.getDefault());
+		String lowered = fold ? message : message.toLowerCase();
+
+		int count = 0;
+		final int length = lowered.length();
+		int i = 0;
+
+		// split keeps a leading empty token, but only if a token follows it
+		if (length > 0 && isSpace(lowered.charAt(0))) {
+			while (i < length && isSpace(lowered.charAt(i))) i++;
+			if (i < length) count = add(s, count, lowered, fold, 0, 0);
+		}
+		while (i < length) {
+			int start = i;
+			while (i < length && !isSpace(lowered.charAt(i))) i++;
+			count = add(s, count, lowered, fold, start, i);
+			while (i < length && isSpace(lowered.charAt(i))) i++;
+		}
+		// split returns the input itself when nothing matched
+		if (length == 0) count = add(s, count, lowered, fold, 0, 0);
+		s.count = count;
+
+		if (count == 1 && !message.startsWith("!")) {
+			// single-word messages easily induce false positives so we ignore them.
+			// however, messages starting with "!" are still processed since they are often commands
+			// for gambling bots (e.g. "!w")
+			return Float.NEGATIVE_INFINITY;
+		}
+
+		float sum = 0;
+		for (int t = 0; t < count; t++) {
+			if (isDuplicate(s, t, lowered, fold)) {
+				s.ids[t] = DUPLICATE;
+				continue;
+			}
+			int id = s.ids[t];
+			sum += id == UNKNOWN ? UNKNOWN_LOG_ODDS : tokenLogOdds[id];
+		}
+		return sum;
+	}
+
+	// Spam Filter's products over the scored tokens, NaN if they underflow
+	private float productScore(Scratch s) {
+		float pPredictorsCorrect = 1f;
+		float pPredictorsIncorrect = 1f;
+		for (int t = 0; t < s.count; t++) {
+			int id = s.ids[t];
+			if (id == DUPLICATE) continue;
+			float p = id == UNKNOWN ? UNKNOWN_PROBABILITY : tokenProbabilities[id];
+			pPredictorsCorrect *= p;
+			pPredictorsIncorrect *= (1 - p);
+		}
+		return pPredictorsCorrect / (pPredictorsCorrect + pPredictorsIncorrect);
+	}
+
+	private int add(Scratch s, int count, String text, boolean fold, int start, int end) {
+		if (count == s.ids.length) {
+			s.ids = Arrays.copyOf(s.ids, count * 2);
+			s.starts = Arrays.copyOf(s.starts, count * 2);
+			s.ends = Arrays.copyOf(s.ends, count * 2);
+		}
+		s.ids[count] = find(text, fold, start, end);
+		s.starts[count] = start;
+		s.ends[count] = end;
+		return count + 1;
+	}
+
+	private int find(String text, boolean fold, int start, int end) {
+		// String.hashCode of the lowercase token
+		int hash = 0;
+		for (int i = start; i < end; i++) hash = 31 * hash + lower(text.charAt(i), fold);
+
+		for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+			String token = tokens[slot];
+			if (token == null) return UNKNOWN;
+			if (token.length() == end - start && matches(token, text, fold, start)) return slot;
+		}
+	}
+
+	private static boolean matches(String token, String text, boolean fold, int start) {
+		for (int i = 0; i < token.length(); i++) {
+			if (token.charAt(i) != lower(text.charAt(start + i), fold)) return false;
+		}
+		return true;
+	}
+
+	// known tokens are compared by id, unknown tokens by their characters
+	private static boolean isDuplicate(Scratch s, int t, String text, boolean fold) {
+		int id = s.ids[t];
+		int length = s.ends[t] - s.starts[t];
+		for (int prev = 0; prev < t; prev++) {
+			if (s.ids[prev] != id) continue;
+			if (id != UNKNOWN) return true;
+			if (s.ends[prev] - s.starts[prev] != length) continue;
+			if (text.regionMatches(fold, s.starts[prev], text, s.starts[t], length)) return true;
+		}
+		return false;
+	}
+
+	private static char lower(char c, boolean fold) {
+		return fold && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	// regex \s
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static boolean isAscii(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) >= 0x80) return false;
+		}
+		return true;
+	}
+
+	private static boolean isTurkic(Locale locale) {
+		String language = locale.getLanguage();
+		return language.equals("tr") || language.equals("az");
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static float pTokenBad(int goodCount, int badCount) {
+		if (goodCount + badCount == 0) {
+			return UNKNOWN_PROBABILITY;
+		}
+		float rawProbability = (float) badCount / (float) (goodCount + badCount);
+		float clampUpperBound = Math.min(rawProbability, 0.99f);
+		//noinspection UnnecessaryLocalVariable
+		float clampLowerBound = Math.max(clampUpperBound, 0.01f);
+
+		return clampLowerBound;
+	}
+
+	private static float logOdds(float p) {
+		return (float) Math.log(p / (1 - p));
+	}
+}
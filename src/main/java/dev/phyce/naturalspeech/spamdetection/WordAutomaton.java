@@ -0,0 +1,128 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.NonNull;
+
+/**
+ * Finds whether text contains any of many words, in one pass with an Aho-Corasick automaton.
+ * <p>
+ * Matches like {@code Pattern.compile(Pattern.quote(word), Pattern.CASE_INSENSITIVE).matcher(text).find()}
+ * for each word: anywhere in the text, case-insensitive for ASCII only.
+ */
+final class WordAutomaton {
+
+	static final WordAutomaton EMPTY = of(List.of());
+
+	// per state, transitions sorted by char
+	private final char[][] keys;
+	private final int[][] targets;
+	private final int[] fail;
+	// a word ends at the state, or at a state along its fail links
+	private final boolean[] accepts;
+
+	private WordAutomaton(char[][] keys, int[][] targets, int[] fail, boolean[] accepts) {
+		this.keys = keys;
+		this.targets = targets;
+		this.fail = fail;
+		this.accepts = accepts;
+	}
+
+	@NonNull
+	static WordAutomaton of(@NonNull Collection<String> words) {
+		List<Map<Character, Integer>> trie = new ArrayList<>();
+		List<Boolean> ends = new ArrayList<>();
+		trie.add(new TreeMap<>());
+		ends.add(false);
+
+		for (String word : words) {
+			int state = 0;
+			for (int i = 0; i < word.length(); i++) {
+				char c = fold(word.charAt(i));
+				Integer next = trie.get(state).get(c);
+				if (next == null) {
+					next = trie.size();
+					trie.add(new TreeMap<>());
+					ends.add(false);
+					trie.get(state).put(c, next);
+				}
+				state = next;
+			}
+			// an empty word is found in any text, the root accepts
+			ends.set(state, true);
+		}
+
+		int size = trie.size();
+		char[][] keys = new char[size][];
+		int[][] targets = new int[size][];
+		for (int state = 0; state < size; state++) {
+			Map<Character, Integer> transitions = trie.get(state);
+			keys[state] = new char[transitions.size()];
+			targets[state] = new int[transitions.size()];
+			int index = 0;
+			for (Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+				keys[state][index] = entry.getKey();
+				targets[state][index] = entry.getValue();
+				index++;
+			}
+		}
+
+		int[] fail = new int[size];
+		boolean[] accepts = new boolean[size];
+		accepts[0] = ends.get(0);
+		WordAutomaton automaton = new WordAutomaton(keys, targets, fail, accepts);
+
+		// breadth first, a state's fail link is shallower than the state
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int child : targets[0]) {
+			accepts[child] = ends.get(child) || accepts[0];
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			for (int i = 0; i < keys[state].length; i++) {
+				int child = targets[state][i];
+				int link = fail[state];
+				int next;
+				while ((next = automaton.transition(link, keys[state][i])) < 0 && link != 0) link = fail[link];
+				fail[child] = Math.max(next, 0);
+				accepts[child] = ends.get(child) || accepts[fail[child]];
+				queue.add(child);
+			}
+		}
+		return automaton;
+	}
+
+	boolean isEmpty() {
+		return keys[0].length == 0 && !accepts[0];
+	}
+
+	boolean containsAny(@NonNull CharSequence text) {
+		if (accepts[0]) return true;
+
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = fold(text.charAt(i));
+			int next;
+			while ((next = transition(state, c)) < 0 && state != 0) state = fail[state];
+			state = Math.max(next, 0);
+			if (accepts[state]) return true;
+		}
+		return false;
+	}
+
+	private int transition(int state, char c) {
+		int index = Arrays.binarySearch(keys[state], c);
+		return index < 0 ? -1 : targets[state][index];
+	}
+
+	// Pattern.CASE_INSENSITIVE without UNICODE_CASE only folds ASCII
+	private static char fold(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+}
@@ -24,10 +24,16 @@ public interface ConfigKeys {
 	String REQUESTS = "requests";
 	String SYSTEM_MESSAGES = "systemMessages";
 	String MUTE_GRAND_EXCHANGE = "muteGrandExchange";
+	String MUTE_ZONES = "muteZones";
 	String MUTE_SELF = "muteSelf";
 	String MUTE_OTHER_PLAYERS = "muteOthers";
 	String MUTE_LEVEL_THRESHOLD = "muteLevelThreshold";
 	String MUTE_CROWDS = "muteCrowds";
+	String FLOOD_POLICY = "floodPolicy";
+	String FLOOD_EXEMPT_FRIENDS = "floodExemptFriends";
+	String MUTE_NEAR_DUPLICATES = "muteNearDuplicates";
+	String NEAR_DUPLICATE_DISTANCE = "nearDuplicateDistance";
+	String SYNTHESIS_LEAD_SECONDS = "synthesisLeadSeconds";
 	String HOLD_SHIFT_RIGHT_CLICK_MENU = "holdShiftRightClickMenu";
 	String FRIENDS_ONLY_MODE = "friendsOnlyMode";
 	String FRIENDS_VOLUME_BOOST = "friendsVolumeBoost";
@@ -36,6 +42,9 @@ public interface ConfigKeys {
 	String ENABLE_DIALOG_TEXT_REPLACE = "customAbbreviationsNpc";
 	String OVERRIDE_CUSTOM_NPC_VOICES = "overrideCustomNpcVoices";
 	String TWITCH_CHAT = "twitchChat";
+	String AUDIO_CACHE_SIZE = "audioCacheSize";
+	String DISK_AUDIO_CACHE_SIZE = "diskAudioCacheSize";
+	String COMPACT_AUDIO = "compactAudio";
 	// endregion
 
 	// region Development
@@ -1,43 +1,155 @@
 package dev.phyce.naturalspeech.texttospeech;
 
-import java.util.Collections;
-import java.util.HashSet;
+import com.google.common.hash.Hashing;
+import dev.phyce.naturalspeech.entity.EntityID;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.CheckForNull;
+import lombok.NonNull;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Assigns voices to entities by gender, using a consistent-hash ring per gender.
+ * <p>
+ * Each voice is placed on its gender's ring at {@value VIRTUAL_NODES} points, an entity is assigned the voice at
+ * the first point clockwise of {@link EntityID#stableHash()}. Adding or removing a voice only moves the entities
+ * that land on that voice's points, everybody else keeps their voice.
+ * <p>
+ * Mutations rebuild an immutable array snapshot of the changed rings, published through a volatile reference.
+ * {@link #pick} reads the snapshot without locking, in constant time. Register a model's voices with
+ * {@link #putAll} and {@link #removeAll}, so each ring is rebuilt once rather than once per voice.
+ */
 @Slf4j
 public class GenderedVoiceMap {
 
-	private final Set<VoiceID> maleList = Collections.synchronizedSet(new HashSet<>());
-	private final Set<VoiceID> femaleList = Collections.synchronizedSet(new HashSet<>());
-	private final Set<VoiceID> otherList = Collections.synchronizedSet(new HashSet<>());
+	// enough points per voice to spread entities evenly, even with a handful of voices
+	private static final int VIRTUAL_NODES = 64;
 
-	public void put(VoiceID voiceID, Gender gender) {
-		if (gender == Gender.MALE) {
-			maleList.add(voiceID);
-		}
-		else if (gender == Gender.FEMALE) {
-			femaleList.add(voiceID);
+	// guarded by lock
+	private final Map<Gender, TreeMap<Long, VoiceID>> rings = new EnumMap<>(Gender.class);
+
+	// indexed by Gender ordinal, replaced as a whole on mutation
+	private volatile Snapshot[] snapshots;
+
+	public GenderedVoiceMap() {
+		Snapshot[] empty = new Snapshot[Gender.values().length];
+		for (Gender gender : Gender.values()) {
+			rings.put(gender, new TreeMap<>());
+			empty[gender.ordinal()] = Snapshot.EMPTY;
 		}
-		else {
-			otherList.add(voiceID);
+		snapshots = empty;
+	}
+
+	public void put(@NonNull VoiceID voiceID, @NonNull Gender gender) {
+		putAll(Map.of(voiceID, gender));
+	}
+
+	@Synchronized
+	public void putAll(@NonNull Map<VoiceID, Gender> voices) {
+		Set<Gender> changed = EnumSet.noneOf(Gender.class);
+		voices.forEach((voiceID, gender) -> {
+			TreeMap<Long, VoiceID> ring = rings.get(gender);
+			for (int i = 0; i < VIRTUAL_NODES; i++) ring.put(point(voiceID, i), voiceID);
+			changed.add(gender);
+		});
+		publish(changed);
+	}
+
+	public void remove(@NonNull VoiceID voiceID) {
+		removeAll(Set.of(voiceID));
+	}
+
+	@Synchronized
+	public void removeAll(@NonNull Collection<VoiceID> voiceIDs) {
+		Set<Gender> changed = EnumSet.noneOf(Gender.class);
+		for (VoiceID voiceID : voiceIDs) {
+			for (int i = 0; i < VIRTUAL_NODES; i++) {
+				long point = point(voiceID, i);
+				for (Map.Entry<Gender, TreeMap<Long, VoiceID>> ring : rings.entrySet()) {
+					// only remove our own points, another voice may have won a colliding point
+					if (ring.getValue().remove(point, voiceID)) changed.add(ring.getKey());
+				}
+			}
 		}
+		publish(changed);
+	}
+
+	/**
+	 * @return the voice assigned to the entity, null if there are no voices for the gender
+	 */
+	@CheckForNull
+	public VoiceID pick(@NonNull Gender gender, @NonNull EntityID entityID) {
+		return snapshots[gender.ordinal()].pick(entityID.stableHash());
+	}
+
+	// guarded by lock
+	private void publish(Set<Gender> changed) {
+		if (changed.isEmpty()) return;
+
+		Snapshot[] next = snapshots.clone();
+		for (Gender gender : changed) next[gender.ordinal()] = new Snapshot(rings.get(gender));
+		snapshots = next;
 	}
 
-	public void remove(VoiceID voiceID) {
-		maleList.remove(voiceID);
-		femaleList.remove(voiceID);
-		otherList.remove(voiceID);
+	private static long point(VoiceID voiceID, int node) {
+		return Hashing.murmur3_128().newHasher()
+			.putString(voiceID.toVoiceIDString(), StandardCharsets.UTF_8)
+			.putInt(node)
+			.hash()
+			.asLong();
 	}
 
-	public Set<VoiceID> find(Gender gender) {
-		switch (gender) {
-			case MALE:
-				return Collections.unmodifiableSet(maleList);
-			case FEMALE:
-				return Collections.unmodifiableSet(femaleList);
-			default:
-				return Collections.unmodifiableSet(otherList);
+	/**
+	 * A ring flattened into sorted arrays, with a bucket table over the top bits of the hash pointing at the first
+	 * point of each bucket. With at least as many buckets as points, a lookup scans about one point.
+	 */
+	private static final class Snapshot {
+		static final Snapshot EMPTY = new Snapshot(new TreeMap<>());
+
+		private final long[] points;
+		private final VoiceID[] voices;
+		private final int[] buckets;
+		private final int bits;
+
+		Snapshot(TreeMap<Long, VoiceID> ring) {
+			int size = ring.size();
+			points = new long[size];
+			voices = new VoiceID[size];
+			int i = 0;
+			for (Map.Entry<Long, VoiceID> entry : ring.entrySet()) {
+				points[i] = entry.getKey();
+				voices[i] = entry.getValue();
+				i++;
+			}
+
+			bits = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+			buckets = new int[1 << bits];
+			int point = 0;
+			for (int bucket = 0; bucket < buckets.length; bucket++) {
+				while (point < size && bucket(points[point]) < bucket) point++;
+				buckets[bucket] = point;
+			}
+		}
+
+		// monotonic in the signed order of the TreeMap
+		private int bucket(long hash) {
+			return bits == 0 ? 0 : (int) ((hash ^ Long.MIN_VALUE) >>> (64 - bits));
+		}
+
+		@CheckForNull
+		VoiceID pick(long hash) {
+			if (points.length == 0) return null;
+
+			int i = buckets[bucket(hash)];
+			while (i < points.length && points[i] < hash) i++;
+			// wrap around the ring
+			return voices[i == points.length ? 0 : i];
 		}
 	}
 }
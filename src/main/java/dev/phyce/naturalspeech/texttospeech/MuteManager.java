@@ -9,8 +9,8 @@ import dev.phyce.naturalspeech.entity.EntityID;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
 import dev.phyce.naturalspeech.statics.ConfigKeys;
 import java.lang.reflect.Type;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -25,14 +25,15 @@ import net.runelite.http.api.RuneLiteAPI;
 @PluginSingleton
 public class MuteManager implements PluginModule {
 
-	private final Set<EntityID> listenList = new HashSet<>();
-	private final Set<EntityID> muteList = new HashSet<>();
+	// read by the chat worker, changed from menus and the panel
+	private final Set<EntityID> listenList = ConcurrentHashMap.newKeySet();
+	private final Set<EntityID> muteList = ConcurrentHashMap.newKeySet();
 
 	private final ConfigManager configManager;
 
 	@Getter
 	@Setter
-	private boolean listenMode = false;
+	private volatile boolean listenMode = false;
 
 	@Inject
 	public MuteManager(ConfigManager configManager) {
@@ -14,6 +14,7 @@ import dev.phyce.naturalspeech.statics.ConfigKeys;
 import dev.phyce.naturalspeech.statics.PluginResources;
 import dev.phyce.naturalspeech.utils.ClientHelper;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -21,8 +22,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.events.PlayerSpawned;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ClientShutdown;
@@ -51,6 +58,19 @@ public class VoiceManager implements PluginModule {
 	private final Map<VoiceID, Gender> disallowed = Collections.synchronizedMap(new HashMap<>());
 	private final Map<VoiceID, Gender> allowed = Collections.synchronizedMap(new HashMap<>());
 
+	// memoized resolve() results, invalidated whenever an input to resolve() changes
+	private final Map<EntityID, Resolution> resolved = new ConcurrentHashMap<>();
+	// bumped before every invalidation, a result computed across a bump may be stale and isn't kept
+	private final AtomicLong generation = new AtomicLong();
+
+	@Value
+	private static class Resolution {
+		VoiceID voiceID;
+		// the ring the voice was picked from, null for configured and fallback voices
+		@Nullable
+		Gender ring;
+	}
+
 	@Inject
 	public VoiceManager(ConfigManager configManager, ClientHelper clientHelper, NaturalSpeechConfig config) {
 		this.configManager = configManager;
@@ -121,6 +141,13 @@ public class VoiceManager implements PluginModule {
 		save();
 	}
 
+	@Subscribe
+	private void onPlayerSpawned(PlayerSpawned event) {
+		if (event.getPlayer().getName() == null) return;
+		// random voices depend on the player's gender, which is only known once the player is in view
+		invalidate(EntityID.player(event.getPlayer()));
+	}
+
 	private void pullConfigVoices(String configKey, String voiceString) {
 		Optional<VoiceID> voiceID = VoiceID.fromIDString(voiceString);
 
@@ -172,17 +199,32 @@ public class VoiceManager implements PluginModule {
 	 * @see #unregister(VoiceID)
 	 */
 	public void register(@NonNull Voice voice) {
-		log.trace("Registered VoiceID: {}", voice);
-		VoiceID voiceID = voice.getId();
-		Gender gender = voice.getGender();
+		registerAll(List.of(voice));
+	}
 
-		if (blacklist.contains(voiceID)) {
-			disallowed.put(voiceID, gender);
-		}
-		else {
-			allowed.put(voiceID, gender);
-			genderCache.put(voiceID, gender);
+	/**
+	 * Registers all voices of an engine at once.
+	 *
+	 * @see #register(Voice)
+	 */
+	public void registerAll(@NonNull Collection<Voice> voices) {
+		Map<VoiceID, Gender> added = new HashMap<>();
+		for (Voice voice : voices) {
+			log.trace("Registered VoiceID: {}", voice);
+			VoiceID voiceID = voice.getId();
+			Gender gender = voice.getGender();
+
+			if (blacklist.contains(voiceID)) {
+				disallowed.put(voiceID, gender);
+			}
+			else {
+				allowed.put(voiceID, gender);
+				added.put(voiceID, gender);
+			}
 		}
+
+		genderCache.putAll(added);
+		invalidateAdded(added.keySet());
 	}
 
 	/**
@@ -191,10 +233,23 @@ public class VoiceManager implements PluginModule {
 	 * @see #register(Voice)
 	 */
 	public void unregister(@NonNull VoiceID voiceID) {
-		log.trace("Unregistered VoiceID: {}", voiceID);
-		disallowed.remove(voiceID);
-		allowed.remove(voiceID);
-		genderCache.remove(voiceID);
+		unregisterAll(List.of(voiceID));
+	}
+
+	/**
+	 * Unregisters all voices of an engine at once.
+	 *
+	 * @see #unregister(VoiceID)
+	 */
+	public void unregisterAll(@NonNull Collection<VoiceID> voiceIDs) {
+		for (VoiceID voiceID : voiceIDs) {
+			log.trace("Unregistered VoiceID: {}", voiceID);
+			disallowed.remove(voiceID);
+			allowed.remove(voiceID);
+		}
+
+		genderCache.removeAll(voiceIDs);
+		invalidateRemoved(Set.copyOf(voiceIDs));
 	}
 
 	public void blacklist(@NonNull VoiceID voiceID) {
@@ -204,6 +259,7 @@ public class VoiceManager implements PluginModule {
 		if (gender != null) {
 			genderCache.remove(voiceID);
 			disallowed.put(voiceID, gender);
+			invalidateRemoved(Set.of(voiceID));
 		}
 	}
 
@@ -214,6 +270,7 @@ public class VoiceManager implements PluginModule {
 		if (gender != null) {
 			allowed.put(voiceID, gender);
 			genderCache.put(voiceID, gender);
+			invalidateAdded(Set.of(voiceID));
 		}
 	}
 
@@ -231,8 +288,37 @@ public class VoiceManager implements PluginModule {
 		return Optional.ofNullable(settings.get(entityID));
 	}
 
+	/**
+	 * Reads the entity's gender from the client if a random voice is picked, call from the client thread.
+	 */
 	@NonNull
 	public VoiceID resolve(@NonNull EntityID entityID) {
+		return resolve(entityID, () -> clientHelper.getGender(entityID));
+	}
+
+	/**
+	 * For resolving off the client thread, with the gender read on the client thread.
+	 */
+	@NonNull
+	public VoiceID resolve(@NonNull EntityID entityID, @NonNull Gender gender) {
+		return resolve(entityID, () -> gender);
+	}
+
+	@NonNull
+	private VoiceID resolve(EntityID entityID, Supplier<Gender> gender) {
+		Resolution cached = resolved.get(entityID);
+		if (cached != null) return cached.getVoiceID();
+
+		long start = generation.get();
+		Resolution resolution = compute(entityID, gender);
+		resolved.put(entityID, resolution);
+		// an invalidation that started after this check will see the entry, one before it may have missed it
+		if (generation.get() != start) resolved.remove(entityID, resolution);
+		return resolution.getVoiceID();
+	}
+
+	@NonNull
+	private Resolution compute(@NonNull EntityID entityID, @NonNull Supplier<Gender> gender) {
 		Preconditions.checkState(!allowed.isEmpty(), "No allowed voices.");
 
 		// if there is setting for this entity, use that
@@ -247,20 +333,17 @@ public class VoiceManager implements PluginModule {
 			VoiceID globalVoice = settings.get(EntityID.GLOBAL_NPC);
 			if (globalVoice != null && contains(globalVoice)) {
 				log.trace("Using global NPC voice for {}: {}", entityID, globalVoice);
-				return globalVoice;
+				return new Resolution(globalVoice, null);
 			}
 		}
 
 		if (voiceID == null) {
 			log.trace("No voice setting for {}. Randomizing voice.", entityID);
-			voiceID = random(entityID);
-		}
-		else {
-			log.trace("Voice setting found for {}: {}", entityID, voiceID);
+			return random(entityID, gender.get());
 		}
 
-		log.trace("Resolved VoiceID {}:{}", entityID, voiceID);
-		return voiceID;
+		log.trace("Voice setting found for {}: {}", entityID, voiceID);
+		return new Resolution(voiceID, null);
 	}
 
 	public boolean contains(VoiceID voiceID) {
@@ -273,29 +356,57 @@ public class VoiceManager implements PluginModule {
 
 	public void set(EntityID entityID, VoiceID voiceId) {
 		settings.put(entityID, voiceId);
+		invalidate(entityID);
 	}
 
 	public void unset(EntityID entityID) {
 		settings.remove(entityID);
+		invalidate(entityID);
+	}
+
+	/**
+	 * Ring picks are consistent, a new voice only takes over the entities that now land on it.
+	 * Configured and fallback voices are cheap to recompute and may now be speakable, so they are always dropped.
+	 */
+	private void invalidateAdded(Set<VoiceID> voiceIDs) {
+		generation.incrementAndGet();
+		resolved.entrySet().removeIf(entry -> {
+			Gender ring = entry.getValue().getRing();
+			if (ring == null) return true;
+			VoiceID picked = genderCache.pick(ring, entry.getKey());
+			return picked != null && voiceIDs.contains(picked);
+		});
+	}
+
+	private void invalidateRemoved(Set<VoiceID> voiceIDs) {
+		generation.incrementAndGet();
+		resolved.values().removeIf(resolution -> voiceIDs.contains(resolution.getVoiceID()));
+	}
+
+	private void invalidate(EntityID entityID) {
+		generation.incrementAndGet();
+		if (entityID.equals(EntityID.GLOBAL_NPC)) {
+			// the global voice overrides every npc
+			resolved.keySet().removeIf(eid -> eid.id != null);
+		}
+		else {
+			resolved.remove(entityID);
+		}
 	}
 
 
 	@NonNull
-	private VoiceID random(EntityID eid) {
+	private Resolution random(EntityID eid, Gender gender) {
 		Preconditions.checkState(!allowed.isEmpty(), "No allowed voices.");
 
-		Gender gender = clientHelper.getGender(eid);
-
-		Set<VoiceID> voiceIDs = genderCache.find(gender);
-		if (voiceIDs == null || voiceIDs.isEmpty()) {
+		VoiceID voiceID = genderCache.pick(gender, eid);
+		if (voiceID == null) {
 			// no voices available for gender
-			return fallback();
+			return new Resolution(fallback(), null);
 		}
 
-		int hashCode = eid.hashCode();
-		int voice = Math.abs(hashCode) % voiceIDs.size();
-
-		return voiceIDs.stream().skip(voice).findFirst().orElseThrow();
+		log.trace("Resolved VoiceID {}:{}", eid, voiceID);
+		return new Resolution(voiceID, gender);
 	}
 
 	// Ultimate fallback
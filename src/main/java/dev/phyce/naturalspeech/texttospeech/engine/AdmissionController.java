@@ -0,0 +1,327 @@
+package dev.phyce.naturalspeech.texttospeech.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
+import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.sound.sampled.AudioFormat;
+import lombok.NonNull;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides which chat is synthesized when there is more of it than the engines can keep up with.
+ * <p>
+ * Every request takes a token from its speaker's bucket and from its {@link Source}'s bucket,
+ * and must fit in the global budget: speech admitted but not yet synthesized is capped at
+ * {@value BACKLOG_SECONDS} seconds of measured throughput, so the backlog can't grow without bound.
+ * Throughput is measured by the engines, see {@link #startSynthesis()}.
+ * <p>
+ * Speakers over their budget are handled by {@link NaturalSpeechConfig#floodPolicy()},
+ * friends are exempt with {@link NaturalSpeechConfig#floodExemptFriends()}. Everything shed is counted.
+ */
+@Slf4j
+@PluginSingleton
+public class AdmissionController {
+
+	public enum Source {
+		PUBLIC(10, 2f),
+		// private, clan and Twitch relay
+		REMOTE(6, 1f),
+		OVERHEAD(6, 1f),
+		SYSTEM(5, 1f);
+
+		private final int burst;
+		private final float perSecond;
+
+		Source(int burst, float perSecond) {
+			this.burst = burst;
+			this.perSecond = perSecond;
+		}
+	}
+
+	public enum ShedReason {
+		SPEAKER,
+		SOURCE,
+		BUDGET
+	}
+
+	@Value(staticConstructor="of")
+	public static class Speaker {
+		@NonNull
+		EntityID entityID;
+		@NonNull
+		Source source;
+		boolean friend;
+	}
+
+	/**
+	 * Admitted speech, counted towards the budget until {@link #complete(Ticket)}.
+	 */
+	static final class Ticket {
+		final EntityID entityID;
+		/**
+		 * The speaker's earlier speech should be silenced, {@link NaturalSpeechConfig.FloodPolicy#KEEP_LATEST}.
+		 */
+		final boolean replace;
+		final float seconds;
+
+		private Ticket(EntityID entityID, boolean replace, float seconds) {
+			this.entityID = entityID;
+			this.replace = replace;
+			this.seconds = seconds;
+		}
+	}
+
+	private static final int SPEAKER_BURST = 3;
+	private static final float SPEAKER_PER_SECOND = 0.2f;
+	@VisibleForTesting
+	static final int MAX_SPEAKERS = 1024;
+
+	private static final float BACKLOG_SECONDS = 8f;
+	// seconds of audio synthesized per second, until measured
+	private static final float INITIAL_THROUGHPUT = 4f;
+	private static final float MIN_THROUGHPUT = 0.5f;
+	private static final float THROUGHPUT_SMOOTHING = 0.2f;
+	// a sample ends when the engines go idle, so audio finishing inside a longer synthesis is credited with it,
+	// shorter samples are noisy and are extended, longer ones end anyway to keep measuring under sustained load
+	private static final long MIN_SAMPLE_NANOS = 200_000_000L;
+	private static final long MAX_SAMPLE_NANOS = 10_000_000_000L;
+
+	private final Supplier<ConfigSnapshot> settings;
+	private final LongSupplier clock;
+
+	// least recently heard speakers are evicted, one coming back starts with a full bucket like any new speaker
+	private final Map<EntityID, TokenBucket> speakers = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<EntityID, TokenBucket> eldest) {
+			return size() > MAX_SPEAKERS;
+		}
+	};
+	private final TokenBucket[] sources = new TokenBucket[Source.values().length];
+
+	private float pendingSeconds = 0;
+	// pendingSeconds by speaker, what a replacement replaces
+	private final Map<EntityID, Float> speakerPendingSeconds = new HashMap<>();
+
+	private float throughput = INITIAL_THROUGHPUT;
+	// syntheses in flight, busy since the first of them started
+	private int synthesizing = 0;
+	private long busySince = 0;
+	private long sampleNanos = 0;
+	private float sampleSeconds = 0;
+
+	private final long[][] shed = new long[Source.values().length][ShedReason.values().length];
+	private long replaced = 0;
+
+	@Inject
+	private AdmissionController(ConfigTracker configTracker) {
+		this(configTracker::getSnapshot, System::nanoTime);
+	}
+
+	@VisibleForTesting
+	AdmissionController(Supplier<ConfigSnapshot> settings, LongSupplier clock) {
+		this.settings = settings;
+		this.clock = clock;
+
+		long now = clock.getAsLong();
+		for (Source source : Source.values()) sources[source.ordinal()] = new TokenBucket(source.burst, now);
+	}
+
+	/**
+	 * @return null if the speech should be shed
+	 */
+	@CheckForNull
+	@Synchronized
+	Ticket admit(@NonNull Speaker speaker, @NonNull String text) {
+		final long now = clock.getAsLong();
+		final float seconds = text.length() * SegmentPacer.SECONDS_PER_CHAR;
+		ConfigSnapshot config = settings.get();
+
+		if (speaker.isFriend() && config.isFloodExemptFriends()) return accept(speaker, false, seconds);
+
+		TokenBucket speakerBucket = speakers.get(speaker.getEntityID());
+		if (speakerBucket == null) {
+			speakerBucket = new TokenBucket(SPEAKER_BURST, now);
+			speakers.put(speaker.getEntityID(), speakerBucket);
+		}
+		TokenBucket sourceBucket = sources[speaker.getSource().ordinal()];
+
+		// over their own budget, keep latest replaces the speaker's speech instead of adding to it
+		boolean replace = false;
+		if (!speakerBucket.available(now, SPEAKER_BURST, SPEAKER_PER_SECOND)) {
+			if (config.getFloodPolicy() != NaturalSpeechConfig.FloodPolicy.KEEP_LATEST) {
+				return shed(speaker, ShedReason.SPEAKER);
+			}
+			replace = true;
+		}
+
+		if (!sourceBucket.available(now, speaker.getSource().burst, speaker.getSource().perSecond)) {
+			return shed(speaker, ShedReason.SOURCE);
+		}
+
+		// the speech a replacement silences is about to be released
+		float pending = pendingSeconds;
+		if (replace) pending -= speakerPendingSeconds.getOrDefault(speaker.getEntityID(), 0f);
+		// something is always admitted when idle, however long
+		if (pending > 0 && pending + seconds > throughput * BACKLOG_SECONDS) {
+			return shed(speaker, ShedReason.BUDGET);
+		}
+
+		if (replace) replaced++;
+		else speakerBucket.take();
+		sourceBucket.take();
+		return accept(speaker, replace, seconds);
+	}
+
+	/**
+	 * Releases the ticket's speech from the budget, once synthesized, failed, cancelled or superseded.
+	 */
+	@Synchronized
+	void complete(@NonNull Ticket ticket) {
+		pendingSeconds = Math.max(0, pendingSeconds - ticket.seconds);
+		speakerPendingSeconds.computeIfPresent(ticket.entityID, (entityID, seconds) -> {
+			float remaining = seconds - ticket.seconds;
+			// float residue
+			return remaining > 1e-3f ? remaining : null;
+		});
+	}
+
+	/**
+	 * Engines call this right before synthesizing, after any queueing, and must follow it with
+	 * {@link #finishSynthesis} or {@link #abortSynthesis}. Only wall time with at least one synthesis
+	 * in flight is measured, not pacing or waiting behind a line, and concurrent syntheses count it once.
+	 */
+	@Synchronized
+	public void startSynthesis() {
+		if (synthesizing++ == 0) busySince = clock.getAsLong();
+	}
+
+	@Synchronized
+	public void finishSynthesis(@NonNull Audio audio) {
+		endSynthesis();
+		sampleSeconds += duration(audio);
+		sample();
+	}
+
+	/**
+	 * The synthesis failed or was cancelled, its time counts as busy without producing audio.
+	 */
+	@Synchronized
+	public void abortSynthesis() {
+		endSynthesis();
+		sample();
+	}
+
+	private void endSynthesis() {
+		if (synthesizing == 0) return;
+
+		final long now = clock.getAsLong();
+		sampleNanos += now - busySince;
+		busySince = now;
+		synthesizing--;
+	}
+
+	private void sample() {
+		if (sampleSeconds == 0 || sampleNanos < MIN_SAMPLE_NANOS) return;
+		if (synthesizing == 0 || sampleNanos >= MAX_SAMPLE_NANOS) {
+			float sample = sampleSeconds / (sampleNanos / 1e9f);
+			throughput += THROUGHPUT_SMOOTHING * (sample - throughput);
+			throughput = Math.max(MIN_THROUGHPUT, throughput);
+			sampleNanos = 0;
+			sampleSeconds = 0;
+		}
+	}
+
+	@Synchronized
+	public void clear() {
+		speakers.clear();
+		pendingSeconds = 0;
+		speakerPendingSeconds.clear();
+	}
+
+	@VisibleForTesting
+	@Synchronized
+	int speakerCount() {
+		return speakers.size();
+	}
+
+	@VisibleForTesting
+	@Synchronized
+	float getThroughput() {
+		return throughput;
+	}
+
+	@VisibleForTesting
+	@Synchronized
+	long getShed(@NonNull Source source, @NonNull ShedReason reason) {
+		return shed[source.ordinal()][reason.ordinal()];
+	}
+
+	@NonNull
+	@Synchronized
+	public String getStats() {
+		StringBuilder builder = new StringBuilder();
+		for (Source source : Source.values()) {
+			for (ShedReason reason : ShedReason.values()) {
+				long count = shed[source.ordinal()][reason.ordinal()];
+				if (count == 0) continue;
+				builder.append(source.name().toLowerCase()).append('/').append(reason.name().toLowerCase())
+					.append(':').append(count).append(' ');
+			}
+		}
+		return String.format("%sreplaced:%d backlog:%.1fs throughput:%.1fx",
+			builder, replaced, pendingSeconds, throughput);
+	}
+
+	private Ticket accept(Speaker speaker, boolean replace, float seconds) {
+		pendingSeconds += seconds;
+		speakerPendingSeconds.merge(speaker.getEntityID(), seconds, Float::sum);
+		return new Ticket(speaker.getEntityID(), replace, seconds);
+	}
+
+	private Ticket shed(Speaker speaker, ShedReason reason) {
+		shed[speaker.getSource().ordinal()][reason.ordinal()]++;
+		log.trace("Shed speech from {} ({}), {}", speaker.getEntityID(), speaker.getSource(), reason);
+		return null;
+	}
+
+	private static float duration(Audio audio) {
+		AudioFormat format = audio.getAudioFormat();
+		return audio.getAudioStream().length / (format.getFrameSize() * format.getFrameRate());
+	}
+
+	private static final class TokenBucket {
+		private float tokens;
+		private long updated;
+
+		TokenBucket(int burst, long now) {
+			this.tokens = burst;
+			this.updated = now;
+		}
+
+		boolean available(long now, int burst, float perSecond) {
+			refill(now, burst, perSecond);
+			return tokens >= 1;
+		}
+
+		void take() {
+			tokens -= 1;
+		}
+
+		private void refill(long now, int burst, float perSecond) {
+			tokens = Math.min(burst, tokens + (now - updated) / 1e9f * perSecond);
+			updated = now;
+		}
+	}
+}
@@ -0,0 +1,260 @@
+package dev.phyce.naturalspeech.texttospeech.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Synthesizes one utterance at a time per line, holding the rest until the previous one is synthesized.
+ * <p>
+ * A line's held utterances are its backlog. Past the backlog limit the oldest are superseded (never synthesized),
+ * and when the line frees up, held utterances with the same voice are coalesced into one synthesis,
+ * so a speaker sending ten lines doesn't queue ten syntheses that play for half a minute.
+ * <p>
+ * Lines are only tracked while they have an utterance synthesizing, idle lines leave no state behind.
+ * A synthesis that doesn't complete within its timeout is cancelled, a hung engine doesn't hold its line forever.
+ */
+@Slf4j
+class LineScheduler {
+
+	@Value
+	static class Utterance {
+		@NonNull
+		VoiceID voiceID;
+		@NonNull
+		String text;
+		@NonNull
+		Supplier<Float> gainSupplier;
+		@NonNull
+		String line;
+		int session;
+		/**
+		 * Called once when the utterance is synthesized, failed, cancelled or superseded.
+		 */
+		@Nullable
+		Runnable onComplete;
+	}
+
+	interface Submitter {
+		/**
+		 * Starts synthesis, returns null if no engine accepted the utterance.
+		 *
+		 * @param coalesced the utterance merges several, its text is unlikely to ever repeat
+		 */
+		@Nullable
+		ListenableFuture<Audio> submit(@NonNull Utterance utterance, boolean coalesced);
+	}
+
+	private static final class LineState {
+		private final ArrayDeque<Utterance> held = new ArrayDeque<>();
+		@Nullable
+		private ListenableFuture<Audio> synthesizing;
+		// cancel requested while a batch was handed off, before its synthesis was published
+		private boolean cancelRequested;
+	}
+
+	private static final long TIMEOUT_MILLIS = 30_000;
+	// synthesis is paced to playback, long utterances take about as long as they play
+	private static final float TIMEOUT_MILLIS_PER_CHAR = SegmentPacer.SECONDS_PER_CHAR * 2000;
+
+	private final Submitter submitter;
+	private final ScheduledExecutorService timeoutExecutor;
+	private final long timeoutMillis;
+
+	// guarded by this, lines with an utterance synthesizing
+	private final Map<String, LineState> lines = new HashMap<>();
+
+	LineScheduler(
+		@NonNull Submitter submitter,
+		@NonNull ScheduledExecutorService timeoutExecutor
+	) {
+		this(submitter, timeoutExecutor, TIMEOUT_MILLIS);
+	}
+
+	@VisibleForTesting
+	LineScheduler(
+		@NonNull Submitter submitter,
+		@NonNull ScheduledExecutorService timeoutExecutor,
+		long timeoutMillis
+	) {
+		this.submitter = submitter;
+		this.timeoutExecutor = timeoutExecutor;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @param backlog utterances held for the line at most, the oldest are superseded
+	 * @param supersedeSynthesizing also cancel the utterance the line is synthesizing, e.g. for dialog
+	 */
+	void schedule(@NonNull Utterance utterance, int backlog, boolean supersedeSynthesizing) {
+		List<Utterance> superseded = new ArrayList<>();
+		ListenableFuture<Audio> cancel = null;
+		boolean idle = false;
+		synchronized (this) {
+			LineState state = lines.get(utterance.getLine());
+			if (state == null) {
+				lines.put(utterance.getLine(), new LineState());
+				idle = true;
+			}
+			else {
+				state.held.addLast(utterance);
+				while (state.held.size() > backlog) superseded.add(state.held.removeFirst());
+				if (supersedeSynthesizing) cancel = requestCancel(state);
+			}
+		}
+
+		superseded.forEach(LineScheduler::complete);
+		if (!superseded.isEmpty()) log.trace("Superseded {} utterances on line {}", superseded.size(), utterance.getLine());
+
+		if (idle) {
+			submit(utterance.getLine(), List.of(utterance));
+		}
+		// completing the cancelled synthesis starts the held utterances
+		else if (cancel != null) {
+			cancel.cancel(false);
+		}
+	}
+
+	/**
+	 * Drops held utterances on matching lines, and cancels their synthesis if cancelSynthesizing.
+	 */
+	void clear(@NonNull Predicate<String> lineCondition, boolean cancelSynthesizing) {
+		List<Utterance> dropped = new ArrayList<>();
+		List<ListenableFuture<Audio>> cancels = new ArrayList<>();
+		synchronized (this) {
+			for (Map.Entry<String, LineState> entry : lines.entrySet()) {
+				if (!lineCondition.test(entry.getKey())) continue;
+				LineState state = entry.getValue();
+				dropped.addAll(state.held);
+				state.held.clear();
+				if (!cancelSynthesizing) continue;
+				ListenableFuture<Audio> cancel = requestCancel(state);
+				if (cancel != null) cancels.add(cancel);
+			}
+		}
+		dropped.forEach(LineScheduler::complete);
+		cancels.forEach(future -> future.cancel(false));
+	}
+
+	@VisibleForTesting
+	synchronized int lineCount() {
+		return lines.size();
+	}
+
+	@VisibleForTesting
+	synchronized int heldCount(@NonNull String line) {
+		LineState state = lines.get(line);
+		return state == null ? 0 : state.held.size();
+	}
+
+	private void submit(String line, List<Utterance> batch) {
+		Utterance merged = coalesce(batch);
+		ListenableFuture<Audio> synthesis = submitter.submit(merged, batch.size() > 1);
+		if (synthesis == null) {
+			batch.forEach(LineScheduler::complete);
+			next(line);
+			return;
+		}
+
+		// cancelling the timeout future cancels the synthesis, and so does timing out
+		long timeout = timeoutMillis + (long) (merged.getText().length() * TIMEOUT_MILLIS_PER_CHAR);
+		ListenableFuture<Audio> future = Futures.withTimeout(synthesis, timeout, TimeUnit.MILLISECONDS, timeoutExecutor);
+
+		boolean cancel = false;
+		synchronized (this) {
+			LineState state = lines.get(line);
+			if (state != null) {
+				state.synthesizing = future;
+				cancel = state.cancelRequested;
+				state.cancelRequested = false;
+			}
+		}
+		// superseded or cleared while handed off, completing starts the held utterances
+		if (cancel) future.cancel(false);
+
+		future.addListener(() -> {
+			if (synthesis.isCancelled() && !future.isCancelled()) {
+				log.warn("Synthesis on line {} timed out after {}ms, cancelled", line, timeout);
+			}
+			batch.forEach(LineScheduler::complete);
+			next(line);
+		}, directExecutor());
+	}
+
+	private void next(String line) {
+		List<Utterance> batch = new ArrayList<>();
+		synchronized (this) {
+			LineState state = lines.get(line);
+			if (state == null) return;
+			state.synthesizing = null;
+			// a request during the previous handoff doesn't apply to the next batch
+			state.cancelRequested = false;
+
+			if (state.held.isEmpty()) {
+				lines.remove(line);
+				return;
+			}
+
+			// coalesce the leading utterances sharing a voice
+			VoiceID voiceID = state.held.peekFirst().getVoiceID();
+			Iterator<Utterance> iter = state.held.iterator();
+			while (iter.hasNext()) {
+				Utterance utterance = iter.next();
+				if (!utterance.getVoiceID().equals(voiceID)) break;
+				batch.add(utterance);
+				iter.remove();
+			}
+		}
+		submit(line, batch);
+	}
+
+	/**
+	 * @return the synthesis to cancel, null if the line is handing off a batch and will cancel it when published
+	 */
+	@Nullable
+	private static ListenableFuture<Audio> requestCancel(LineState state) {
+		if (state.synthesizing == null) state.cancelRequested = true;
+		return state.synthesizing;
+	}
+
+	private static Utterance coalesce(List<Utterance> batch) {
+		if (batch.size() == 1) return batch.get(0);
+
+		StringBuilder text = new StringBuilder();
+		for (Utterance utterance : batch) {
+			String part = utterance.getText().trim();
+			if (part.isEmpty()) continue;
+			if (text.length() > 0) {
+				char last = text.charAt(text.length() - 1);
+				if (last != '.' && last != '!' && last != '?') text.append('.');
+				text.append(' ');
+			}
+			text.append(part);
+		}
+
+		// the latest gain and session, in case the speaker moved or the session changed
+		Utterance latest = batch.get(batch.size() - 1);
+		return new Utterance(latest.getVoiceID(), text.toString(), latest.getGainSupplier(), latest.getLine(),
+			latest.getSession(), null);
+	}
+
+	private static void complete(Utterance utterance) {
+		if (utterance.getOnComplete() != null) utterance.getOnComplete().run();
+	}
+}
@@ -3,7 +3,10 @@ package dev.phyce.naturalspeech.texttospeech.engine;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
 import com.sun.jna.Pointer;
@@ -52,6 +55,7 @@ public class MacSpeechEngine extends ManagedSpeechEngine {
 
 	private final NaturalSpeechConfig config;
 	private final AudioEngine audioEngine;
+	private final AdmissionController admissionController;
 
 	@Nullable
 	private final ID avSynthesizer = avSynthesizer(this);
@@ -75,10 +79,12 @@ public class MacSpeechEngine extends ManagedSpeechEngine {
 	@Inject
 	public MacSpeechEngine(
 		NaturalSpeechConfig config,
-		AudioEngine audioEngine
+		AudioEngine audioEngine,
+		AdmissionController admissionController
 	) {
 		this.config = config;
 		this.audioEngine = audioEngine;
+		this.admissionController = admissionController;
 	}
 
 	@Override
@@ -95,6 +101,18 @@ public class MacSpeechEngine extends ManagedSpeechEngine {
 		AVSpeechUtterance.setVoice(utterance, nativeVoice);
 
 		BufferCallback callback = new BufferCallback();
+		admissionController.startSynthesis();
+		Futures.addCallback(callback.onComplete(), new FutureCallback<Audio>() {
+			@Override
+			public void onSuccess(Audio audio) {
+				admissionController.finishSynthesis(audio);
+			}
+
+			@Override
+			public void onFailure(@NonNull Throwable e) {
+				admissionController.abortSynthesis();
+			}
+		}, MoreExecutors.directExecutor());
 		Block bufferBlock = Block.alloc(callback);
 		AVSpeechSynthesizer.writeUtteranceToBufferCallback(avSynthesizer, utterance, bufferBlock);
 		Block.release(bufferBlock);
@@ -356,6 +374,7 @@ public class MacSpeechEngine extends ManagedSpeechEngine {
 				}
 			} catch (Exception e) {
 				log.error("ErrorResult in buffer callback", e);
+				onComplete.setException(e);
 			}
 
 		}
@@ -1,7 +1,6 @@
 package dev.phyce.naturalspeech.texttospeech.engine;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -9,6 +8,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
 import dev.phyce.naturalspeech.audio.AudioEngine;
 import dev.phyce.naturalspeech.configs.PiperConfig;
 import dev.phyce.naturalspeech.configs.RuntimePathConfig;
@@ -16,8 +16,10 @@ import dev.phyce.naturalspeech.eventbus.PluginEventBus;
 import dev.phyce.naturalspeech.events.PiperProcessEvent;
 import dev.phyce.naturalspeech.events.SpeechEngineEvent;
 import dev.phyce.naturalspeech.executor.PluginExecutorService;
+import dev.phyce.naturalspeech.statics.MagicNames;
 import dev.phyce.naturalspeech.texttospeech.Voice;
 import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import dev.phyce.naturalspeech.texttospeech.engine.cache.DiskAudioCache;
 import dev.phyce.naturalspeech.texttospeech.engine.piper.PiperProcess;
 import dev.phyce.naturalspeech.texttospeech.engine.piper.PiperRepository.PiperModel;
 import dev.phyce.naturalspeech.texttospeech.engine.piper.PiperRepository.PiperVoice;
@@ -30,15 +32,19 @@ import static dev.phyce.naturalspeech.utils.Result.ResultFutures.immediateOk;
 import dev.phyce.naturalspeech.utils.StreamableFuture;
 import dev.phyce.naturalspeech.utils.TextUtil;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import javax.annotation.CheckReturnValue;
 import javax.sound.sampled.AudioFormat;
@@ -69,13 +75,21 @@ public class PiperEngine extends ManagedSpeechEngine {
 
 	private final RuntimePathConfig runtimePathConfig;
 	private final PiperConfig piperConfig;
+	private final NaturalSpeechConfig config;
 	private final ListeningExecutorService pluginExecutorService;
+	private final ScheduledExecutorService scheduledExecutorService;
 	private final PluginEventBus pluginEventBus;
 	private final AudioEngine audioEngine;
+	private final DiskAudioCache diskAudioCache;
+	private final AdmissionController admissionController;
 
 	private final ConcurrentHashMap<Long, PiperProcess> processes = new ConcurrentHashMap<>();
 	private final BlockingQueue<PiperProcess> idleProcesses = Queues.newLinkedBlockingQueue();
 	private final Vector<StreamableFuture<Audio>> inflightFutures = new Vector<>();
+	private final Set<SegmentPacer> pacers = ConcurrentHashMap.newKeySet();
+	private ScheduledFuture<?> pacerPoll = null;
+	// DiskAudioCache.modelIdentity of the onnx file, taken at startup
+	private long modelIdentity = 0;
 	@Getter
 	private final PiperModel model;
 
@@ -89,22 +103,29 @@ public class PiperEngine extends ManagedSpeechEngine {
 	public PiperEngine(
 		RuntimePathConfig runtimePathConfig,
 		PiperConfig piperConfig,
+		NaturalSpeechConfig config,
 		PluginExecutorService pluginExecutorService,
 		PluginEventBus pluginEventBus,
 		@Assisted PiperModel model,
-		AudioEngine audioEngine
+		AudioEngine audioEngine,
+		DiskAudioCache diskAudioCache,
+		AdmissionController admissionController
 	) {
 		this.runtimePathConfig = runtimePathConfig;
 		this.piperConfig = piperConfig;
+		this.config = config;
 		// Downgrade Guava from v33 to v23
 		// feature since v28.1, Futures.submit
 		// submit directly submits and returns a ListenableFuture<T>,
 		//
 		// Instead we decorate our plugin executor service, which gives us back the similar ListeningExecutorService.submit()
 		this.pluginExecutorService = MoreExecutors.listeningDecorator(pluginExecutorService);
+		this.scheduledExecutorService = pluginExecutorService;
 		this.pluginEventBus = pluginEventBus;
 		this.model = model;
 		this.audioEngine = audioEngine;
+		this.diskAudioCache = diskAudioCache;
+		this.admissionController = admissionController;
 
 		voices = voices(model);
 		voiceIDs = voiceIDs(model);
@@ -120,24 +141,40 @@ public class PiperEngine extends ManagedSpeechEngine {
 		if (!voiceIDs.contains(voiceID)) return Error(Rejection.REJECT(this));
 
 
-		List<String> segments = text.length() > 50 ? TextUtil.splitSentence(text) : List.of(text);
+		List<String> segments = TextUtil.segmentForLatency(text, processCount());
 
 
 		int piperId = Preconditions.checkNotNull(voiceID.getIntId());
+		// dialog repeats across sessions, chat rarely does
+		boolean persist = line.equals(MagicNames.DIALOG);
 
-		ImmutableList<ListenableFuture<Audio>> futures = segments.stream()
-			.map(segment -> _generate(piperId, segment))
-			.map(generate -> pluginExecutorService.submit(generate))
-			.collect(ImmutableList.toImmutableList());
+		// segments are released as playback on the line catches up, see SegmentPacer
+		SegmentPacer pacer = new SegmentPacer(segments,
+			segment -> pluginExecutorService.submit(_generate(piperId, segment, persist)),
+			() -> audioEngine.getBufferedSeconds(line),
+			config.synthesisLeadSeconds());
 
-		StreamableFuture<Audio> future = new StreamableFuture<>(futures, Audio::join);
+		StreamableFuture<Audio> future = new StreamableFuture<>(pacer.getSegments(), Audio::join);
+		pacer.attach(future);
 		inflightFutures.add(future);
-		FuncFutures.onComplete(future, () -> inflightFutures.remove(future));
+		pacers.add(pacer);
+		FuncFutures.onComplete(future, () -> {
+			inflightFutures.remove(future);
+			pacers.remove(pacer);
+		});
+		pacer.release();
 		return Ok(future);
 	}
 
-	private Callable<Audio> _generate(int piperId, String text) {
+	private Callable<Audio> _generate(int piperId, String text, boolean persist) {
 		return () -> {
+			DiskAudioCache.Key key = DiskAudioCache.Key.of(modelIdentity, piperId, text);
+			Audio cached = diskAudioCache.get(key);
+			if (cached != null) {
+				log.debug("Loaded audio from disk cache (byte size:{})", cached.getAudioStream().length);
+				return cached;
+			}
+
 			PiperProcess process = null;
 			try {
 				do {
@@ -150,9 +187,18 @@ public class PiperEngine extends ManagedSpeechEngine {
 					}
 				} while (process == null);
 
-				byte[] bytes = process.generate(piperId, text);
+				admissionController.startSynthesis();
+				byte[] bytes;
+				try {
+					bytes = process.generate(piperId, text);
+				} catch (Throwable e) {
+					admissionController.abortSynthesis();
+					throw e;
+				}
 				Audio audio = Audio.of(bytes, audioFormat);
+				admissionController.finishSynthesis(audio);
 				log.debug("Generated audio (byte size:{})", bytes.length);
+				if (persist) diskAudioCache.put(key, audio);
 				return audio;
 			} finally {
 				log.debug("Adding back to idle {}", process);
@@ -178,12 +224,18 @@ public class PiperEngine extends ManagedSpeechEngine {
 			return immediateError(EngineError.NO_RUNTIME(this));
 		}
 
+		modelIdentity = DiskAudioCache.modelIdentity(model.getOnnx());
+
 		Result<Void, IOException> result = spawn(piperConfig.getProcessCount(model.getModelName()));
 		if (result.isError()) {
 			log.error("Failed to spawn piper process for {}.", this, result.unwrapError());
 			return immediateError(EngineError.UNEXPECTED_FAIL(this));
 		}
 
+		// playback progress doesn't raise events, poll paced utterances
+		pacerPoll = scheduledExecutorService.scheduleWithFixedDelay(
+			() -> pacers.forEach(SegmentPacer::release), 100, 100, TimeUnit.MILLISECONDS);
+
 		return immediateOk();
 	}
 
@@ -199,13 +251,6 @@ public class PiperEngine extends ManagedSpeechEngine {
 			for (PiperProcess process : processes.values()) {
 				process.destroy();
 			}
-
-			Iterator<StreamableFuture<Audio>> iter = inflightFutures.iterator();
-			while (iter.hasNext()) {
-				iter.next().cancel(true);
-				iter.remove();
-			}
-
 		} finally {
 			cleanup();
 		}
@@ -244,6 +289,18 @@ public class PiperEngine extends ManagedSpeechEngine {
 	private void cleanup() {
 		processes.clear();
 		idleProcesses.clear();
+		if (pacerPoll != null) {
+			pacerPoll.cancel(false);
+			pacerPoll = null;
+		}
+
+		// after a crash nothing would complete these, and their lines would wait on them forever
+		pacers.forEach(SegmentPacer::cancel);
+		pacers.clear();
+		// copied, completion removes futures from the list
+		List<StreamableFuture<Audio>> inflight = new ArrayList<>(inflightFutures);
+		inflightFutures.clear();
+		inflight.forEach(future -> future.cancel(true));
 	}
 
 	@Override
@@ -41,6 +41,7 @@ public class SAPI4Engine extends ManagedSpeechEngine {
 
 	private final ListeningExecutorService pluginExecutorService;
 	private final AudioEngine audioEngine;
+	private final AdmissionController admissionController;
 
 	@NonNull
 	private final ImmutableMap<String, SpeechAPI4> nativeVoices;
@@ -57,7 +58,8 @@ public class SAPI4Engine extends ManagedSpeechEngine {
 	public SAPI4Engine(
 		SAPI4Repository sapi4Repository,
 		PluginExecutorService pluginExecutorService,
-		AudioEngine audioEngine
+		AudioEngine audioEngine,
+		AdmissionController admissionController
 	) {
 		// Downgrade Guava from v33 to v23
 		// feature since v28.1, Futures.submit
@@ -66,6 +68,7 @@ public class SAPI4Engine extends ManagedSpeechEngine {
 		// Instead we decorate our plugin executor service, which gives us back the similar ListeningExecutorService.submit()
 		this.pluginExecutorService = MoreExecutors.listeningDecorator(pluginExecutorService);
 		this.audioEngine = audioEngine;
+		this.admissionController = admissionController;
 
 		nativeVoices = nativeVoices(sapi4Repository);
 		voices = voices(nativeVoices);
@@ -86,8 +89,17 @@ public class SAPI4Engine extends ManagedSpeechEngine {
 
 		ListenableFuture<Audio> future = pluginExecutorService.submit(() ->
 		{
-			Result<Audio, Exception> result = sapi.generate(text);
-			return result.unwrap();
+			admissionController.startSynthesis();
+			Audio audio;
+			try {
+				Result<Audio, Exception> result = sapi.generate(text);
+				audio = result.unwrap();
+			} catch (Throwable e) {
+				admissionController.abortSynthesis();
+				throw e;
+			}
+			admissionController.finishSynthesis(audio);
+			return audio;
 		});
 
 		return Ok(StreamableFuture.singular(future));
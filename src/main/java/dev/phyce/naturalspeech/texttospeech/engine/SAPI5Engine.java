@@ -36,6 +36,7 @@ public class SAPI5Engine extends ManagedSpeechEngine {
 
 	private final ListeningExecutorService pluginExecutorService;
 	private final AudioEngine audioEngine;
+	private final AdmissionController admissionController;
 
 	@Getter
 	@NonNull
@@ -53,7 +54,8 @@ public class SAPI5Engine extends ManagedSpeechEngine {
 	@Inject
 	private SAPI5Engine(
 		PluginExecutorService pluginExecutorService,
-		AudioEngine audioEngine
+		AudioEngine audioEngine,
+		AdmissionController admissionController
 	) {
 		// Downgrade Guava from v33 to v23
 		// feature since v28.1, Futures.submit
@@ -62,6 +64,7 @@ public class SAPI5Engine extends ManagedSpeechEngine {
 		// Instead we decorate our plugin executor service, which gives us back the similar ListeningExecutorService.submit()
 		this.pluginExecutorService = MoreExecutors.listeningDecorator(pluginExecutorService);
 		this.audioEngine = audioEngine;
+		this.admissionController = admissionController;
 	}
 
 	@Override
@@ -80,8 +83,17 @@ public class SAPI5Engine extends ManagedSpeechEngine {
 			Preconditions.checkNotNull(process);
 			Preconditions.checkState(process.isAlive());
 
-			Result<Audio, Exception> result = process.generateAudio(sapiName, text);
-			return result.unwrap();
+			admissionController.startSynthesis();
+			Audio audio;
+			try {
+				Result<Audio, Exception> result = process.generateAudio(sapiName, text);
+				audio = result.unwrap();
+			} catch (Throwable e) {
+				admissionController.abortSynthesis();
+				throw e;
+			}
+			admissionController.finishSynthesis(audio);
+			return audio;
 		});
 
 		StreamableFuture<Audio> stream = StreamableFuture.singular(future);
@@ -0,0 +1,111 @@
+package dev.phyce.naturalspeech.texttospeech.engine;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import dev.phyce.naturalspeech.utils.StreamableFuture;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.NonNull;
+
+/**
+ * Releases the segments of one utterance for synthesis, paced by playback.
+ * <p>
+ * The first segment is released immediately. Following segments are only released while the audio
+ * queued on the line plus the released audio not yet handed to the line is less than the lead time,
+ * so a long utterance doesn't occupy every process while other speakers wait.
+ * <p>
+ * {@link #release()} is called when a released segment completes or is streamed to the line,
+ * and should be polled while playback progresses.
+ */
+class SegmentPacer {
+
+	// rough speaking rate, estimates the length of audio still being synthesized
+	static final float SECONDS_PER_CHAR = 0.065f;
+
+	private final ImmutableList<String> texts;
+	private final ImmutableList<SettableFuture<Audio>> segments;
+	private final Function<String, ListenableFuture<Audio>> submitter;
+	private final Supplier<Float> bufferedSeconds;
+	private final float leadSeconds;
+
+	// guarded by this
+	private int next = 0;
+	private boolean cancelled = false;
+	private StreamableFuture<Audio> future = null;
+
+	SegmentPacer(
+		@NonNull List<String> texts,
+		@NonNull Function<String, ListenableFuture<Audio>> submitter,
+		@NonNull Supplier<Float> bufferedSeconds,
+		float leadSeconds
+	) {
+		this.texts = ImmutableList.copyOf(texts);
+		this.submitter = submitter;
+		this.bufferedSeconds = bufferedSeconds;
+		this.leadSeconds = leadSeconds;
+
+		ImmutableList.Builder<SettableFuture<Audio>> builder = ImmutableList.builder();
+		for (int i = 0; i < texts.size(); i++) builder.add(SettableFuture.create());
+		this.segments = builder.build();
+	}
+
+	/**
+	 * Placeholder futures for every segment, in order. Cancelling one before it is released skips its synthesis.
+	 */
+	List<ListenableFuture<Audio>> getSegments() {
+		return ImmutableList.copyOf(segments);
+	}
+
+	/**
+	 * Counts segments as ahead until the future's stream listeners have handed them to the line.
+	 */
+	synchronized void attach(@NonNull StreamableFuture<Audio> future) {
+		this.future = future;
+		future.addStreamedListener(this::release);
+	}
+
+	/**
+	 * Stops releasing, and cancels the segments not yet released.
+	 */
+	synchronized void cancel() {
+		cancelled = true;
+		for (int i = next; i < segments.size(); i++) segments.get(i).cancel(false);
+	}
+
+	synchronized void release() {
+		if (cancelled) return;
+		while (next < texts.size()) {
+			SettableFuture<Audio> segment = segments.get(next);
+			if (segment.isDone()) {
+				// cancelled before release
+				next++;
+				continue;
+			}
+
+			if (next > 0 && aheadSeconds() >= leadSeconds) return;
+
+			// advance before submitting, completion may call back into release() on this thread
+			String text = texts.get(next++);
+			ListenableFuture<Audio> future = submitter.apply(text);
+			segment.setFuture(future);
+			future.addListener(this::release, directExecutor());
+		}
+	}
+
+	// guarded by this
+	private float aheadSeconds() {
+		float ahead = bufferedSeconds.get();
+		// done segments still count while they wait in the stream for an earlier segment or the listener's executor
+		int streamed = future == null ? 0 : future.getStreamed();
+		for (int i = streamed; i < next; i++) {
+			SettableFuture<Audio> segment = segments.get(i);
+			if (segment.isCancelled()) continue;
+			if (future == null && segment.isDone()) continue;
+			ahead += texts.get(i).length() * SECONDS_PER_CHAR;
+		}
+		return ahead;
+	}
+}
@@ -3,6 +3,7 @@ package dev.phyce.naturalspeech.texttospeech.engine;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Inject;
@@ -21,22 +22,25 @@ import dev.phyce.naturalspeech.statics.MagicNames;
 import dev.phyce.naturalspeech.texttospeech.Voice;
 import dev.phyce.naturalspeech.texttospeech.VoiceID;
 import dev.phyce.naturalspeech.texttospeech.VoiceManager;
+import dev.phyce.naturalspeech.texttospeech.engine.cache.AudioCache;
 import dev.phyce.naturalspeech.texttospeech.engine.piper.PiperRepository;
 import dev.phyce.naturalspeech.utils.FuncFutures;
 import dev.phyce.naturalspeech.utils.Result;
 import static dev.phyce.naturalspeech.utils.Result.Error;
+import static dev.phyce.naturalspeech.utils.Result.Ok;
 import static dev.phyce.naturalspeech.utils.Result.ResultFutures.immediateError;
 import dev.phyce.naturalspeech.utils.StreamableFuture;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.sound.sampled.AudioInputStream;
 import lombok.NonNull;
 import lombok.Synchronized;
@@ -53,13 +57,18 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 	private final PluginEventBus pluginEventBus;
 	private final PluginExecutorService pluginExecutorService;
 	private final SpeechManagerConfig speechManagerConfig;
-	private ImmutableList<ManagedSpeechEngine> engines = ImmutableList.of();
+	private final AudioCache audioCache;
+	private final AdmissionController admissionController;
+	private volatile ImmutableList<ManagedSpeechEngine> engines = ImmutableList.of();
 	private final PiperConfig piperConfig;
 
 
 
+	// chat lines hold this many messages while synthesizing, dialog only ever speaks the latest
+	private static final int LINE_BACKLOG = 2;
+
 	private final AtomicInteger dialogSession = new AtomicInteger(0);
-	private final ConcurrentHashMap<Integer, List<StreamableFuture<Audio>>> pendingFutures = new ConcurrentHashMap<>();
+	private final LineScheduler lineScheduler;
 
 	@Inject
 	private SpeechManager(
@@ -73,7 +82,9 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 		SAPI4Engine sapi4Engine,
 		SAPI5Engine sapi5Engine,
 		PiperEngine.Factory modelEngineFactory,
-		PiperConfig piperConfig
+		PiperConfig piperConfig,
+		AudioCache audioCache,
+		AdmissionController admissionController
 	) {
 		this.audioEngine = audioEngine;
 		this.pluginEventBus = pluginEventBus;
@@ -81,6 +92,9 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 		this.speechManagerConfig = speechManagerConfig;
 		this.voiceManager = voiceManager;
 		this.piperConfig = piperConfig;
+		this.audioCache = audioCache;
+		this.admissionController = admissionController;
+		this.lineScheduler = new LineScheduler(this::synthesize, pluginExecutorService);
 
 		piperRepository.getModels()
 			.map(modelEngineFactory::create)
@@ -108,6 +122,7 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 	@Override
 	public void shutDown() {
 		engines.forEach(this::shutdownEngine);
+		admissionController.clear();
 		pluginEventBus.post(SpeechManagerEvent.STOPPED(this));
 	}
 
@@ -136,11 +151,37 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 		@NonNull String text,
 		@NonNull String line
 	) {
+		return generate(voiceID, text, line, true);
+	}
+
+	/**
+	 * @param cacheable look up and keep the audio in {@link AudioCache}
+	 */
+	private @NonNull Result<StreamableFuture<Audio>, Rejection> generate(
+		VoiceID voiceID,
+		String text,
+		String line,
+		boolean cacheable
+	) {
+		AudioCache.Key key = AudioCache.Key.of(voiceID, text);
+		Audio cached = cacheable ? audioCache.get(key) : null;
+		if (cached != null) {
+			log.trace("Audio cache hit for {} text:{}", voiceID, text);
+			return Ok(StreamableFuture.singular(Futures.immediateFuture(cached)));
+		}
 
 		List<Rejection> rejections = new ArrayList<>(engines.size());
 		for (SpeechEngine engine : engines) {
 			var result = engine.generate(voiceID, text, line);
 			if (result.isOk()) {
+				if (!cacheable) return result;
+
+				StreamableFuture<Audio> future = result.unwrap();
+				// only join the segments when the cache is likely to keep it
+				FuncFutures.onComplete(future, () -> {
+					if (future.isCancelled() || !audioCache.mightAdmit(key)) return;
+					FuncFutures.onSuccess(future, audio -> audioCache.put(key, audio));
+				});
 				return result;
 			}
 			else {
@@ -152,39 +193,88 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 		return Error(Rejection.MULTIPLE(this, rejections));
 	}
 
+	/**
+	 * Speaks chat, subject to admission control during floods, see {@link AdmissionController}.
+	 */
+	public void speak(
+		@NonNull VoiceID voiceID,
+		@NonNull String text,
+		@NonNull Supplier<Float> gainSupplier,
+		@NonNull String line,
+		@NonNull AdmissionController.Speaker speaker
+	) {
+		AdmissionController.Ticket ticket = admissionController.admit(speaker, text);
+		if (ticket == null) return;
+		// keep latest, the speaker's queued speech is dropped for this one
+		if (ticket.replace) silence(line::equals);
+
+		schedule(voiceID, text, gainSupplier, line, () -> admissionController.complete(ticket));
+	}
+
+	/**
+	 * Speaks without admission control, for dialog and speech the user asked for.
+	 */
 	public void speak(
 		@NonNull VoiceID voiceID,
 		@NonNull String text,
 		@NonNull Supplier<Float> gainSupplier,
 		@NonNull String line
 	) {
-		int currentSession;
-		if(line.equals(MagicNames.DIALOG)) currentSession = dialogSession.incrementAndGet();
-		else currentSession = 0;
+		schedule(voiceID, text, gainSupplier, line, null);
+	}
 
-		Result<StreamableFuture<Audio>, Rejection> result = generate(voiceID, text, line);
+	private void schedule(
+		VoiceID voiceID,
+		String text,
+		Supplier<Float> gainSupplier,
+		String line,
+		@Nullable Runnable onComplete
+	) {
+		if (line.equals(MagicNames.DIALOG)) {
+			int session = dialogSession.incrementAndGet();
+			lineScheduler.schedule(
+				new LineScheduler.Utterance(voiceID, text, gainSupplier, line, session, onComplete), 1, true);
+		}
+		else {
+			lineScheduler.schedule(
+				new LineScheduler.Utterance(voiceID, text, gainSupplier, line, 0, onComplete), LINE_BACKLOG, false);
+		}
+	}
 
-		result.ifOk(future -> {
-			if(line.equals(MagicNames.DIALOG)) pendingFutures.computeIfAbsent(currentSession, k -> new ArrayList<>()).add(future);
+	@CheckForNull
+	private ListenableFuture<Audio> synthesize(LineScheduler.Utterance utterance, boolean coalesced) {
+		final String line = utterance.getLine();
+		final int session = utterance.getSession();
+
+		// coalesced text practically never repeats, caching it would only join the segments for nothing
+		Result<StreamableFuture<Audio>, Rejection> result =
+			generate(utterance.getVoiceID(), utterance.getText(), line, !coalesced);
+		if (result.isError()) {
+			logRejection(result.unwrapError());
+			return null;
+		}
 
-			future.addStreamListener(audio -> {
+		StreamableFuture<Audio> future = result.unwrap();
+		future.addStreamListener(new FutureCallback<Audio>() {
+			@Override
+			public void onSuccess(Audio audio) {
 				if (audio == null) return;
 
-				if (line.equals(MagicNames.DIALOG) && currentSession != dialogSession.get()) return;
-
-				Preconditions.checkNotNull(audio);
+				if (line.equals(MagicNames.DIALOG) && session != dialogSession.get()) return;
 
 				try (AudioInputStream stream = audio.toInputStream()) {
-					audioEngine.play(line, stream, gainSupplier);
+					audioEngine.play(line, stream, utterance.getGainSupplier());
 				} catch (IOException e) {
 					throw new RuntimeException(e);
 				}
-			}, pluginExecutorService);
+			}
 
-			FuncFutures.onException(future,
-				(e) -> log.error("Exception while to generate audio for {} with {}", voiceID, e.toString()));
-		});
-		result.ifError(this::logRejection);
+			@Override
+			public void onFailure(@NonNull Throwable e) {
+				log.error("Exception while to generate audio for {} with {}", utterance.getVoiceID(), e.toString());
+			}
+		}, pluginExecutorService);
+		return future;
 	}
 
 	@Synchronized
@@ -233,7 +323,7 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 
 		FuncFutures.onResult(future, (result) -> {
 			result.ifOk(() -> {
-				managedEngine.getVoices().forEach(voiceManager::register);
+				voiceManager.registerAll(managedEngine.getVoices());
 				pluginEventBus.post(SpeechEngineEvent.STARTED(managedEngine));
 			});
 			result.ifError(this::postError);
@@ -245,8 +335,10 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 	public void shutdownEngine(@NonNull SpeechEngine engine) {
 		ManagedSpeechEngine managedEngine = (ManagedSpeechEngine) engine;
 
-		managedEngine.getVoiceIDs().forEach(voiceManager::unregister);
+		voiceManager.unregisterAll(managedEngine.getVoiceIDs());
 		managedEngine.shutdown();
+		// voices may come back from a different model file
+		audioCache.clear();
 
 		pluginEventBus.post(SpeechEngineEvent.STOPPED(managedEngine));
 	}
@@ -297,6 +389,7 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 
 	public void silenceAll() {
 		skipDialog();
+		lineScheduler.clear(line -> true, true);
 		for (SpeechEngine activeEngine : engines) {
 			activeEngine.silenceAll();
 		}
@@ -305,21 +398,14 @@ public class SpeechManager implements SpeechEngine, PluginModule {
 	@Override
 	public void silence(Predicate<String> lineCondition) {
 		if (lineCondition.test(MagicNames.DIALOG)) skipDialog();
+		lineScheduler.clear(lineCondition, true);
 
 		for (SpeechEngine activeEngine : engines) activeEngine.silence(lineCondition);
 	}
 
 	protected void skipDialog() {
-		int newSession = dialogSession.incrementAndGet();
-
-		pendingFutures.forEach((sessionId, futures) -> {
-			if (sessionId != newSession) {
-				for (StreamableFuture<Audio> future : futures) {
-					future.cancel(true);
-				}
-				pendingFutures.remove(sessionId);
-			}
-		});
+		dialogSession.incrementAndGet();
+		lineScheduler.clear(MagicNames.DIALOG::equals, true);
 	}
 
 	@Override
@@ -0,0 +1,202 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import dev.phyce.naturalspeech.audio.ImaAdpcm;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import dev.phyce.naturalspeech.texttospeech.engine.Audio;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.sound.sampled.AudioFormat;
+import lombok.NonNull;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory cache of synthesized audio, keyed by voice and normalized text.
+ * <p>
+ * Bounded by a byte budget ({@link NaturalSpeechConfig#audioCacheSize()}), evicting least recently used entries.
+ * Admission is frequency aware (TinyLFU): when the cache is full, a new entry only replaces the LRU victims
+ * if it has been requested more often than them, so one-off chat doesn't evict recurring lines.
+ * <p>
+ * With {@link NaturalSpeechConfig#compactAudio()}, entries are kept IMA-ADPCM encoded and decoded on hit.
+ */
+@Slf4j
+@PluginSingleton
+public class AudioCache {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final long BYTES_PER_MB = 1024 * 1024;
+
+	private final LongSupplier budget;
+	private final BooleanSupplier compact;
+
+	// access-ordered, iteration starts from the least recently used
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private final FrequencySketch sketch = new FrequencySketch(4096);
+	private long bytes = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	private long rejections = 0;
+
+	@Value
+	public static class Key {
+		VoiceID voiceID;
+		String text;
+
+		public static Key of(@NonNull VoiceID voiceID, @NonNull String text) {
+			return new Key(voiceID, WHITESPACE.matcher(text.trim()).replaceAll(" "));
+		}
+	}
+
+	@Value
+	public static class Stats {
+		long hits;
+		long misses;
+		long evictions;
+		long rejections;
+		int entries;
+		long bytes;
+
+		@Override
+		public String toString() {
+			return String.format("hits:%d misses:%d evictions:%d rejections:%d entries:%d size:%.1fMB",
+				hits, misses, evictions, rejections, entries, bytes / (float) BYTES_PER_MB);
+		}
+	}
+
+	private static final class Entry {
+		private final AudioFormat format;
+		private final byte[] pcm;
+		private final ImaAdpcm.Encoded encoded;
+
+		private Entry(Audio audio, boolean compact) {
+			this.format = audio.getAudioFormat();
+			if (compact && ImaAdpcm.supports(format)) {
+				this.pcm = null;
+				this.encoded = ImaAdpcm.encode(audio.getAudioStream());
+			}
+			else {
+				this.pcm = audio.getAudioStream();
+				this.encoded = null;
+			}
+		}
+
+		long size() {
+			return pcm != null ? pcm.length : encoded.size();
+		}
+
+		Audio toAudio() {
+			return Audio.of(pcm != null ? pcm : encoded.decode(), format);
+		}
+	}
+
+	@Inject
+	private AudioCache(NaturalSpeechConfig config) {
+		this(() -> config.audioCacheSize() * BYTES_PER_MB, config::compactAudio);
+	}
+
+	@VisibleForTesting
+	AudioCache(LongSupplier budget, BooleanSupplier compact) {
+		this.budget = budget;
+		this.compact = compact;
+	}
+
+	/**
+	 * Looks up cached audio, also counts the request towards the key's admission frequency.
+	 */
+	@CheckForNull
+	public Audio get(@NonNull Key key) {
+		Entry entry = lookup(key);
+		// decode outside the lock
+		return entry == null ? null : entry.toAudio();
+	}
+
+	@Synchronized
+	private Entry lookup(Key key) {
+		sketch.increment(key);
+
+		Entry entry = entries.get(key);
+		if (entry == null) misses++;
+		else hits++;
+		return entry;
+	}
+
+	/**
+	 * Cheap pre-check before producing a value for {@link #put}, e.g. joining a streamed utterance.
+	 */
+	@Synchronized
+	public boolean mightAdmit(@NonNull Key key) {
+		long budget = budget();
+		if (budget == 0) return false;
+		return bytes < budget || sketch.frequency(key) > 1;
+	}
+
+	public void put(@NonNull Key key, @NonNull Audio audio) {
+		// encode outside the lock
+		insert(key, new Entry(audio, compact.getAsBoolean()));
+	}
+
+	@Synchronized
+	private void insert(Key key, Entry entry) {
+		long size = entry.size();
+		long budget = budget();
+		if (size > budget) {
+			rejections++;
+			return;
+		}
+
+		Entry previous = entries.remove(key);
+		if (previous != null) bytes -= previous.size();
+
+		// pick LRU victims, but only if the candidate is requested more often than each of them
+		int frequency = sketch.frequency(key);
+		List<Key> victims = new ArrayList<>();
+		long freed = 0;
+		Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+		while (bytes - freed + size > budget && iter.hasNext()) {
+			Map.Entry<Key, Entry> victim = iter.next();
+			if (sketch.frequency(victim.getKey()) >= frequency) {
+				rejections++;
+				return;
+			}
+			victims.add(victim.getKey());
+			freed += victim.getValue().size();
+		}
+
+		for (Key victim : victims) entries.remove(victim);
+		evictions += victims.size();
+		bytes -= freed;
+
+		entries.put(key, entry);
+		bytes += size;
+	}
+
+	@Synchronized
+	public void clear() {
+		entries.clear();
+		sketch.clear();
+		bytes = 0;
+	}
+
+	@Synchronized
+	public Stats getStats() {
+		return new Stats(hits, misses, evictions, rejections, entries.size(), bytes);
+	}
+
+	private long budget() {
+		return budget.getAsLong();
+	}
+}
@@ -0,0 +1,543 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
+import dev.phyce.naturalspeech.PluginModule;
+import dev.phyce.naturalspeech.executor.PluginExecutorService;
+import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import dev.phyce.naturalspeech.statics.ConfigKeys;
+import dev.phyce.naturalspeech.statics.PluginPaths;
+import dev.phyce.naturalspeech.texttospeech.engine.Audio;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.sound.sampled.AudioFormat;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+
+/**
+ * Persistent cache of synthesized PCM audio, survives client restarts.
+ * <p>
+ * Records are appended to segment files under {@link #CACHE_PATH}; full segments are sealed and memory-mapped for
+ * reading. The index is a primitive hash table from 128-bit key to (segment, offset), rebuilt on start up
+ * by scanning record headers. Keys hash the model file identity (path, size, modified time), speaker id and text,
+ * so a replaced model simply stops matching its old records.
+ * <p>
+ * When the total size exceeds {@link NaturalSpeechConfig#diskAudioCacheSize()}, a background compaction drops the
+ * oldest segment, carrying over records that were read since the last compaction.
+ */
+@Slf4j
+@PluginSingleton
+public class DiskAudioCache implements PluginModule {
+
+	public static final Path CACHE_PATH = PluginPaths.NATURAL_SPEECH_PATH.resolve("cache").resolve("audio");
+
+	private static final int MAGIC = 0x4E534131; // NSA1
+	// magic, key hi, key lo, sample rate, sample bits, channels, flags, length
+	private static final int HEADER_SIZE = 4 + 8 + 8 + 4 + 2 + 2 + 1 + 4;
+	private static final byte FLAG_SIGNED = 1;
+	private static final byte FLAG_BIG_ENDIAN = 2;
+
+	private static final long SEGMENT_MAX_BYTES = 16 * 1024 * 1024;
+	private static final long BYTES_PER_MB = 1024 * 1024;
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private final Path directory;
+	private final LongSupplier budget;
+	private final long segmentMaxBytes;
+	private final Executor executor;
+
+	// all guarded by this
+	private final RecordIndex index = new RecordIndex();
+	private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+	private final List<Path> pendingDeletes = new ArrayList<>();
+	private Segment active = null;
+	private long totalBytes = 0;
+	private boolean compacting = false;
+
+	private volatile boolean loaded = false;
+
+	@Value
+	public static class Key {
+		long hi;
+		long lo;
+
+		public static Key of(long modelIdentity, int speakerId, @NonNull String text) {
+			HashCode hash = Hashing.murmur3_128().newHasher()
+				.putLong(modelIdentity)
+				.putInt(speakerId)
+				.putString(text, StandardCharsets.UTF_8)
+				.hash();
+			ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+			return new Key(bytes.getLong(), bytes.getLong());
+		}
+	}
+
+	private static class Segment {
+		final int id;
+		final Path path;
+		final FileChannel channel;
+		long size;
+		// only for sealed segments, the active segment is still growing
+		MappedByteBuffer mapped = null;
+
+		Segment(int id, Path path, FileChannel channel, long size) {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+			this.size = size;
+		}
+	}
+
+	@Inject
+	private DiskAudioCache(NaturalSpeechConfig config, PluginExecutorService pluginExecutorService) {
+		this(CACHE_PATH, () -> config.diskAudioCacheSize() * BYTES_PER_MB, SEGMENT_MAX_BYTES, pluginExecutorService);
+	}
+
+	@VisibleForTesting
+	DiskAudioCache(Path directory, LongSupplier budget, long segmentMaxBytes, Executor executor) {
+		this.directory = directory;
+		this.budget = budget;
+		this.segmentMaxBytes = segmentMaxBytes;
+		this.executor = executor;
+	}
+
+	/**
+	 * Identity of a model file, part of every key. Changes when the file is replaced.
+	 */
+	public static long modelIdentity(@NonNull File modelFile) {
+		return Hashing.murmur3_128().newHasher()
+			.putString(modelFile.getAbsolutePath(), StandardCharsets.UTF_8)
+			.putLong(modelFile.length())
+			.putLong(modelFile.lastModified())
+			.hash()
+			.asLong();
+	}
+
+	@Override
+	public void startUp() {
+		if (isEnabled()) executor.execute(this::load);
+	}
+
+	@Override
+	public synchronized void shutDown() {
+		loaded = false;
+		for (Segment segment : segments.values()) closeQuietly(segment);
+		segments.clear();
+		index.clear();
+		active = null;
+		totalBytes = 0;
+	}
+
+	@Subscribe
+	private void onConfigChanged(ConfigChanged event) {
+		if (!event.getGroup().equals(CONFIG_GROUP)) return;
+		if (!event.getKey().equals(ConfigKeys.DISK_AUDIO_CACHE_SIZE)) return;
+
+		if (isEnabled()) {
+			if (!loaded) executor.execute(this::load);
+			else scheduleCompaction();
+		}
+	}
+
+	@CheckForNull
+	public Audio get(@NonNull Key key) {
+		if (!loaded || !isEnabled()) return null;
+
+		synchronized (this) {
+			long location = index.access(key.hi, key.lo);
+			if (location == RecordIndex.MISSING) return null;
+
+			Segment segment = segments.get(segmentOf(location));
+			try {
+				return segment == null ? null : read(segment, offsetOf(location), key);
+			} catch (IOException e) {
+				log.error("Failed to read audio cache record in {}", segment.path, e);
+				index.remove(key.hi, key.lo);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Appends the audio in the background.
+	 */
+	public void put(@NonNull Key key, @NonNull Audio audio) {
+		if (!loaded || !isEnabled()) return;
+
+		AudioFormat.Encoding encoding = audio.getAudioFormat().getEncoding();
+		if (!encoding.equals(AudioFormat.Encoding.PCM_SIGNED) && !encoding.equals(AudioFormat.Encoding.PCM_UNSIGNED)) {
+			return;
+		}
+
+		executor.execute(() -> {
+			synchronized (this) {
+				if (!loaded || index.get(key.hi, key.lo) != RecordIndex.MISSING) return;
+				try {
+					append(key, audio.getAudioFormat(), audio.getAudioStream());
+				} catch (IOException e) {
+					log.error("Failed to write audio cache record", e);
+				}
+			}
+			scheduleCompaction();
+		});
+	}
+
+	private boolean isEnabled() {
+		return budget() > 0;
+	}
+
+	private long budget() {
+		return budget.getAsLong();
+	}
+
+	// region load
+	private synchronized void load() {
+		if (loaded) return;
+
+		try {
+			Files.createDirectories(directory);
+
+			List<Path> files;
+			try (Stream<Path> stream = Files.list(directory)) {
+				files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+					.collect(Collectors.toList());
+			}
+
+			for (Path path : files) {
+				String name = path.getFileName().toString();
+				int id;
+				try {
+					id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+				} catch (NumberFormatException e) {
+					log.warn("Ignoring unknown file in audio cache {}", path);
+					continue;
+				}
+				FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				segments.put(id, new Segment(id, path, channel, channel.size()));
+			}
+
+			// in id order, later records override earlier ones
+			for (Segment segment : segments.values()) {
+				scan(segment);
+				totalBytes += segment.size;
+			}
+
+			if (!segments.isEmpty()) active = segments.lastEntry().getValue();
+			for (Segment segment : segments.values()) {
+				if (segment != active) seal(segment);
+			}
+
+			loaded = true;
+			log.debug("Loaded audio cache, {} records in {} segments ({} bytes)",
+				index.size(), segments.size(), totalBytes);
+		} catch (IOException e) {
+			log.error("Failed to load audio cache from {}", directory, e);
+			for (Segment segment : segments.values()) closeQuietly(segment);
+			segments.clear();
+			index.clear();
+			totalBytes = 0;
+		}
+
+		scheduleCompaction();
+	}
+
+	// guarded by this
+	private void scan(Segment segment) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		long position = 0;
+		while (position + HEADER_SIZE <= segment.size) {
+			header.clear();
+			readFully(segment.channel, header, position);
+			header.flip();
+
+			int magic = header.getInt();
+			long hi = header.getLong();
+			long lo = header.getLong();
+			header.position(header.position() + 4 + 2 + 2 + 1);
+			int length = header.getInt();
+
+			if (magic != MAGIC || length < 0 || position + HEADER_SIZE + length > segment.size) break;
+
+			index.put(hi, lo, location(segment.id, position));
+			position += HEADER_SIZE + length;
+		}
+
+		if (position != segment.size) {
+			// torn write from a crash, drop the tail
+			log.warn("Truncating audio cache segment {} from {} to {} bytes", segment.path, segment.size, position);
+			segment.channel.truncate(position);
+			segment.size = position;
+		}
+	}
+	// endregion
+
+	// region records
+	// guarded by this
+	private Audio read(Segment segment, long offset, Key key) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (segment.mapped != null) {
+			ByteBuffer view = segment.mapped.duplicate();
+			view.position((int) offset).limit((int) offset + HEADER_SIZE);
+			header.put(view);
+		}
+		else {
+			readFully(segment.channel, header, offset);
+		}
+		header.flip();
+
+		if (header.getInt() != MAGIC || header.getLong() != key.hi || header.getLong() != key.lo) {
+			throw new IOException("Audio cache record header mismatch at " + offset);
+		}
+		float sampleRate = header.getFloat();
+		int sampleBits = header.getShort();
+		int channels = header.getShort();
+		byte flags = header.get();
+		int length = header.getInt();
+
+		// the one copy, Audio is backed by a heap array
+		byte[] bytes = new byte[length];
+		if (segment.mapped != null) {
+			ByteBuffer view = segment.mapped.duplicate();
+			view.position((int) offset + HEADER_SIZE);
+			view.get(bytes);
+		}
+		else {
+			readFully(segment.channel, ByteBuffer.wrap(bytes), offset + HEADER_SIZE);
+		}
+
+		AudioFormat format = new AudioFormat(sampleRate, sampleBits, channels,
+			(flags & FLAG_SIGNED) != 0, (flags & FLAG_BIG_ENDIAN) != 0);
+		return Audio.of(bytes, format);
+	}
+
+	// guarded by this
+	private void append(Key key, AudioFormat format, byte[] bytes) throws IOException {
+		long recordSize = HEADER_SIZE + bytes.length;
+		if (active == null || (active.size > 0 && active.size + recordSize > segmentMaxBytes)) {
+			roll();
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC)
+			.putLong(key.hi)
+			.putLong(key.lo)
+			.putFloat(format.getSampleRate())
+			.putShort((short) format.getSampleSizeInBits())
+			.putShort((short) format.getChannels())
+			.put((byte) ((format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED) ? FLAG_SIGNED : 0)
+				| (format.isBigEndian() ? FLAG_BIG_ENDIAN : 0)))
+			.putInt(bytes.length)
+			.flip();
+
+		long position = active.size;
+		writeFully(active.channel, new ByteBuffer[] {header, ByteBuffer.wrap(bytes)}, position);
+		active.size += recordSize;
+		totalBytes += recordSize;
+
+		index.put(key.hi, key.lo, location(active.id, position));
+	}
+
+	// guarded by this
+	private void roll() throws IOException {
+		if (active != null) seal(active);
+
+		int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+		Path path = directory.resolve(String.format("%08d%s", id, SEGMENT_SUFFIX));
+		FileChannel channel = FileChannel.open(path,
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		active = new Segment(id, path, channel, channel.size());
+		segments.put(id, active);
+	}
+
+	private static void seal(Segment segment) throws IOException {
+		segment.mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+	}
+	// endregion
+
+	// region compaction
+	private void scheduleCompaction() {
+		synchronized (this) {
+			if (compacting || !loaded || totalBytes <= budget()) return;
+			compacting = true;
+		}
+		executor.execute(this::compact);
+	}
+
+	/**
+	 * Rewrites one record at a time, so reads and appends aren't held up for a whole segment.
+	 */
+	private void compact() {
+		try {
+			synchronized (this) {
+				retryPendingDeletes();
+			}
+
+			// compact down to 90% so we don't compact again on the next append
+			long target = budget() * 9 / 10;
+			while (true) {
+				Segment oldest;
+				synchronized (this) {
+					if (!loaded || totalBytes <= target || segments.size() <= 1) break;
+					oldest = segments.firstEntry().getValue();
+				}
+				compact(oldest);
+			}
+		} catch (IOException e) {
+			log.error("Failed to compact audio cache", e);
+		} finally {
+			synchronized (this) {
+				compacting = false;
+			}
+		}
+	}
+
+	// the oldest segment is sealed, only appends and compaction change the index or segments
+	private void compact(Segment segment) throws IOException {
+		int kept = 0;
+		int dropped = 0;
+
+		long position = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (position + HEADER_SIZE <= segment.size) {
+			header.clear();
+			header.put(segment.mapped.duplicate().position((int) position).limit((int) position + HEADER_SIZE));
+			header.flip();
+			header.getInt();
+			long hi = header.getLong();
+			long lo = header.getLong();
+			header.position(header.position() + 4 + 2 + 2 + 1);
+			int length = header.getInt();
+
+			synchronized (this) {
+				// shut down or reloaded meanwhile
+				if (!isCurrent(segment)) return;
+
+				// skip records superseded by a later append
+				if (index.get(hi, lo) == location(segment.id, position)) {
+					if (index.clearAccessed(hi, lo) && carryOver(segment, position, new Key(hi, lo))) {
+						kept++;
+					}
+					else {
+						index.remove(hi, lo);
+						dropped++;
+					}
+				}
+			}
+			position += HEADER_SIZE + length;
+		}
+
+		synchronized (this) {
+			if (!isCurrent(segment)) return;
+			segments.remove(segment.id);
+			totalBytes -= segment.size;
+			closeQuietly(segment);
+			delete(segment.path);
+		}
+
+		log.debug("Compacted audio cache segment {}, kept {} dropped {}", segment.path, kept, dropped);
+	}
+
+	// guarded by this
+	private boolean isCurrent(Segment segment) {
+		return loaded && segments.get(segment.id) == segment;
+	}
+
+	/**
+	 * @return false if the record couldn't be read, it should be dropped
+	 */
+	// guarded by this
+	private boolean carryOver(Segment segment, long position, Key key) throws IOException {
+		Audio audio;
+		try {
+			audio = read(segment, position, key);
+		} catch (IOException e) {
+			log.warn("Dropping unreadable audio cache record in {} at {}", segment.path, position, e);
+			return false;
+		}
+		append(key, audio.getAudioFormat(), audio.getAudioStream());
+		return true;
+	}
+
+	// guarded by this
+	private void delete(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			// Windows refuses to delete files that are still mapped, until the mapping is garbage collected
+			log.debug("Deferring delete of {}", path, e);
+			pendingDeletes.add(path);
+		}
+	}
+
+	// guarded by this
+	private void retryPendingDeletes() {
+		List<Path> retry = new ArrayList<>(pendingDeletes);
+		pendingDeletes.clear();
+		retry.forEach(this::delete);
+	}
+	// endregion
+
+	private static long location(int segment, long offset) {
+		return ((long) segment << 32) | offset;
+	}
+
+	private static int segmentOf(long location) {
+		return (int) (location >>> 32);
+	}
+
+	private static long offsetOf(long location) {
+		return location & 0xFFFFFFFFL;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) throw new IOException("Unexpected end of audio cache segment");
+			position += read;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer[] buffers, long position) throws IOException {
+		for (ByteBuffer buffer : buffers) {
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+	}
+
+	private static void closeQuietly(Segment segment) {
+		try {
+			segment.channel.close();
+		} catch (IOException e) {
+			log.debug("Failed to close audio cache segment {}", segment.path, e);
+		}
+	}
+
+	public synchronized String getStats() {
+		return String.format("records:%d segments:%d size:%.1fMB",
+			index.size(), segments.size(), totalBytes / (float) BYTES_PER_MB);
+	}
+}
@@ -0,0 +1,73 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch estimating how often a key has been requested, with periodic aging.
+ * <p>
+ * Counters are halved every {@code 10 * width} increments, so the estimate follows recent popularity.
+ * Not thread-safe, callers synchronize.
+ */
+class FrequencySketch {
+	private static final int DEPTH = 4;
+	private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+	private static final int MAX_COUNT = 15;
+
+	private final int[][] counters;
+	private final int mask;
+	private final int sampleSize;
+	private int samples = 0;
+
+	FrequencySketch(int width) {
+		int size = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+		counters = new int[DEPTH][size];
+		mask = size - 1;
+		sampleSize = size * 10;
+	}
+
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int row = 0; row < DEPTH; row++) {
+			int index = index(hash, row);
+			if (counters[row][index] < MAX_COUNT) {
+				counters[row][index]++;
+				added = true;
+			}
+		}
+
+		if (added && ++samples >= sampleSize) age();
+	}
+
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int min = MAX_COUNT;
+		for (int row = 0; row < DEPTH; row++) {
+			min = Math.min(min, counters[row][index(hash, row)]);
+		}
+		return min;
+	}
+
+	void clear() {
+		for (int[] row : counters) Arrays.fill(row, 0);
+		samples = 0;
+	}
+
+	private void age() {
+		for (int[] row : counters) {
+			for (int i = 0; i < row.length; i++) row[i] >>>= 1;
+		}
+		samples /= 2;
+	}
+
+	private int index(int hash, int row) {
+		int h = hash * SEEDS[row];
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x45d9f3b;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,141 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+/**
+ * Open-addressed hash table from 128-bit keys to record locations, stored in primitive arrays.
+ * <p>
+ * Linear probing with backward-shift deletion, so there are no tombstones.
+ * Each entry carries an accessed bit, used by compaction to keep hot records. Not thread-safe, callers synchronize.
+ */
+class RecordIndex {
+	static final long MISSING = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private long[] his;
+	private long[] los;
+	private long[] locations;
+	private boolean[] used;
+	private boolean[] accessed;
+	private int mask;
+	private int size = 0;
+
+	RecordIndex() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	int size() {
+		return size;
+	}
+
+	long get(long hi, long lo) {
+		int slot = find(hi, lo);
+		return slot == -1 ? MISSING : locations[slot];
+	}
+
+	/**
+	 * @return the location, marking the entry as accessed
+	 */
+	long access(long hi, long lo) {
+		int slot = find(hi, lo);
+		if (slot == -1) return MISSING;
+		accessed[slot] = true;
+		return locations[slot];
+	}
+
+	/**
+	 * @return whether the entry was accessed since the last call, clearing the bit
+	 */
+	boolean clearAccessed(long hi, long lo) {
+		int slot = find(hi, lo);
+		if (slot == -1) return false;
+		boolean wasAccessed = accessed[slot];
+		accessed[slot] = false;
+		return wasAccessed;
+	}
+
+	void put(long hi, long lo, long location) {
+		if ((size + 1) * 2 > used.length) resize();
+
+		int slot = slot(lo);
+		while (used[slot]) {
+			if (his[slot] == hi && los[slot] == lo) {
+				locations[slot] = location;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		his[slot] = hi;
+		los[slot] = lo;
+		locations[slot] = location;
+		accessed[slot] = false;
+		used[slot] = true;
+		size++;
+	}
+
+	void remove(long hi, long lo) {
+		int slot = find(hi, lo);
+		if (slot == -1) return;
+
+		// backward-shift the rest of the probe run into the hole
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while (used[next]) {
+			int home = slot(los[next]);
+			// entry at next may move into the hole if its home isn't cyclically within (hole, next]
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				his[hole] = his[next];
+				los[hole] = los[next];
+				locations[hole] = locations[next];
+				accessed[hole] = accessed[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		used[hole] = false;
+		accessed[hole] = false;
+		size--;
+	}
+
+	void clear() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private int find(long hi, long lo) {
+		int slot = slot(lo);
+		while (used[slot]) {
+			if (his[slot] == hi && los[slot] == lo) return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int slot(long lo) {
+		// keys are already murmur3 hashes
+		return (int) (lo ^ (lo >>> 32)) & mask;
+	}
+
+	private void resize() {
+		long[] oldHis = his;
+		long[] oldLos = los;
+		long[] oldLocations = locations;
+		boolean[] oldUsed = used;
+		boolean[] oldAccessed = accessed;
+
+		allocate(oldUsed.length * 2);
+		for (int i = 0; i < oldUsed.length; i++) {
+			if (!oldUsed[i]) continue;
+			put(oldHis[i], oldLos[i], oldLocations[i]);
+			if (oldAccessed[i]) access(oldHis[i], oldLos[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		his = new long[capacity];
+		los = new long[capacity];
+		locations = new long[capacity];
+		used = new boolean[capacity];
+		accessed = new boolean[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+}
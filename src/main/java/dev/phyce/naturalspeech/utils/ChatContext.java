@@ -0,0 +1,74 @@
+package dev.phyce.naturalspeech.utils;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.spamdetection.ChatFilterPluglet;
+import dev.phyce.naturalspeech.texttospeech.Gender;
+import lombok.Getter;
+import lombok.NonNull;
+import net.runelite.api.Actor;
+import net.runelite.api.events.ChatMessage;
+
+/**
+ * Classification of one chat message, computed once by {@link ChatHelper#classify(ChatMessage)}.
+ * <p>
+ * Everything read from the client is captured on the client thread when classified,
+ * so the context can be filtered and spoken from any thread. Friend lookups are computed on first use.
+ */
+public final class ChatContext {
+	@Getter
+	private final ChatMessage message;
+	@Getter
+	private final ChatHelper.ChatType chatType;
+	@Getter
+	private final EntityID entityID;
+	@Getter
+	private final Optional<Actor> actor;
+	/**
+	 * Combat level of the speaking player, {@link Integer#MAX_VALUE} when not nearby.
+	 */
+	@Getter
+	private final int level;
+	/**
+	 * For resolving a random voice, the player's gender is read from their composition.
+	 */
+	@Getter
+	private final Gender gender;
+	@Getter
+	private final ChatFilterPluglet.Precheck chatFilterPrecheck;
+
+	private final Supplier<Boolean> friend;
+
+	ChatContext(
+		@NonNull ChatMessage message,
+		@NonNull ChatHelper.ChatType chatType,
+		@NonNull EntityID entityID,
+		@NonNull ChatFilterPluglet.Precheck chatFilterPrecheck,
+		@NonNull ClientHelper clientHelper
+	) {
+		// the event's message node belongs to the client, keep the fields only
+		this.message = new ChatMessage(null, message.getType(), message.getName(), message.getMessage(),
+			message.getSender(), message.getTimestamp());
+		this.chatType = chatType;
+		this.entityID = entityID;
+		this.actor = clientHelper.getActor(entityID);
+		this.level = clientHelper.getLevel(entityID);
+		this.gender = clientHelper.getGender(entityID);
+		this.chatFilterPrecheck = chatFilterPrecheck;
+		this.friend = Suppliers.memoize(() -> clientHelper.isFriend(entityID));
+	}
+
+	public boolean isFriend() {
+		return friend.get();
+	}
+
+	public boolean isPlayerChat() {
+		return chatType == ChatHelper.ChatType.LocalPlayers || chatType == ChatHelper.ChatType.RemotePlayers;
+	}
+
+	public boolean isTwitch() {
+		return "Twitch".equals(message.getSender());
+	}
+}
@@ -7,20 +7,23 @@ import dev.phyce.naturalspeech.NaturalSpeechConfig;
 import static dev.phyce.naturalspeech.NaturalSpeechPlugin.CONFIG_GROUP;
 import dev.phyce.naturalspeech.PluginModule;
 import dev.phyce.naturalspeech.audio.VolumeManager;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.configs.ConfigTracker;
 import dev.phyce.naturalspeech.configs.ReplacementsJSON;
 import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.entity.WorldTracker;
+import dev.phyce.naturalspeech.entity.ZoneTracker;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
+import dev.phyce.naturalspeech.spamdetection.ChatFilterPluglet;
+import dev.phyce.naturalspeech.spamdetection.NearDuplicateDetector;
 import dev.phyce.naturalspeech.spamdetection.SpamDetection;
 import dev.phyce.naturalspeech.statics.ConfigKeys;
 import dev.phyce.naturalspeech.statics.PluginResources;
 import dev.phyce.naturalspeech.texttospeech.MuteManager;
-import static dev.phyce.naturalspeech.utils.LocationUtil.inGrandExchange;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLongArray;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import lombok.AllArgsConstructor;
@@ -30,8 +33,6 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
-import net.runelite.api.Player;
-import net.runelite.api.WorldView;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.OverheadTextChanged;
 import net.runelite.api.widgets.Widget;
@@ -46,9 +47,13 @@ public class ChatHelper implements PluginModule {
 	private final Client client;
 	private final ClientHelper clientHelper;
 	private final SpamDetection spamDetection;
+	private final NearDuplicateDetector nearDuplicateDetector;
 	private final NaturalSpeechConfig config;
+	private final ConfigTracker configTracker;
 	private final MuteManager muteManager;
 	private final VolumeManager volumeManager;
+	private final WorldTracker worldTracker;
+	private final ZoneTracker zoneTracker;
 
 	public enum ChatType {
 		User,
@@ -58,6 +63,28 @@ public class ChatHelper implements PluginModule {
 		Unknown;
 	}
 
+	/**
+	 * Why {@link #isMuted(ChatContext)} rejected a message, in the order the filters run.
+	 */
+	public enum MuteReason {
+		TWITCH_DISABLED,
+		NO_ALPHANUMERIC,
+		UNKNOWN_TYPE,
+		SELF_MUTED,
+		TYPE_DISABLED,
+		OTHERS_MUTED,
+		NOT_FRIEND,
+		CROWDED,
+		AREA_DISABLED,
+		LEVEL_THRESHOLD,
+		ENTITY_MUTED,
+		SPAM,
+		NEAR_DUPLICATE,
+		INAUDIBLE
+	}
+
+	private final AtomicLongArray rejections = new AtomicLongArray(MuteReason.values().length);
+
 	@Value
 	@AllArgsConstructor
 	private static class Replacement {
@@ -68,24 +95,33 @@ public class ChatHelper implements PluginModule {
 	private final List<Replacement> builtinReplacements = new ArrayList<>();
 	private final List<Replacement> customReplacements = new ArrayList<>();
 
-	// for replacement
-	private final static List<Character> VALID_MATCH_TAILS = List.of(' ', ',', '!', '.', '?');
+	// compiled from the lists above on load, custom replacements take priority
+	private volatile TextReplacer customReplacer = TextReplacer.EMPTY;
+	private volatile TextReplacer combinedReplacer = TextReplacer.EMPTY;
 
 	@Inject
 	public ChatHelper(
 		Client client,
 		ClientHelper clientHelper,
 		SpamDetection spamDetection,
+		NearDuplicateDetector nearDuplicateDetector,
 		NaturalSpeechConfig config,
+		ConfigTracker configTracker,
 		MuteManager muteManager,
-		VolumeManager volumeManager
+		VolumeManager volumeManager,
+		WorldTracker worldTracker,
+		ZoneTracker zoneTracker
 	) {
 		this.client = client;
 		this.clientHelper = clientHelper;
 		this.spamDetection = spamDetection;
+		this.nearDuplicateDetector = nearDuplicateDetector;
 		this.config = config;
+		this.configTracker = configTracker;
 		this.muteManager = muteManager;
 		this.volumeManager = volumeManager;
+		this.worldTracker = worldTracker;
+		this.zoneTracker = zoneTracker;
 
 		loadBuiltInReplacement(PluginResources.BUILT_IN_REPLACEMENTS);
 	}
@@ -110,7 +146,10 @@ public class ChatHelper implements PluginModule {
 	}
 
 	public EntityID getEntityID(ChatMessage message) {
-		final ChatType chatType = getChatType(message);
+		return getEntityID(getChatType(message), message);
+	}
+
+	private static EntityID getEntityID(ChatType chatType, ChatMessage message) {
 		final EntityID eid;
 		switch (chatType) {
 			case User:
@@ -201,127 +240,160 @@ public class ChatHelper implements PluginModule {
 		}
 	}
 
+	/**
+	 * Classifies the message once, for {@link #isMuted(ChatContext)} and speaking. Must run on the client thread,
+	 * the returned context can be used from any thread.
+	 */
+	@NonNull
+	public ChatContext classify(@NonNull ChatMessage message) {
+		ChatType chatType = getChatType(message);
+		// spam is only classified in public chat
+		boolean publicChat = message.getType() == ChatMessageType.PUBLICCHAT
+			&& configTracker.getSnapshot().isPublicChatEnabled();
+		ChatFilterPluglet.Precheck precheck = publicChat
+			? spamDetection.precheck(message.getName(), message.getMessage())
+			: ChatFilterPluglet.Precheck.EXEMPT;
+		return new ChatContext(message, chatType, getEntityID(chatType, message), precheck, clientHelper);
+	}
+
 	public boolean isMuted(@NonNull ChatMessage message) {
-		if (message.getSender() != null && message.getSender().equals("Twitch") && !config.twitchChatEnabled()) return true;
+		return isMuted(classify(message));
+	}
 
-		ChatType chatType = getChatType(message);
-		EntityID eid = getEntityID(message);
+	/**
+	 * Runs the mute filters from cheapest to most expensive, stopping at the first rejection.
+	 */
+	public boolean isMuted(@NonNull ChatContext context) {
+		MuteReason reason = muteReason(context);
+		if (reason == null) return false;
 
-		// example: "::::::))))))" (no alpha numeric, muted)
-		if (!TextUtil.containAlphaNumeric(message.getMessage())) {
-			log.trace("Muting message. No alpha numeric characters. Message:{}", message);
-			return true;
+		rejections.incrementAndGet(reason.ordinal());
+		log.trace("Muting message. {}. Message:{}", reason, context.getMessage());
+		return true;
+	}
+
+	/**
+	 * Rejection count of each filter since startup, for diagnostics.
+	 */
+	public String getMuteStats() {
+		StringBuilder builder = new StringBuilder();
+		for (MuteReason reason : MuteReason.values()) {
+			long count = rejections.get(reason.ordinal());
+			if (count == 0) continue;
+			if (builder.length() > 0) builder.append(' ');
+			builder.append(reason.name().toLowerCase()).append(':').append(count);
 		}
+		return builder.length() > 0 ? builder.toString() : "none";
+	}
+
+	@Nullable
+	private MuteReason muteReason(ChatContext context) {
+		ChatMessage message = context.getMessage();
+		ChatType chatType = context.getChatType();
+		EntityID eid = context.getEntityID();
+		ConfigSnapshot settings = configTracker.getSnapshot();
+
+		// config reads and cheap checks on the message itself
+		if (context.isTwitch() && !settings.isTwitchChatEnabled()) return MuteReason.TWITCH_DISABLED;
+
+		// example: "::::::))))))" (no alpha numeric, muted)
+		if (!TextUtil.containAlphaNumeric(message.getMessage())) return MuteReason.NO_ALPHANUMERIC;
 
-		if (chatType == ChatType.Unknown) return true;
+		if (chatType == ChatType.Unknown) return MuteReason.UNKNOWN_TYPE;
 
 		if (eid.isUser()) {
-			return config.muteSelf();
+			return settings.isMuteSelf() ? MuteReason.SELF_MUTED : null;
 		}
 
-		if (config.friendsOnlyMode() &&
-			Utils.inArray(chatType, new ChatType[]{ChatType.LocalPlayers, ChatType.RemotePlayers}) &&
-			!clientHelper.isFriend(eid)) {
-			return true;
-		}
+		if (isMessageDisabled(settings, message.getType(), message.getSender())) return MuteReason.TYPE_DISABLED;
 
-		if (isMessageDisabled(message.getType(), message.getSender())) {
-			log.trace("Muting message. Disabled message type. Message:{}", message);
-			return true;
-		}
+		if (settings.isMuteOtherPlayers() && context.isPlayerChat()) return MuteReason.OTHERS_MUTED;
 
-		if (isTooCrowded()) return true;
+		// hash lookups
+		if (settings.isFriendsOnlyMode() && context.isPlayerChat() && !context.isFriend()) return MuteReason.NOT_FRIEND;
 
-		if (chatType == ChatType.LocalPlayers && isAreaDisabled()) {
-			log.trace("Muting message. Area is disabled. Message:{}", message);
-			return true;
-		}
+		if (isTooCrowded()) return MuteReason.CROWDED;
 
-		if (config.muteOtherPlayers() &&
-			Utils.inArray(chatType, new ChatType[]{ChatType.LocalPlayers, ChatType.RemotePlayers})) {
-			log.trace("Muting message. Muting others. Message:{}", message);
-			return true;
-		}
+		if (chatType == ChatType.LocalPlayers && isAreaDisabled()) return MuteReason.AREA_DISABLED;
 
-		if (clientHelper.getLevel(eid) < config.muteLevelThreshold()) {
-			log.trace("Muting message. Mute level threshold. Message:{}", message);
-			return true;
-		}
+		if (context.getLevel() < settings.getMuteLevelThreshold()) return MuteReason.LEVEL_THRESHOLD;
 
-		if (!muteManager.isAllowed(eid)) {
-			log.trace("Muting message. Username is muted. Message:{}", message);
-			return true;
-		}
+		if (!muteManager.isAllowed(eid)) return MuteReason.ENTITY_MUTED;
 
+		// spam classification
 		if (message.getType() == ChatMessageType.PUBLICCHAT &&
-			spamDetection.isSpam(message.getName(), message.getMessage())) {
-			log.trace("Muting message. Spam detected. Message:{}", message);
-			return true;
+			spamDetection.isSpam(context.getChatFilterPrecheck(), message.getName(), message.getMessage())) {
+			return MuteReason.SPAM;
+		}
+
+		if (settings.isMuteNearDuplicates() && message.getType() == ChatMessageType.PUBLICCHAT && !context.isFriend() &&
+			nearDuplicateDetector.isNearDuplicate(message.getMessage(), settings.getNearDuplicateDistance())) {
+			return MuteReason.NEAR_DUPLICATE;
 		}
 
 		// Optimization: Ignore speech that are too quiet with distance fade
-		if (config.distanceFadeEnabled()) {
-			Optional<Actor> actor = clientHelper.getActor(eid);
+		if (settings.isDistanceFadeEnabled()) {
+			Optional<Actor> actor = context.getActor();
 			if (actor.isPresent()) {
 				float gain = volumeManager.overhead(actor.get()).get();
 				if (gain <= VolumeManager.NOISE_FLOOR) {
 					log.trace("(Distance Fade: {}db) {} is too quiet to be audible, ignoring.", gain, eid);
-					return true;
+					return MuteReason.INAUDIBLE;
 				}
 			}
 		}
 
-		return false;
+		return null;
 	}
 
-	private boolean isMessageDisabled(@NonNull ChatMessageType messageType, String sender) {
+	private static boolean isMessageDisabled(ConfigSnapshot settings, @NonNull ChatMessageType messageType, String sender) {
 		switch (messageType) {
 			case PUBLICCHAT:
 			case MODCHAT:
-				if (!config.publicChatEnabled()) return true;
+				if (!settings.isPublicChatEnabled()) return true;
 				break;
 			case PRIVATECHAT:
 			case MODPRIVATECHAT:
-				if (!config.privateChatEnabled()) return true;
+				if (!settings.isPrivateChatEnabled()) return true;
 				break;
 			case FRIENDSCHAT:
-				if (sender.equals("Twitch") && !config.twitchChatEnabled()) return true;
-				else if (!config.privateChatEnabled()) return true;
+				if (sender.equals("Twitch") && !settings.isTwitchChatEnabled()) return true;
+				else if (!settings.isPrivateChatEnabled()) return true;
 			case PRIVATECHATOUT:
-				if (!config.privateOutChatEnabled()) return true;
+				if (!settings.isPrivateOutChatEnabled()) return true;
 				break;
 
 			case OBJECT_EXAMINE:
 			case ITEM_EXAMINE:
 			case NPC_EXAMINE:
-				if (!config.examineChatEnabled()) return true;
+				if (!settings.isExamineChatEnabled()) return true;
 				break;
 
 			case CLAN_GUEST_CHAT:
-				if (!config.clanGuestChatEnabled()) return true;
+				if (!settings.isClanGuestChatEnabled()) return true;
 				break;
 			case CLAN_GIM_CHAT:
-				if (!config.groupIronmanChatEnabled()) return true;
+				if (!settings.isGroupIronmanChatEnabled()) return true;
 				break;
 			case CLAN_CHAT:
-				if (!config.clanChatEnabled()) return true;
+				if (!settings.isClanChatEnabled()) return true;
 				break;
 			case CLAN_MESSAGE:
 			case CLAN_GIM_MESSAGE:
 			case CLAN_GUEST_MESSAGE:
-				if (!config.clanChatEnabled()) return true;
+				if (!settings.isClanChatEnabled()) return true;
 
 			case GAMEMESSAGE:
 			case LOGINLOGOUTNOTIFICATION:
 			case WELCOME:
 			case ENGINE:
-				if (!config.systemMesagesEnabled()) return true;
+				if (!settings.isSystemMessagesEnabled()) return true;
 				break;
 			case TRADEREQ:
 			case CHALREQ_CLANCHAT:
 			case CHALREQ_FRIENDSCHAT:
 			case CHALREQ_TRADE:
-				if (!config.requestsEnabled()) return true;
+				if (!settings.isRequestsEnabled()) return true;
 				break;
 			case CONSOLE: //
 			case MESBOX: // Used for UI text
@@ -331,52 +403,30 @@ public class ChatHelper implements PluginModule {
 	}
 
 	public boolean isTooCrowded() {
-		Player localPlayer = client.getLocalPlayer();
-		if (localPlayer == null) return false;
-		@Nullable WorldView topLevelWorldView = client.getTopLevelWorldView();
-		if (topLevelWorldView == null) return false;
-
-		int count = (int) topLevelWorldView.players().stream()
-				// Exclude the local player themselves
-				.filter(player -> !Objects.equals(player, localPlayer))
-				// For example, within 15 tiles
-				.filter(player -> player.getWorldLocation().distanceTo(localPlayer.getWorldLocation()) <= 15)
-				.count();
-
-		return config.muteCrowds() > 0 && config.muteCrowds() < count;
+		// players within WorldSnapshot.CROWD_RADIUS tiles, counted once per tick
+		int count = worldTracker.getSnapshot().getCrowd();
+
+		int threshold = configTracker.getSnapshot().getMuteCrowds();
+		return threshold > 0 && threshold < count;
 	}
 
 	public boolean isAreaDisabled() {
-		if (client.getLocalPlayer() == null) return false;
-		//noinspection RedundantIfStatement
-		if (config.muteGrandExchange() && inGrandExchange(client.getLocalPlayer().getWorldLocation())) return true;
-
-		return false;
+		// the local player's zone, looked up once per tick
+		return zoneTracker.isListenerMuted();
 	}
 
 	@NonNull
 	public String standardizeChatMessageText(ChatType chatType, @NonNull ChatMessage message) {
-		String text = message.getMessage();
-		if (chatType == ChatType.System) {
-			text = Text.removeFormattingTags(text);
-			text = removeNumericCommas(text);
-		}
-
-		if (message.getSender() != null && message.getSender().equals("Twitch")) {
-			if (text.startsWith("<colNORMAL>")) {
-				text = text.replaceFirst("^<colNORMAL>", "");
-			}
-		}
-
+		boolean twitch = "Twitch".equals(message.getSender());
+		String text = TextNormalizer.normalizeMarkup(message.getMessage(), chatType == ChatType.System, twitch);
 		text = renderReplacements(text);
-		text = TextUtil.renderLargeNumbers(text);
-		return text;
+		return TextNormalizer.renderNumbers(text);
 	}
 
 	@NonNull
 	public String standardizeWidgetText(@NonNull Widget widget) {
 		String text = Text.sanitizeMultilineText(widget.getText());
-		if (config.enableDialogTextReplacements()) {
+		if (configTracker.getSnapshot().isEnableDialogTextReplacements()) {
 			text = renderReplacements(text);
 		}
 		return text;
@@ -384,35 +434,18 @@ public class ChatHelper implements PluginModule {
 
 	@NonNull
 	public String standardizeOverheadText(@NonNull OverheadTextChanged overhead) {
-		return renderReplacements(Text.sanitizeMultilineText(overhead.getOverheadText()));
+		return standardizeOverheadText(overhead.getOverheadText());
 	}
 
 	@NonNull
-	public String renderReplacements(String text) {
-		// apply user replacements first
-		text = renderReplacements(text, customReplacements);
-
-		if (config.useBuiltInReplacements()) {
-			text = renderReplacements(text, builtinReplacements);
-		}
-
-		return text;
+	public String standardizeOverheadText(@NonNull String overheadText) {
+		return renderReplacements(Text.sanitizeMultilineText(overheadText));
 	}
 
-	public static String removeNumericCommas(String input) {
-		Pattern pattern = Pattern.compile("\\d{1,3}(,\\d{3})+");
-		Matcher matcher = pattern.matcher(input);
-
-		StringBuilder result = new StringBuilder();
-
-		while (matcher.find()) {
-			String numberWithoutCommas = matcher.group().replace(",", "");
-			matcher.appendReplacement(result, numberWithoutCommas);
-		}
-
-		matcher.appendTail(result);
-
-		return result.toString();
+	@NonNull
+	public String renderReplacements(String text) {
+		TextReplacer replacer = configTracker.getSnapshot().isUseBuiltInReplacements() ? combinedReplacer : customReplacer;
+		return replacer.apply(text).trim();
 	}
 
 	/**
@@ -441,6 +474,7 @@ public class ChatHelper implements PluginModule {
 
 			customReplacements.add(new Replacement(match, replace));
 		}
+		compileReplacements();
 	}
 
 	@VisibleForTesting
@@ -452,49 +486,19 @@ public class ChatHelper implements PluginModule {
 		} catch (JsonSyntaxException e) {
 			log.error("Failed to parse built-in abbreviations from Resources.", e);
 		}
+		compileReplacements();
 	}
 
-
-	private static String renderReplacements(String text, List<Replacement> replacements) {
-		// instead of tokenizing, we do a find-and-replace
-		// this supports space separated targets to be replaced, for example "multiple words"="OKResult"
-
-		// special characteristic:
-		// Rule 1. match head requires to either be start of line or preceded by ' ' space
-		// Rule 2. match tail requires to be end of line or ' ' space
-
-		for (Replacement entry : replacements) {
-
-			StringBuilder result = new StringBuilder();
-
-			int prev = 0;
-			int head = text.toLowerCase().indexOf(entry.match.toLowerCase());
-
-			while (head != -1) {
-
-				result.append(text, prev, head);
-
-				int tail = head + entry.match.length();
-				if ((head == 0 || text.charAt(head - 1) == ' ') && // rule 1
-					(tail == text.length() || VALID_MATCH_TAILS.contains(text.charAt(tail))) // rule 2
-				) {
-					result.append(entry.replacement);
-				} else {
-					result.append(entry.match);
-				}
-
-				prev = tail;
-				head = text.indexOf(entry.match, prev);
-			}
-
-			if (prev < text.length()) {
-				result.append(text, prev, text.length());
-			}
-
-			//			log.info("\nREPLACE\t{}\nTEXT\t{}\nRESULT\t{}\n", entry, text, result);
-			text = result.toString();
+	private void compileReplacements() {
+		TextReplacer.Builder custom = TextReplacer.builder();
+		TextReplacer.Builder combined = TextReplacer.builder();
+		for (Replacement entry : customReplacements) {
+			custom.add(entry.match, entry.replacement);
+			combined.add(entry.match, entry.replacement);
 		}
+		for (Replacement entry : builtinReplacements) combined.add(entry.match, entry.replacement);
 
-		return text.trim();
+		customReplacer = custom.build();
+		combinedReplacer = combined.build();
 	}
 }
@@ -1,25 +1,21 @@
 package dev.phyce.naturalspeech.utils;
 
 import com.google.common.base.Optional;
+import dev.phyce.naturalspeech.entity.ActorIndex;
 import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.entity.FriendIndex;
 import dev.phyce.naturalspeech.singleton.PluginSingleton;
 import dev.phyce.naturalspeech.texttospeech.Gender;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import javax.inject.Inject;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.Client;
-import net.runelite.api.Friend;
-import net.runelite.api.IndexedObjectSet;
 import net.runelite.api.NPC;
 import net.runelite.api.Player;
 
@@ -27,24 +23,21 @@ import net.runelite.api.Player;
 @PluginSingleton
 public final class ClientHelper {
 	private final Client client;
+	private final FriendIndex friendIndex;
+	private final ActorIndex actorIndex;
 
 	@Inject
-	public ClientHelper(Client client) {
+	public ClientHelper(Client client, FriendIndex friendIndex, ActorIndex actorIndex) {
 		this.client = client;
+		this.friendIndex = friendIndex;
+		this.actorIndex = actorIndex;
 	}
 
 	public Optional<Player> getPlayer(@NonNull EntityID eid) {
 
 		if (eid.isUser()) return Optional.of(client.getLocalPlayer());
 
-		return Optional.fromJavaUtil(
-			StreamSupport.stream(client.getTopLevelWorldView().players().spliterator(), false)
-				.map(player -> (Player) player)
-				.filter(Objects::nonNull)
-				.filter(player -> player.getName() != null)
-				.filter(eid::isPlayer)
-				.findFirst()
-		);
+		return Optional.fromNullable(actorIndex.getPlayer(eid));
 	}
 
 	@NonNull
@@ -61,20 +54,15 @@ public final class ClientHelper {
 	}
 
 	public boolean isFriend(@NonNull EntityID entityID) {
-		return getFriends().contains(entityID);
+		return friendIndex.isFriend(entityID);
 	}
 
 	public boolean isFriend(@NonNull String username) {
-		EntityID entityID = EntityID.name(username);
-
-		return getFriends().contains(entityID);
+		return friendIndex.isFriend(EntityID.name(username));
 	}
 
 	public EntityID getFriend(@NonNull String username) {
-		return getFriends().stream()
-			.filter(friend -> friend.toShortString().equalsIgnoreCase(username))
-			.findFirst()
-			.orElse(null);
+		return friendIndex.getFriend(username);
 	}
 
 	public boolean isLocalPlayer(@NonNull EntityID entityID) {
@@ -86,14 +74,7 @@ public final class ClientHelper {
 	}
 
 	public boolean isUserNearby(String username) {
-		IndexedObjectSet<? extends Player> players = client.getTopLevelWorldView().players();
-		for (Player player : players) {
-			if (player != null && player.getName() != null &&
-				player.getName().equalsIgnoreCase(username)) {
-				return true;
-			}
-		}
-		return false;
+		return actorIndex.getPlayer(EntityID.name(username)) != null;
 	}
 
 
@@ -106,9 +87,7 @@ public final class ClientHelper {
 	}
 
 	public Optional<NPC> getNPC(@NonNull EntityID entityID) {
-		return Optional.fromJavaUtil(client.getNpcs().stream()
-			.filter(entityID::isNPC)
-			.findFirst());
+		return Optional.fromNullable(actorIndex.getNpc(entityID));
 	}
 
 	public Optional<Actor> getActor(@NonNull EntityID eid) {
@@ -123,18 +102,7 @@ public final class ClientHelper {
 
 	@NonNull
 	public List<EntityID> getFriends() {
-		Friend[] members = client.getFriendContainer().getMembers();
-		if (members == null) {
-			log.warn("client.getFriendContainer().getMembers() returned null");
-			return new ArrayList<>();
-		}
-
-		return Arrays.stream(members)
-			.filter(Objects::nonNull)
-			.map(Friend::getName)
-			.filter(Objects::nonNull)
-			.map(EntityID::name)
-			.collect(Collectors.toList());
+		return friendIndex.getFriends();
 	}
 
 	public int widgetModelIdToNpcId(int modelId) {
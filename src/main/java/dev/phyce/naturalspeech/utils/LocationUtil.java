@@ -31,8 +31,4 @@ public enum LocationUtil {
 		return position.getX() >= minX && position.getX() <= maxX
 			&& position.getY() >= minY && position.getY() <= maxY;
 	}
-
-	public static boolean inGrandExchange(WorldPoint position) {
-		return LocationUtil.GRAND_EXCHANGE.isWorldPointInside2D(position);
-	}
 }
\ No newline at end of file
@@ -2,22 +2,42 @@ package dev.phyce.naturalspeech.utils;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * A future made out of ordered segments, for example the sentences of an utterance.
+ * <p>
+ * Stream listeners receive segments strictly in segment order, as soon as the next segment is ready,
+ * regardless of the order the segments finish in.
+ * <p>
+ * The future itself completes when every segment completes. The joiner is only applied when the value is
+ * requested through {@link #get()}, stream-only consumers never pay for the joined copy.
+ */
+@Slf4j
 public class StreamableFuture<T> extends AbstractFuture<T> {
 
 	private final ImmutableList<ListenableFuture<T>> segments;
 	private final Function<ImmutableList<T>, T> joiner;
+	private final ListenableFuture<List<T>> all;
+	private final List<OrderedDelivery> deliveries = new CopyOnWriteArrayList<>();
+	private final List<Runnable> streamedListeners = new CopyOnWriteArrayList<>();
 
-	public void addStreamListener(@NonNull FuncFutures.SuccessCallback<T> onSuccess, @NonNull Executor executor) {
-		segments.forEach((segment) -> FuncFutures.onSuccess(segment, onSuccess, executor));
-	}
+	// lazily joined on first get()
+	private T joined;
 
 	public StreamableFuture(
 		@NonNull List<ListenableFuture<T>> segments,
@@ -26,16 +46,170 @@ public class StreamableFuture<T> extends AbstractFuture<T> {
 		this.segments = ImmutableList.copyOf(segments);
 		this.joiner = joiner;
 
-		ListenableFuture<List<T>> list = Futures.allAsList(segments);
-		ListenableFuture<T> future = Futures.transform(list,
-			(results) -> joiner.apply(ImmutableList.copyOf(results)),
-			directExecutor());
-		setFuture(future);
+		all = Futures.allAsList(this.segments);
+		all.addListener(() -> {
+			try {
+				Futures.getDone(all);
+				// the value is joined lazily in get()
+				set(null);
+			} catch (ExecutionException e) {
+				setException(e.getCause());
+			} catch (CancellationException e) {
+				cancel(false);
+			}
+		}, directExecutor());
 	}
 
 	public static <T> @NonNull StreamableFuture<T> singular(@NonNull ListenableFuture<T> future) {
 		return new StreamableFuture<>(ImmutableList.of(future), (segments) -> segments.get(0));
 	}
 
+	public void addStreamListener(@NonNull FuncFutures.SuccessCallback<? super T> onSuccess, @NonNull Executor executor) {
+		addStreamListener((FutureCallback<? super T>) onSuccess, executor);
+	}
+
+	/**
+	 * Segments are delivered one at a time and in order; the callback is never invoked concurrently with itself,
+	 * even on a multithreaded executor. Failed segments are passed to {@link FutureCallback#onFailure},
+	 * cancelled segments are skipped.
+	 */
+	public void addStreamListener(@NonNull FutureCallback<? super T> callback, @NonNull Executor executor) {
+		OrderedDelivery delivery = new OrderedDelivery(callback, executor);
+		deliveries.add(delivery);
+		for (ListenableFuture<T> segment : segments) {
+			segment.addListener(delivery::schedule, directExecutor());
+		}
+	}
+
+	/**
+	 * Runs after a stream listener is done with a segment, on that listener's executor.
+	 */
+	public void addStreamedListener(@NonNull Runnable listener) {
+		streamedListeners.add(listener);
+	}
+
+	/**
+	 * The number of leading segments every stream listener is done with, skipped segments included.
+	 * Without stream listeners, the number of leading completed segments.
+	 */
+	public int getStreamed() {
+		if (deliveries.isEmpty()) {
+			int done = 0;
+			while (done < segments.size() && segments.get(done).isDone()) done++;
+			return done;
+		}
 
+		int streamed = segments.size();
+		for (OrderedDelivery delivery : deliveries) streamed = Math.min(streamed, delivery.handled);
+		return streamed;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		super.get();
+		return joined();
+	}
+
+	@Override
+	public T get(long timeout, @NonNull TimeUnit unit)
+		throws InterruptedException, ExecutionException, TimeoutException {
+		super.get(timeout, unit);
+		return joined();
+	}
+
+	@Override
+	protected void afterDone() {
+		if (isCancelled()) {
+			boolean interrupt = wasInterrupted();
+			segments.forEach(segment -> segment.cancel(interrupt));
+		}
+	}
+
+	private synchronized T joined() throws ExecutionException {
+		if (joined == null) {
+			joined = joiner.apply(ImmutableList.copyOf(Futures.getDone(all)));
+		}
+		return joined;
+	}
+
+	private final class OrderedDelivery {
+		private final FutureCallback<? super T> callback;
+		private final Executor executor;
+
+		// guarded by this
+		private int cursor = 0;
+		private boolean scheduled = false;
+		// segments the callback has returned from
+		private volatile int handled = 0;
+
+		private OrderedDelivery(FutureCallback<? super T> callback, Executor executor) {
+			this.callback = callback;
+			this.executor = executor;
+		}
+
+		private void schedule() {
+			synchronized (this) {
+				if (scheduled || !nextReady()) return;
+				scheduled = true;
+			}
+
+			try {
+				executor.execute(this::deliver);
+			} catch (RejectedExecutionException e) {
+				log.warn("Stream delivery rejected by executor, dropping remaining segments.", e);
+			}
+		}
+
+		private void deliver() {
+			while (true) {
+				ListenableFuture<T> segment;
+				int index;
+				synchronized (this) {
+					if (!nextReady()) {
+						scheduled = false;
+						return;
+					}
+					index = cursor++;
+					segment = segments.get(index);
+				}
+
+				try {
+					if (!segment.isCancelled()) handle(segment);
+				} finally {
+					handled = index + 1;
+					notifyStreamed();
+				}
+			}
+		}
+
+		private void notifyStreamed() {
+			for (Runnable listener : streamedListeners) {
+				try {
+					listener.run();
+				} catch (RuntimeException e) {
+					log.error("Streamed listener threw", e);
+				}
+			}
+		}
+
+		private void handle(ListenableFuture<T> segment) {
+			try {
+				T value;
+				try {
+					value = Futures.getDone(segment);
+				} catch (ExecutionException e) {
+					callback.onFailure(e.getCause());
+					return;
+				}
+				callback.onSuccess(value);
+			} catch (RuntimeException e) {
+				log.error("Stream listener threw on segment {}/{}", cursor, segments.size(), e);
+			}
+		}
+
+		// guarded by this
+		private boolean nextReady() {
+			return cursor < segments.size() && segments.get(cursor).isDone();
+		}
+	}
 }
@@ -0,0 +1,254 @@
+package dev.phyce.naturalspeech.utils;
+
+import lombok.NonNull;
+
+/**
+ * Single pass chat text normalization, replacing the chain of regular expressions that used to run per message.
+ * <p>
+ * Chat is normalized in two phases, on either side of text replacements:
+ * <ol>
+ *     <li>{@link #normalizeMarkup} strips Jagex formatting tags (keeping the {@code <lt>} and {@code <gt>} entities)
+ *     and digit grouping commas from game messages, and the Twitch colour prefix.</li>
+ *     <li>{@link #renderNumbers} removes digit grouping and spells out k/m/b/t suffixes, e.g. "12,500" becomes "12500",
+ *     "15k" becomes "15 thousand".</li>
+ * </ol>
+ * Replacements are matched against the stripped text and their output still gets numbers rendered.
+ * Each phase is a single scan, digit runs are rewritten as they close, into a reused per-thread builder.
+ * Output is identical to the previous regular expressions, see TestTextNormalizer.
+ */
+public final class TextNormalizer {
+
+	private static final String TWITCH_PREFIX = "<colNORMAL>";
+
+	private static final ThreadLocal<StringBuilder> output = ThreadLocal.withInitial(StringBuilder::new);
+	private static final ThreadLocal<StringBuilder> scratch = ThreadLocal.withInitial(StringBuilder::new);
+
+	private TextNormalizer() {}
+
+	/**
+	 * @param gameMessage strip formatting tags and digit grouping, for system messages
+	 * @param twitch strip the leading Twitch colour tag
+	 */
+	@NonNull
+	public static String normalizeMarkup(@NonNull String text, boolean gameMessage, boolean twitch) {
+		int start = twitch && text.startsWith(TWITCH_PREFIX) ? TWITCH_PREFIX.length() : 0;
+		if (!gameMessage) return text.substring(start);
+
+		final int length = text.length();
+		// a '<' only opens a tag if a '>' follows somewhere
+		final int lastClose = text.lastIndexOf('>');
+
+		StringBuilder out = begin(output, length);
+		int run = -1; // start of the trailing [0-9,] run in out
+		for (int i = start; i < length; i++) {
+			char c = text.charAt(i);
+
+			if (c == '<' && i < lastClose) {
+				int close = text.indexOf('>', i + 1);
+				// tags are invisible to the run, "1<col=ff>,000" is one number
+				if (!isEntity(text, i, close)) {
+					i = close;
+					continue;
+				}
+				if (run != -1) run = ungroup(out, run);
+				out.append(text, i, close + 1);
+				i = close;
+				continue;
+			}
+
+			if (isDigit(c) || c == ',') {
+				if (run == -1) run = out.length();
+			}
+			else if (run != -1) {
+				run = ungroup(out, run);
+			}
+			out.append(c);
+		}
+		if (run != -1) ungroup(out, run);
+
+		return out.toString();
+	}
+
+	/**
+	 * Removes digit grouping and spells out k (thousand), m (million), b (billion) and t (trillion) suffixes.
+	 */
+	@NonNull
+	public static String renderNumbers(@NonNull String text) {
+		final int length = text.length();
+
+		StringBuilder out = null;
+		int copied = 0; // text before this index is already in out, or unchanged if out is null
+		int i = 0;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (!isDigit(c) && c != ',' && c != '.') {
+				i++;
+				continue;
+			}
+
+			int end = i + 1;
+			boolean grouped = false;
+			while (end < length) {
+				char n = text.charAt(end);
+				if (isDigit(n) || n == '.') end++;
+				else if (n == ',') {
+					end++;
+					grouped = true;
+				}
+				else break;
+			}
+
+			String suffix = null;
+			int suffixEnd = end;
+			if (isDigit(text.charAt(end - 1))) {
+				int s = end;
+				if (s < length && isWhitespace(text.charAt(s))) s++;
+				if (s < length && (s + 1 == length || !isWordChar(text.charAt(s + 1)))) {
+					suffix = suffix(text.charAt(s));
+					suffixEnd = s + 1;
+				}
+			}
+
+			if (grouped || suffix != null) {
+				if (out == null) out = begin(output, length + 16);
+				out.append(text, copied, i);
+				if (grouped) regroup(text, i, end, out);
+				else out.append(text, i, end);
+				if (suffix != null) out.append(' ').append(suffix);
+				else suffixEnd = end;
+				copied = suffixEnd;
+				i = suffixEnd;
+			}
+			else {
+				i = end;
+			}
+		}
+
+		if (out == null) return text;
+		return out.append(text, copied, length).toString();
+	}
+
+	// digit grouping of game messages: \d{1,3}(,\d{3})+ loses its commas
+	private static int ungroup(StringBuilder out, int run) {
+		final int end = out.length();
+		StringBuilder tmp = begin(scratch, end - run);
+		boolean changed = false;
+
+		int i = run;
+		while (i < end) {
+			int digits = digits(out, i, end);
+			int j = i + digits;
+			if (digits >= 1 && digits <= 3) {
+				int groups = 0;
+				while (j + 3 < end && out.charAt(j) == ',' && digits(out, j + 1, j + 4) == 3) {
+					j += 4;
+					groups++;
+				}
+				if (groups > 0) {
+					for (int k = i; k < j; k++) {
+						char c = out.charAt(k);
+						if (c != ',') tmp.append(c);
+					}
+					changed = true;
+					i = j;
+					continue;
+				}
+			}
+			tmp.append(out.charAt(i++));
+		}
+
+		if (changed) {
+			out.setLength(run);
+			out.append(tmp);
+		}
+		return -1;
+	}
+
+	// digit grouping of chat, two rounds matching the regular expressions this replaced:
+	// (\d{1,3}),(\d{3}) then (\d),(\d{3})(\.\d+)?, left to right without overlap
+	private static void regroup(String text, int start, int end, StringBuilder out) {
+		StringBuilder first = begin(scratch, end - start);
+		int i = start;
+		while (i < end) {
+			int digits = digits(text, i, end);
+			if (digits >= 1 && digits <= 3 && i + digits + 3 < end
+				&& text.charAt(i + digits) == ',' && digits(text, i + digits + 1, i + digits + 4) == 3) {
+				first.append(text, i, i + digits).append(text, i + digits + 1, i + digits + 4);
+				i += digits + 4;
+			}
+			else {
+				first.append(text.charAt(i++));
+			}
+		}
+
+		final int length = first.length();
+		i = 0;
+		while (i < length) {
+			if (i + 4 < length && isDigit(first.charAt(i)) && first.charAt(i + 1) == ','
+				&& digits(first, i + 2, i + 5) == 3) {
+				out.append(first.charAt(i)).append(first, i + 2, i + 5);
+				i += 5;
+				if (i + 1 < length && first.charAt(i) == '.' && isDigit(first.charAt(i + 1))) {
+					int decimals = i + 1 + digits(first, i + 1, length);
+					out.append(first, i, decimals);
+					i = decimals;
+				}
+			}
+			else {
+				out.append(first.charAt(i++));
+			}
+		}
+	}
+
+	private static String suffix(char c) {
+		switch (c) {
+			case 'k':
+			case 'K':
+				return "thousand";
+			case 'm':
+			case 'M':
+				return "million";
+			case 'b':
+			case 'B':
+				return "billion";
+			case 't':
+			case 'T':
+				return "trillion";
+			default:
+				return null;
+		}
+	}
+
+	private static boolean isEntity(String text, int open, int close) {
+		return close - open == 3
+			&& (text.startsWith("<lt>", open) || text.startsWith("<gt>", open));
+	}
+
+	// consecutive digits from start, up to end
+	private static int digits(CharSequence text, int start, int end) {
+		int i = start;
+		while (i < end && isDigit(text.charAt(i))) i++;
+		return i - start;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	// regex \s
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	// regex \b as of Java 11 and 17, which counts any unicode letter or digit
+	private static boolean isWordChar(char c) {
+		return c == '_' || Character.isLetterOrDigit(c);
+	}
+
+	private static StringBuilder begin(ThreadLocal<StringBuilder> local, int capacity) {
+		StringBuilder builder = local.get();
+		builder.setLength(0);
+		builder.ensureCapacity(capacity);
+		return builder;
+	}
+}
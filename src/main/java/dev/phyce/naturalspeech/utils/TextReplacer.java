@@ -0,0 +1,202 @@
+package dev.phyce.naturalspeech.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.NonNull;
+
+/**
+ * Case-insensitive whole-word find-and-replace of many matches at once, using an Aho-Corasick automaton.
+ * <p>
+ * Matches may contain spaces, for example "multiple words"="OKResult". Word boundaries:
+ * <ol>
+ * <li>a match must start the text or be preceded by a space</li>
+ * <li>a match must end the text or be followed by one of {@code ' ' ',' '!' '.' '?'}</li>
+ * </ol>
+ * Text is replaced in a single left-to-right pass, replaced text isn't matched again.
+ * Where several matches start at the same position, the one added first wins.
+ */
+public final class TextReplacer {
+
+	public static final TextReplacer EMPTY = builder().build();
+
+	private static final String VALID_MATCH_TAILS = " ,!.?";
+
+	// per state, transitions sorted by char
+	private final char[][] keys;
+	private final int[][] targets;
+	private final int[] fail;
+	// the highest priority match ending at the state, -1 if none
+	private final int[] match;
+	// the next state along the fail links with a match, -1 if none
+	private final int[] output;
+
+	private final int[] lengths;
+	private final String[] replacements;
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private final List<String> matches = new ArrayList<>();
+		private final List<String> replacements = new ArrayList<>();
+
+		private Builder() {}
+
+		public Builder add(@NonNull String match, @NonNull String replacement) {
+			if (!match.isEmpty()) {
+				matches.add(match);
+				replacements.add(replacement);
+			}
+			return this;
+		}
+
+		public TextReplacer build() {
+			return new TextReplacer(matches, replacements);
+		}
+	}
+
+	private TextReplacer(List<String> matches, List<String> replacementList) {
+		List<Map<Character, Integer>> trie = new ArrayList<>();
+		List<Integer> matchList = new ArrayList<>();
+		trie.add(new TreeMap<>());
+		matchList.add(-1);
+
+		lengths = new int[matches.size()];
+		replacements = replacementList.toArray(new String[0]);
+
+		for (int id = 0; id < matches.size(); id++) {
+			String pattern = matches.get(id);
+			lengths[id] = pattern.length();
+
+			int state = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = Character.toLowerCase(pattern.charAt(i));
+				Integer next = trie.get(state).get(c);
+				if (next == null) {
+					next = trie.size();
+					trie.add(new TreeMap<>());
+					matchList.add(-1);
+					trie.get(state).put(c, next);
+				}
+				state = next;
+			}
+			// duplicates keep the first
+			if (matchList.get(state) == -1) matchList.set(state, id);
+		}
+
+		int states = trie.size();
+		keys = new char[states][];
+		targets = new int[states][];
+		fail = new int[states];
+		match = new int[states];
+		output = new int[states];
+		for (int state = 0; state < states; state++) {
+			Map<Character, Integer> edges = trie.get(state);
+			keys[state] = new char[edges.size()];
+			targets[state] = new int[edges.size()];
+			int i = 0;
+			for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+				keys[state][i] = edge.getKey();
+				targets[state][i] = edge.getValue();
+				i++;
+			}
+			match[state] = matchList.get(state);
+			output[state] = -1;
+		}
+
+		// breadth first, so fail links point to already linked states
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int child : targets[0]) {
+			fail[child] = 0;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			for (int i = 0; i < keys[state].length; i++) {
+				char c = keys[state][i];
+				int child = targets[state][i];
+
+				int link = fail[state];
+				while (link != 0 && next(link, c) == -1) link = fail[link];
+				int target = next(link, c);
+				fail[child] = target == -1 ? 0 : target;
+
+				output[child] = match[fail[child]] != -1 ? fail[child] : output[fail[child]];
+				queue.add(child);
+			}
+		}
+	}
+
+	public boolean isEmpty() {
+		return lengths.length == 0;
+	}
+
+	@NonNull
+	public String apply(@NonNull String text) {
+		if (isEmpty() || text.isEmpty()) return text;
+
+		int length = text.length();
+		// best match starting at each position, -1 if none
+		int[] starts = null;
+
+		int state = 0;
+		for (int end = 0; end < length; end++) {
+			char c = Character.toLowerCase(text.charAt(end));
+			int next;
+			while ((next = next(state, c)) == -1 && state != 0) state = fail[state];
+			state = next == -1 ? 0 : next;
+
+			// rule 2, checked once for every match ending here
+			int tail = end + 1;
+			if (tail != length && VALID_MATCH_TAILS.indexOf(text.charAt(tail)) == -1) continue;
+
+			for (int found = match[state] != -1 ? state : output[state]; found != -1; found = output[found]) {
+				int id = match[found];
+				int head = tail - lengths[id];
+				// rule 1
+				if (head != 0 && text.charAt(head - 1) != ' ') continue;
+
+				if (starts == null) {
+					starts = new int[length];
+					Arrays.fill(starts, -1);
+				}
+				if (starts[head] == -1 || id < starts[head]) starts[head] = id;
+			}
+		}
+
+		if (starts == null) return text;
+
+		StringBuilder result = new StringBuilder(length);
+		int i = 0;
+		while (i < length) {
+			int id = starts[i];
+			if (id != -1) {
+				result.append(replacements[id]);
+				i += lengths[id];
+			}
+			else {
+				result.append(text.charAt(i++));
+			}
+		}
+		return result.toString();
+	}
+
+	private int next(int state, char c) {
+		char[] stateKeys = keys[state];
+		int low = 0;
+		int high = stateKeys.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char key = stateKeys[mid];
+			if (key < c) low = mid + 1;
+			else if (key > c) high = mid - 1;
+			else return targets[state][mid];
+		}
+		return -1;
+	}
+}
@@ -1,7 +1,9 @@
 package dev.phyce.naturalspeech.utils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -13,6 +15,15 @@ public final class TextUtil {
 	private static final Pattern patternTargetWithLevel = Pattern.compile("(.+) {2}\\(level-\\d+\\)");
 	private static final Pattern patternAnyAlphaNumericChar = Pattern.compile(".*[A-Za-z0-9À-ÖØ-öø-ÿ].*");
 
+	// segmentForLatency tuning, see SegmenterBenchmark in playground
+	private static final int FIRST_SEGMENT_MAX_LENGTH = 40;
+	private static final int MIN_CUT_LENGTH = 12;
+	private static final int SEGMENT_MIN_LENGTH = 60;
+	private static final int SEGMENT_GROWTH = 2;
+	// a period after these doesn't end a sentence
+	private static final Set<String> ABBREVIATIONS = Set.of(
+		"mr", "mrs", "ms", "dr", "st", "sr", "jr", "mt", "lt", "sgt", "capt", "vs", "e.g", "i.e");
+
 	public static List<String> splitSentence(String text) {
 		// https://www.baeldung.com/java-split-string-keep-delimiters
 		// This regex splits: "Hello, NaturalSpeech?" Into ["Hello,", "NaturalSpeech?"]
@@ -23,19 +34,134 @@ public final class TextUtil {
 			.collect(Collectors.toList());
 	}
 
-	public static String sentenceSegmentPrettyPrint(List<String> segments) {
-		return segments.stream().map(s -> "[" + s + "]").reduce("", (a, b) -> a + b);
+	/**
+	 * Splits text for streaming synthesis, ordered for time-to-first-audio.
+	 * <p>
+	 * The first segment is the leading clause(s), at most ~{@value FIRST_SEGMENT_MAX_LENGTH} characters,
+	 * so playback can start as soon as possible. Every later segment is at least twice as long as the previous one
+	 * and ends on a sentence boundary when one is in reach (falling back to a clause boundary),
+	 * but is capped so the remaining text still spreads over {@code workers} processes.
+	 * Later segments are synthesized while earlier ones play, so longer segments there only improve prosody.
+	 */
+	public static List<String> segmentForLatency(String text, int workers) {
+		text = text.trim();
+		if (text.length() <= FIRST_SEGMENT_MAX_LENGTH) return List.of(text);
+
+		workers = Math.max(1, workers);
+		final int length = text.length();
+
+		// boundaries are exclusive end indexes, the text end is always a sentence boundary
+		List<Integer> boundaries = new ArrayList<>();
+		List<Boolean> sentenceEnds = new ArrayList<>();
+		boolean sentenceEnd = false;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (!isClausePunctuation(c)) continue;
+
+			sentenceEnd |= c == '.' || c == '!' || c == '?';
+			// keep runs like "?!" and "..." together
+			if (i + 1 < length && isClausePunctuation(text.charAt(i + 1))) continue;
+			// decimals and times, 1.5 or 12:30
+			if (i > 0 && i + 1 < length && Character.isDigit(text.charAt(i - 1)) && Character.isDigit(text.charAt(i + 1))) {
+				sentenceEnd = false;
+				continue;
+			}
+			// abbreviations and dotted words, Mr. Smith or runelite.net
+			if (c == '.' && (i + 1 < length && Character.isLetter(text.charAt(i + 1)) || isAbbreviation(text, i))) {
+				sentenceEnd = false;
+				continue;
+			}
+
+			boundaries.add(i + 1);
+			sentenceEnds.add(sentenceEnd);
+			sentenceEnd = false;
+		}
+		if (boundaries.isEmpty() || boundaries.get(boundaries.size() - 1) != length) {
+			boundaries.add(length);
+			sentenceEnds.add(true);
+		}
+
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		int next = 0; // first boundary index past start
+
+		// first segment: as many leading clauses as fit, or a whitespace cut of the first clause
+		int end = boundaries.get(next);
+		while (next + 1 < boundaries.size() && boundaries.get(next + 1) <= FIRST_SEGMENT_MAX_LENGTH) {
+			end = boundaries.get(++next);
+		}
+		if (end > FIRST_SEGMENT_MAX_LENGTH) {
+			int cut = text.lastIndexOf(' ', FIRST_SEGMENT_MAX_LENGTH);
+			if (cut >= MIN_CUT_LENGTH && length - cut >= MIN_CUT_LENGTH) end = cut;
+		}
+
+		int previous = end;
+		while (true) {
+			String segment = text.substring(start, end).trim();
+			if (!segment.isEmpty()) segments.add(segment);
+			start = end;
+			if (start >= length) break;
+
+			while (boundaries.get(next) <= start) next++;
+
+			int remaining = length - start;
+			int target = Math.max(SEGMENT_MIN_LENGTH, previous * SEGMENT_GROWTH);
+			target = Math.min(target, Math.max(SEGMENT_MIN_LENGTH, (remaining + workers - 1) / workers));
+			int limit = start + target * 2;
+
+			int lastSentence = -1;
+			int lastClause = -1;
+			end = -1;
+			for (int i = next; i < boundaries.size(); i++) {
+				int boundary = boundaries.get(i);
+				if (boundary > limit) {
+					if (lastSentence != -1) end = lastSentence;
+					else if (lastClause != -1) end = lastClause;
+					else end = boundary;
+					break;
+				}
+				lastClause = boundary;
+				if (sentenceEnds.get(i)) {
+					lastSentence = boundary;
+					if (boundary - start >= target) {
+						end = boundary;
+						break;
+					}
+				}
+			}
+			// the text end is a sentence boundary, so the loop always settles
+			if (end == -1) end = length;
+			// don't leave a tiny tail behind
+			if (length - end < MIN_CUT_LENGTH) end = length;
+
+			previous = end - start;
+		}
+
+		return segments;
 	}
 
-	public static String renderLargeNumbers(String text) {
-		text = text.replaceAll("(?i)(\\d{1,3})(,)(\\d{3})", "$1$3");
-		text = text.replaceAll("(?i)(\\d)(,)(\\d{3})(\\.\\d+)?", "$1$3$4");
+	private static boolean isAbbreviation(String text, int period) {
+		int start = period;
+		while (start > 0 && !Character.isWhitespace(text.charAt(start - 1))) start--;
+		return ABBREVIATIONS.contains(text.substring(start, period).toLowerCase());
+	}
+
+	private static boolean isClausePunctuation(char c) {
+		switch (c) {
+			case '.':
+			case ',':
+			case '!':
+			case '?':
+			case ':':
+			case ';':
+				return true;
+			default:
+				return false;
+		}
+	}
 
-		text = text.replaceAll("(?i)(\\d+)\\s?k\\b", "$1 thousand");
-		text = text.replaceAll("(?i)(\\d+)\\s?m\\b", "$1 million");
-		text = text.replaceAll("(?i)(\\d+)\\s?b\\b", "$1 billion");
-		text = text.replaceAll("(?i)(\\d+)\\s?t\\b", "$1 trillion");
-		return text;
+	public static String sentenceSegmentPrettyPrint(List<String> segments) {
+		return segments.stream().map(s -> "[" + s + "]").reduce("", (a, b) -> a + b);
 	}
 
 	public static boolean containAlphaNumeric(String text) {
@@ -0,0 +1,130 @@
+package dev.phyce.naturalspeech.audio;
+
+import org.junit.Test;
+
+public class TestImaAdpcm {
+
+	private static byte[] pcm(short... samples) {
+		byte[] pcm = new byte[samples.length * 2];
+		for (int i = 0; i < samples.length; i++) {
+			pcm[i * 2] = (byte) samples[i];
+			pcm[i * 2 + 1] = (byte) (samples[i] >> 8);
+		}
+		return pcm;
+	}
+
+	private static short[] samples(byte[] pcm) {
+		short[] samples = new short[pcm.length / 2];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (short) ((pcm[i * 2] & 0xFF) | (pcm[i * 2 + 1] << 8));
+		}
+		return samples;
+	}
+
+	private static short[] roundTrip(short[] samples) {
+		return samples(ImaAdpcm.encode(pcm(samples)).decode());
+	}
+
+	private static short[] sine(int count, double amplitude, double period) {
+		short[] samples = new short[count];
+		for (int i = 0; i < count; i++) samples[i] = (short) (amplitude * Math.sin(2 * Math.PI * i / period));
+		return samples;
+	}
+
+	@Test
+	public void testReferenceSteps() {
+		// worked by hand from the IMA step and index tables, starting at step 7
+		short[] decoded = roundTrip(new short[] {0, 100, 100, 100});
+		assert decoded[0] == 0;
+		assert decoded[1] == 11 : decoded[1];
+		assert decoded[2] == 41 : decoded[2];
+		assert decoded[3] == 104 : decoded[3];
+	}
+
+	@Test
+	public void testSineErrorBound() {
+		short[] samples = sine(ImaAdpcm.BLOCK_SAMPLES * 20, 10_000, 50);
+		short[] decoded = roundTrip(samples);
+		assert decoded.length == samples.length;
+
+		double signal = 0;
+		double noise = 0;
+		// skip the first block while the step size adapts
+		for (int i = ImaAdpcm.BLOCK_SAMPLES; i < samples.length; i++) {
+			double error = decoded[i] - samples[i];
+			signal += (double) samples[i] * samples[i];
+			noise += error * error;
+			assert Math.abs(error) < 2_000 : i + ": " + error;
+		}
+		double snr = 10 * Math.log10(signal / noise);
+		assert snr > 20 : snr;
+	}
+
+	@Test
+	public void testBlockFirstSamplesExact() {
+		short[] samples = sine(ImaAdpcm.BLOCK_SAMPLES * 5, 20_000, 37);
+		short[] decoded = roundTrip(samples);
+		for (int block = 0; block < 5; block++) {
+			int first = block * ImaAdpcm.BLOCK_SAMPLES;
+			assert decoded[first] == samples[first] : block;
+		}
+	}
+
+	@Test
+	public void testLengths() {
+		// odd sample counts end on a low nibble, and blocks end partially filled
+		int[] counts = {1, 2, 3, ImaAdpcm.BLOCK_SAMPLES - 1, ImaAdpcm.BLOCK_SAMPLES, ImaAdpcm.BLOCK_SAMPLES + 1,
+			ImaAdpcm.BLOCK_SAMPLES * 3 + 2};
+		for (int count : counts) {
+			short[] samples = sine(count, 5_000, 20);
+			ImaAdpcm.Encoded encoded = ImaAdpcm.encode(pcm(samples));
+			assert encoded.getSamples() == count;
+			assert encoded.blocks() == (count + ImaAdpcm.BLOCK_SAMPLES - 1) / ImaAdpcm.BLOCK_SAMPLES;
+			assert encoded.size() == encoded.blocks() * ImaAdpcm.BLOCK_BYTES;
+			assert encoded.decode().length == count * 2 : count;
+			assert encoded.pcmLength() == count * 2;
+		}
+
+		assert ImaAdpcm.encode(new byte[0]).decode().length == 0;
+		// a trailing half sample is dropped
+		assert ImaAdpcm.encode(new byte[7]).decode().length == 6;
+	}
+
+	@Test
+	public void testDecodeBlockMatchesDecode() {
+		short[] samples = sine(ImaAdpcm.BLOCK_SAMPLES * 2 + 100, 8_000, 41);
+		ImaAdpcm.Encoded encoded = ImaAdpcm.encode(pcm(samples));
+		byte[] all = encoded.decode();
+
+		byte[] block = new byte[ImaAdpcm.BLOCK_PCM_BYTES + 3];
+		int offset = 0;
+		for (int i = 0; i < encoded.blocks(); i++) {
+			int written = encoded.decodeBlock(i, block, 3);
+			for (int j = 0; j < written; j++) assert block[3 + j] == all[offset + j];
+			offset += written;
+		}
+		assert offset == all.length;
+	}
+
+	@Test
+	public void testFullScale() {
+		// square wave between the extremes drives the step index to its maximum and the predictor into the clamps
+		short[] samples = new short[ImaAdpcm.BLOCK_SAMPLES * 4];
+		for (int i = 0; i < samples.length; i++) samples[i] = (i / 100) % 2 == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+		short[] decoded = roundTrip(samples);
+
+		for (int i = 0; i < samples.length; i++) {
+			// settled on each plateau
+			if (i % 100 < 40) continue;
+			assert Math.abs(decoded[i] - samples[i]) < 500 : i + ": " + decoded[i];
+		}
+
+		short[] extremes = {Short.MIN_VALUE, Short.MAX_VALUE, Short.MIN_VALUE, Short.MAX_VALUE};
+		short[] decodedExtremes = roundTrip(extremes);
+		assert decodedExtremes[0] == Short.MIN_VALUE;
+		// no wrap around past the clamps, each step moves towards the target
+		for (int i = 1; i < extremes.length; i++) {
+			assert (decodedExtremes[i] > decodedExtremes[i - 1]) == (extremes[i] == Short.MAX_VALUE) : i;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package dev.phyce.naturalspeech.entity;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class TestZoneIndex {
+
+	@Test
+	public void testParse() {
+		ZoneIndex index = ZoneIndex.builder().addLines(
+			"Varrock bank: 3250,3416,3257,3423=mute\n"
+				+ "3099,3499,3090,3488 = 50%\n"
+				+ "upstairs: 3205,3208,3216,3227,1=25\n"
+				+ "\n"
+				+ "not a zone\n"
+				+ "1,2,3=mute\n"
+				+ "1,2,3,4=loud\n"
+				+ "1,2,3,4=150\n").build();
+		assert index.size() == 3;
+
+		assert index.gainAt(3250, 3423, 0) == ZoneIndex.MUTE;
+		assert index.gainAt(3258, 3423, 0) == 0;
+
+		// corners in any order, on every plane
+		assert Math.abs(index.gainAt(3095, 3490, 2) - (-6.02f)) < 0.01f;
+
+		assert index.gainAt(3210, 3210, 0) == 0;
+		assert Math.abs(index.gainAt(3210, 3210, 1) - (-12.04f)) < 0.01f;
+	}
+
+	@Test
+	public void testOverlapQuietestWins() {
+		ZoneIndex index = ZoneIndex.builder()
+			.add(3200, 3200, 3300, 3300, ZoneIndex.ANY_PLANE, -6)
+			.add(3250, 3250, 3260, 3260, ZoneIndex.ANY_PLANE, ZoneIndex.MUTE)
+			.add(3240, 3240, 3255, 3255, ZoneIndex.ANY_PLANE, -20)
+			.build();
+
+		assert index.gainAt(3210, 3210, 0) == -6;
+		assert index.gainAt(3245, 3245, 0) == -20;
+		assert index.gainAt(3252, 3252, 0) == ZoneIndex.MUTE;
+	}
+
+	@Test
+	public void testMatchesLinearScan() {
+		Random random = new Random(49);
+		int count = 500;
+		int[][] zones = new int[count][];
+		ZoneIndex.Builder builder = ZoneIndex.builder();
+		for (int i = 0; i < count; i++) {
+			int x = 2000 + random.nextInt(2000), y = 2500 + random.nextInt(1500);
+			// mostly small zones, a few spanning many regions
+			int size = random.nextInt(10) == 0 ? random.nextInt(1500) : random.nextInt(80);
+			int plane = random.nextInt(5) - 1;
+			zones[i] = new int[] {x, y, x + size, y + random.nextInt(size + 1), plane, -random.nextInt(60)};
+			builder.add(zones[i][2], zones[i][3], zones[i][0], zones[i][1], plane, zones[i][5]);
+		}
+		ZoneIndex index = builder.build();
+
+		for (int i = 0; i < 100_000; i++) {
+			int x = 1900 + random.nextInt(2300), y = 2400 + random.nextInt(1700), plane = random.nextInt(4);
+
+			float expected = 0;
+			for (int[] zone : zones) {
+				if (x < zone[0] || x > zone[2] || y < zone[1] || y > zone[3]) continue;
+				if (zone[4] != ZoneIndex.ANY_PLANE && zone[4] != plane) continue;
+				expected = Math.min(expected, zone[5]);
+			}
+			assert index.gainAt(x, y, plane) == expected : x + "," + y + "," + plane;
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		assert ZoneIndex.EMPTY.size() == 0;
+		assert ZoneIndex.EMPTY.gainAt(3165, 3490, 0) == 0;
+	}
+}
@@ -0,0 +1,76 @@
+package dev.phyce.naturalspeech.executor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TestChatWorker {
+
+	@Test
+	public void testInOrder() throws InterruptedException {
+		ChatWorker worker = new ChatWorker();
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(1);
+
+		for (int i = 0; i < 10; i++) {
+			int message = i;
+			worker.submit(ChatWorker.Handler.CHAT_MESSAGE, () -> ran.add(message));
+		}
+		worker.submit(ChatWorker.Handler.CHAT_MESSAGE, done::countDown);
+
+		assert done.await(5, TimeUnit.SECONDS);
+		assert ran.equals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)) : ran;
+		worker.shutDown();
+	}
+
+	@Test
+	public void testDropsOldestWhenFull() throws InterruptedException {
+		ChatWorker worker = new ChatWorker();
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+
+		worker.submit(ChatWorker.Handler.CHAT_MESSAGE, () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assert started.await(5, TimeUnit.SECONDS);
+
+		// the marker is queued last, so it survives
+		int overflow = 5;
+		for (int i = 0; i < ChatWorker.CAPACITY + overflow - 1; i++) {
+			int message = i;
+			worker.submit(ChatWorker.Handler.CHAT_MESSAGE, () -> ran.add(message));
+		}
+		worker.submit(ChatWorker.Handler.CHAT_MESSAGE, done::countDown);
+		release.countDown();
+
+		assert done.await(5, TimeUnit.SECONDS);
+		assert ran.size() == ChatWorker.CAPACITY - 1 : ran.size();
+		assert ran.get(0) == overflow;
+		assert worker.getStats().endsWith("dropped:" + overflow) : worker.getStats();
+		worker.shutDown();
+	}
+
+	@Test
+	public void testFailureDoesNotStopWorker() throws InterruptedException {
+		ChatWorker worker = new ChatWorker();
+		CountDownLatch done = new CountDownLatch(1);
+
+		worker.submit(ChatWorker.Handler.OVERHEAD_TEXT, () -> {
+			throw new IllegalStateException("expected");
+		});
+		worker.submit(ChatWorker.Handler.OVERHEAD_TEXT, done::countDown);
+
+		assert done.await(5, TimeUnit.SECONDS);
+		worker.shutDown();
+	}
+}
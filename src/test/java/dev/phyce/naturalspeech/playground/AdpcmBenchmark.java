@@ -0,0 +1,80 @@
+package dev.phyce.naturalspeech.playground;
+
+import dev.phyce.naturalspeech.audio.ImaAdpcm;
+import java.util.Random;
+
+/**
+ * Encode/decode throughput and quality of {@link ImaAdpcm} on 10 seconds of synthetic speech-band audio.
+ * Decode is measured the way DynamicLine plays it, block by block into a reused buffer.
+ */
+public class AdpcmBenchmark {
+
+	private static final int SAMPLE_RATE = 22050;
+	private static final int SECONDS = 10;
+	private static final int WARMUP = 50;
+	private static final int ITERATIONS = 200;
+
+	public static void main(String[] args) {
+		byte[] pcm = syntheticSpeech();
+		ImaAdpcm.Encoded encoded = ImaAdpcm.encode(pcm);
+
+		byte[] buffer = new byte[ImaAdpcm.BLOCK_PCM_BYTES];
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += ImaAdpcm.encode(pcm).size();
+			sink += decodeBlocks(encoded, buffer);
+		}
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += ImaAdpcm.encode(pcm).size();
+		double encodeMs = (System.nanoTime() - begin) / 1e6 / ITERATIONS;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += decodeBlocks(encoded, buffer);
+		double decodeMs = (System.nanoTime() - begin) / 1e6 / ITERATIONS;
+
+		System.out.printf("%ds of audio: pcm %d bytes, adpcm %d bytes (%.1f%%), SNR %.1fdB%n",
+			SECONDS, pcm.length, encoded.size(), 100.0 * encoded.size() / pcm.length, snr(pcm, encoded.decode()));
+		System.out.printf("encode %.3fms, decode %.3fms (%.0fx realtime) sink:%d%n",
+			encodeMs, decodeMs, SECONDS * 1000 / decodeMs, sink);
+	}
+
+	private static long decodeBlocks(ImaAdpcm.Encoded encoded, byte[] buffer) {
+		long written = 0;
+		for (int block = 0; block < encoded.blocks(); block++) {
+			written += encoded.decodeBlock(block, buffer, 0);
+		}
+		return written + buffer[0];
+	}
+
+	// a few harmonics with wandering pitch and noise, roughly the spectrum of voiced speech
+	private static byte[] syntheticSpeech() {
+		Random random = new Random(0);
+		int samples = SAMPLE_RATE * SECONDS;
+		byte[] pcm = new byte[samples * 2];
+		double phase = 0;
+		for (int i = 0; i < samples; i++) {
+			double pitch = 140 + 40 * Math.sin(i * 2 * Math.PI / SAMPLE_RATE * 0.7);
+			phase += 2 * Math.PI * pitch / SAMPLE_RATE;
+			double envelope = 0.5 + 0.5 * Math.sin(i * 2 * Math.PI / SAMPLE_RATE * 3);
+			double value = envelope * (6000 * Math.sin(phase) + 3000 * Math.sin(2 * phase) + 1500 * Math.sin(3 * phase))
+				+ random.nextGaussian() * 200;
+			int sample = (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+			pcm[i * 2] = (byte) sample;
+			pcm[i * 2 + 1] = (byte) (sample >> 8);
+		}
+		return pcm;
+	}
+
+	private static double snr(byte[] reference, byte[] decoded) {
+		double signal = 0;
+		double noise = 0;
+		for (int i = 0; i < reference.length / 2; i++) {
+			int a = (short) ((reference[i * 2] & 0xFF) | (reference[i * 2 + 1] << 8));
+			int b = (short) ((decoded[i * 2] & 0xFF) | (decoded[i * 2 + 1] << 8));
+			signal += (double) a * a;
+			noise += (double) (a - b) * (a - b);
+		}
+		return 10 * Math.log10(signal / noise);
+	}
+}
@@ -0,0 +1,120 @@
+package dev.phyce.naturalspeech.playground;
+
+import dev.phyce.naturalspeech.utils.TextNormalizer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chat lines per second through number rendering and game message markup stripping,
+ * the previous chain of regular expressions against {@link TextNormalizer}.
+ */
+public class NormalizerBenchmark {
+
+	private static final Pattern TAG = Pattern.compile("<[^>]*>");
+	private static final int LINES = 10_000;
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 20;
+
+	public static void main(String[] args) {
+		String[] lines = lines();
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			for (String line : lines) {
+				sink += legacyNumbers(line).length() + TextNormalizer.renderNumbers(line).length();
+				sink += legacyMarkup(line).length() + TextNormalizer.normalizeMarkup(line, true, false).length();
+			}
+		}
+
+		for (String line : lines) {
+			if (!legacyNumbers(line).equals(TextNormalizer.renderNumbers(line))
+				|| !legacyMarkup(line).equals(TextNormalizer.normalizeMarkup(line, true, false))) {
+				throw new AssertionError(line);
+			}
+		}
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) for (String line : lines) sink += legacyNumbers(line).length();
+		double legacyNumbers = linesPerSecond(begin);
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) for (String line : lines) sink += TextNormalizer.renderNumbers(line).length();
+		double numbers = linesPerSecond(begin);
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) for (String line : lines) sink += legacyMarkup(line).length();
+		double legacyMarkup = linesPerSecond(begin);
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String line : lines) sink += TextNormalizer.normalizeMarkup(line, true, false).length();
+		}
+		double markup = linesPerSecond(begin);
+
+		System.out.printf("numbers, lines/s: regex %.0f, normalizer %.0f (%.1fx)%n",
+			legacyNumbers, numbers, numbers / legacyNumbers);
+		System.out.printf("markup, lines/s: regex %.0f, normalizer %.0f (%.1fx)%n",
+			legacyMarkup, markup, markup / legacyMarkup);
+		System.out.println("sink:" + sink);
+	}
+
+	private static double linesPerSecond(long begin) {
+		return (double) ITERATIONS * LINES / ((System.nanoTime() - begin) / 1e9);
+	}
+
+	// chat and game message lines around 60 characters, with prices, tags and suffixes mixed in
+	private static String[] lines() {
+		Random random = new Random(0);
+		String[] words = {"selling", "lobsters", "at", "the", "bank", "for", "<col=ff9040>", "</col>", "each", "gp"};
+		String[] lines = new String[LINES];
+		for (int i = 0; i < LINES; i++) {
+			StringBuilder line = new StringBuilder();
+			while (line.length() < 60) {
+				if (line.length() > 0) line.append(' ');
+				switch (random.nextInt(6)) {
+					case 0:
+						line.append(String.format(Locale.ROOT, "%,d", random.nextInt(10_000_000)));
+						break;
+					case 1:
+						line.append(random.nextInt(999)).append("kmbt".charAt(random.nextInt(4)));
+						break;
+					default:
+						line.append(words[random.nextInt(words.length)]);
+				}
+			}
+			lines[i] = line.toString();
+		}
+		return lines;
+	}
+
+	private static String legacyNumbers(String text) {
+		text = text.replaceAll("(?i)(\\d{1,3})(,)(\\d{3})", "$1$3");
+		text = text.replaceAll("(?i)(\\d)(,)(\\d{3})(\\.\\d+)?", "$1$3$4");
+
+		text = text.replaceAll("(?i)(\\d+)\\s?k\\b", "$1 thousand");
+		text = text.replaceAll("(?i)(\\d+)\\s?m\\b", "$1 million");
+		text = text.replaceAll("(?i)(\\d+)\\s?b\\b", "$1 billion");
+		text = text.replaceAll("(?i)(\\d+)\\s?t\\b", "$1 trillion");
+		return text;
+	}
+
+	// Text.removeFormattingTags followed by the removed ChatHelper.removeNumericCommas
+	private static String legacyMarkup(String text) {
+		StringBuffer stripped = new StringBuffer();
+		Matcher tags = TAG.matcher(text);
+		while (tags.find()) {
+			tags.appendReplacement(stripped, "");
+			String tag = tags.group(0);
+			if (tag.equals("<lt>") || tag.equals("<gt>")) stripped.append(tag);
+		}
+		tags.appendTail(stripped);
+
+		Matcher matcher = Pattern.compile("\\d{1,3}(,\\d{3})+").matcher(stripped);
+		StringBuilder result = new StringBuilder();
+		while (matcher.find()) matcher.appendReplacement(result, matcher.group().replace(",", ""));
+		matcher.appendTail(result);
+		return result.toString();
+	}
+}
@@ -2,7 +2,7 @@ package dev.phyce.naturalspeech.playground;
 
 public class OtherTest {
 
-	private static final String[] exampleSentences = new String[] {
+	static final String[] exampleSentences = new String[] {
 		"Hello",
 		"Hello, World.",
 		"Hello Hello Hello Hello Hello Hello Hello Hello Hello Hello, world.",
@@ -0,0 +1,100 @@
+package dev.phyce.naturalspeech.playground;
+
+import dev.phyce.naturalspeech.utils.TextReplacer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Applying 10, 100 and 1000 replacement rules to a chat line,
+ * the previous per-rule find-and-replace against {@link TextReplacer}'s single pass.
+ */
+public class ReplacementBenchmark {
+
+	private static final List<Character> VALID_MATCH_TAILS = List.of(' ', ',', '!', '.', '?');
+	private static final int[] RULES = {10, 100, 1000};
+	private static final int LINES = 1000;
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 20;
+
+	public static void main(String[] args) {
+		for (int ruleCount : RULES) {
+			List<String[]> rules = new ArrayList<>();
+			TextReplacer.Builder builder = TextReplacer.builder();
+			for (int i = 0; i < ruleCount; i++) {
+				String[] rule = {"abr" + i, "abbreviation number " + i};
+				rules.add(rule);
+				builder.add(rule[0], rule[1]);
+			}
+			TextReplacer replacer = builder.build();
+			String[] lines = lines(ruleCount);
+
+			long sink = 0;
+			for (int i = 0; i < WARMUP; i++) {
+				for (String line : lines) sink += legacy(line, rules).length() + replacer.apply(line).length();
+			}
+
+			long begin = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) for (String line : lines) sink += legacy(line, rules).length();
+			double legacyUs = (System.nanoTime() - begin) / 1e3 / ITERATIONS / LINES;
+
+			begin = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) for (String line : lines) sink += replacer.apply(line).length();
+			double automatonUs = (System.nanoTime() - begin) / 1e3 / ITERATIONS / LINES;
+
+			System.out.printf("%4d rules, us per line: per-rule %.2f, automaton %.2f (%.0fx) sink:%d%n",
+				ruleCount, legacyUs, automatonUs, legacyUs / automatonUs, sink);
+		}
+	}
+
+	// chat lines around 60 characters, about one in five words an abbreviation
+	private static String[] lines(int ruleCount) {
+		Random random = new Random(0);
+		String[] words = {"selling", "lobsters", "at", "the", "bank", "anyone", "want", "to", "duo", "zulrah"};
+		String[] lines = new String[LINES];
+		for (int i = 0; i < LINES; i++) {
+			StringBuilder line = new StringBuilder();
+			while (line.length() < 60) {
+				if (line.length() > 0) line.append(' ');
+				if (random.nextInt(5) == 0) line.append("ABR").append(random.nextInt(ruleCount));
+				else line.append(words[random.nextInt(words.length)]);
+			}
+			lines[i] = line.toString();
+		}
+		return lines;
+	}
+
+	// ChatHelper.renderReplacements before the automaton
+	private static String legacy(String text, List<String[]> replacements) {
+		for (String[] entry : replacements) {
+			StringBuilder result = new StringBuilder();
+
+			int prev = 0;
+			int head = text.toLowerCase().indexOf(entry[0].toLowerCase());
+
+			while (head != -1) {
+				result.append(text, prev, head);
+
+				int tail = head + entry[0].length();
+				if ((head == 0 || text.charAt(head - 1) == ' ') &&
+					(tail == text.length() || VALID_MATCH_TAILS.contains(text.charAt(tail)))
+				) {
+					result.append(entry[1]);
+				}
+				else {
+					result.append(entry[0]);
+				}
+
+				prev = tail;
+				head = text.indexOf(entry[0], prev);
+			}
+
+			if (prev < text.length()) {
+				result.append(text, prev, text.length());
+			}
+			text = result.toString();
+		}
+
+		return text.trim();
+	}
+}
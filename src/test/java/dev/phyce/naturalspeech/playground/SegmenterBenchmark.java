@@ -0,0 +1,108 @@
+package dev.phyce.naturalspeech.playground;
+
+import dev.phyce.naturalspeech.texttospeech.engine.piper.PiperProcess;
+import dev.phyce.naturalspeech.utils.TextUtil;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Time-to-first-audio vs total synthesis time for the segmenting strategies, over the OtherTest dialog samples.
+ * <p>
+ * By default synthesis cost is modelled (fixed per-request overhead + per-character cost).
+ * Pass -Dpiper.path=... -Dpiper.model=... to measure against a real Piper process instead.
+ * Segments are scheduled over {@code -Dworkers} processes (default 2) in submission order,
+ * playback is assumed to run at {@link #PLAYBACK_MS_PER_CHAR}.
+ */
+public class SegmenterBenchmark {
+
+	private static final long OVERHEAD_MS = 60;
+	private static final double SYNTH_MS_PER_CHAR = 4.0;
+	private static final double PLAYBACK_MS_PER_CHAR = 65.0;
+
+	public static void main(String[] args) throws IOException {
+		int workers = Integer.getInteger("workers", 2);
+
+		ToLongFunction<String> cost = modelledCost();
+		String piperPath = System.getProperty("piper.path");
+		String piperModel = System.getProperty("piper.model");
+		if (piperPath != null && piperModel != null) {
+			PiperProcess process = PiperProcess.start(Path.of(piperPath), Path.of(piperModel)).unwrap();
+			cost = (segment) -> {
+				long begin = System.nanoTime();
+				try {
+					process.generate(0, segment);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+				return (System.nanoTime() - begin) / 1_000_000;
+			};
+		}
+
+		Stats legacy = new Stats();
+		Stats latency = new Stats();
+		for (String sentence : OtherTest.exampleSentences) {
+			List<String> legacySegments = sentence.length() > 50 ? TextUtil.splitSentence(sentence) : List.of(sentence);
+			List<String> latencySegments = TextUtil.segmentForLatency(sentence, workers);
+
+			legacy.add(simulate(legacySegments, workers, cost));
+			latency.add(simulate(latencySegments, workers, cost));
+
+			System.out.println(TextUtil.sentenceSegmentPrettyPrint(latencySegments));
+		}
+
+		System.out.printf("%nworkers=%d%n", workers);
+		System.out.printf("legacy : %s%n", legacy);
+		System.out.printf("latency: %s%n", latency);
+	}
+
+	private static ToLongFunction<String> modelledCost() {
+		return (segment) -> OVERHEAD_MS + (long) (segment.length() * SYNTH_MS_PER_CHAR);
+	}
+
+	// returns {timeToFirstAudio, totalSynthesis, playbackStall, segmentCount}
+	private static long[] simulate(List<String> segments, int workers, ToLongFunction<String> cost) {
+		long[] free = new long[workers];
+		long[] done = new long[segments.size()];
+		for (int i = 0; i < segments.size(); i++) {
+			int worker = 0;
+			for (int w = 1; w < workers; w++) if (free[w] < free[worker]) worker = w;
+			free[worker] += cost.applyAsLong(segments.get(i));
+			done[i] = free[worker];
+		}
+
+		long stall = 0;
+		long clock = done[0];
+		for (int i = 0; i < segments.size(); i++) {
+			if (done[i] > clock) {
+				stall += done[i] - clock;
+				clock = done[i];
+			}
+			clock += (long) (segments.get(i).length() * PLAYBACK_MS_PER_CHAR);
+		}
+
+		long total = 0;
+		for (long t : done) total = Math.max(total, t);
+		return new long[] {done[0], total, stall, segments.size()};
+	}
+
+	private static class Stats {
+		private final List<long[]> runs = new ArrayList<>();
+
+		void add(long[] run) {
+			runs.add(run);
+		}
+
+		private double mean(int index) {
+			return runs.stream().mapToLong(run -> run[index]).average().orElse(0);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("first-audio %.1fms, total %.1fms, stall %.1fms, segments %.2f (mean of %d)",
+				mean(0), mean(1), mean(2), mean(3), runs.size());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package dev.phyce.naturalspeech.playground;
+
+import dev.phyce.naturalspeech.spamdetection.SpamModel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Messages per second through Spam Filter's boxed map scoring against the compiled {@link SpamModel},
+ * scoring every line of the built-in good and bad corpora.
+ */
+public class SpamModelBenchmark {
+
+	private static final String CORPUS_PATH = "/dev/phyce/naturalspeech/spamdetection/";
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 20;
+	private static final int THRESHOLD = 90;
+
+	public static void main(String[] args) throws IOException {
+		List<String> good = corpus("spamfilter_good_corpus.txt");
+		List<String> bad = corpus("spamfilter_bad_corpus.txt");
+		Map<String, Integer> goodCounts = counts(good);
+		Map<String, Integer> badCounts = counts(bad);
+		SpamModel model = SpamModel.of(goodCounts, badCounts);
+
+		run("good corpus", good, model, goodCounts, badCounts);
+		run("bad corpus", bad, model, goodCounts, badCounts);
+	}
+
+	private static void run(
+		String name,
+		List<String> messages,
+		SpamModel model,
+		Map<String, Integer> goodCounts,
+		Map<String, Integer> badCounts
+	) {
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			for (String message : messages) {
+				if (legacyPMessageBad(message, goodCounts, badCounts) > THRESHOLD / 100f) sink++;
+				if (model.isSpam(message, THRESHOLD)) sink++;
+			}
+		}
+
+		int disagreements = 0;
+		for (String message : messages) {
+			boolean legacy = legacyPMessageBad(message, goodCounts, badCounts) > THRESHOLD / 100f;
+			if (legacy != model.isSpam(message, THRESHOLD)) disagreements++;
+		}
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String message : messages) {
+				if (legacyPMessageBad(message, goodCounts, badCounts) > THRESHOLD / 100f) sink++;
+			}
+		}
+		double legacy = messagesPerSecond(begin, messages.size());
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String message : messages) {
+				if (model.isSpam(message, THRESHOLD)) sink++;
+			}
+		}
+		double compiled = messagesPerSecond(begin, messages.size());
+
+		System.out.printf("%s (%d lines), messages/s: maps %.0f, compiled %.0f (%.1fx), disagreements %d%n",
+			name, messages.size(), legacy, compiled, compiled / legacy, disagreements);
+		System.out.println("sink:" + sink);
+	}
+
+	private static double messagesPerSecond(long begin, int messages) {
+		return (double) ITERATIONS * messages / ((System.nanoTime() - begin) / 1e9);
+	}
+
+	private static List<String> corpus(String fileName) throws IOException {
+		InputStream stream = Objects.requireNonNull(SpamModelBenchmark.class.getResourceAsStream(CORPUS_PATH + fileName));
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+	private static Map<String, Integer> counts(List<String> corpus) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (String message : corpus) {
+			for (String token : message.toLowerCase().split("\\s")) counts.merge(token, 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	private static float legacyPMessageBad(String message, Map<String, Integer> goodCounts, Map<String, Integer> badCounts) {
+		String[] tokens = message.toLowerCase().split("\\s+");
+		if (tokens.length == 1 && !message.startsWith("!")) return 0.0f;
+		Set<String> tokensUnique = new HashSet<>(Arrays.asList(tokens));
+		float pPredictorsCorrect = 1f;
+		float pPredictorsIncorrect = 1f;
+		for (String token : tokensUnique) {
+			int good = goodCounts.getOrDefault(token, 0);
+			int bad = badCounts.getOrDefault(token, 0);
+			float p = good + bad == 0 ? 0.4f : Math.max(Math.min((float) bad / (good + bad), 0.99f), 0.01f);
+			pPredictorsCorrect *= p;
+			pPredictorsIncorrect *= (1 - p);
+		}
+		return pPredictorsCorrect / (pPredictorsCorrect + pPredictorsIncorrect);
+	}
+}
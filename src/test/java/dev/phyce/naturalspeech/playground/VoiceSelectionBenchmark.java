@@ -0,0 +1,114 @@
+package dev.phyce.naturalspeech.playground;
+
+import com.google.common.hash.Hashing;
+import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.texttospeech.Gender;
+import dev.phyce.naturalspeech.texttospeech.GenderedVoiceMap;
+import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Random voice selection with libritts' 904 voices registered, comparing
+ * the previous HashSet skip, a TreeMap ring and {@link GenderedVoiceMap}'s array snapshot.
+ */
+public class VoiceSelectionBenchmark {
+
+	private static final int VOICES = 904;
+	private static final int VIRTUAL_NODES = 64;
+	private static final int ENTITIES = 4096;
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 100;
+
+	public static void main(String[] args) {
+		GenderedVoiceMap voiceMap = new GenderedVoiceMap();
+		Map<VoiceID, Gender> model = new HashMap<>();
+		Set<VoiceID> hashSet = Collections.synchronizedSet(new HashSet<>());
+		TreeMap<Long, VoiceID> treeRing = new TreeMap<>();
+		for (int i = 0; i < VOICES; i++) {
+			VoiceID voiceID = VoiceID.of("libritts", String.valueOf(i));
+			model.put(voiceID, Gender.MALE);
+			hashSet.add(voiceID);
+			for (int node = 0; node < VIRTUAL_NODES; node++) treeRing.put(point(voiceID, node), voiceID);
+		}
+		long registerBegin = System.nanoTime();
+		voiceMap.putAll(model);
+		System.out.printf("registered %d voices in %.1fms%n", VOICES, (System.nanoTime() - registerBegin) / 1e6);
+
+		EntityID[] entities = new EntityID[ENTITIES];
+		long[] hashes = new long[ENTITIES];
+		for (int i = 0; i < ENTITIES; i++) {
+			entities[i] = EntityID.name("player" + i);
+			hashes[i] = entities[i].stableHash();
+		}
+
+		int mismatches = 0;
+		for (int i = 0; i < ENTITIES; i++) {
+			if (!treeRing(treeRing, hashes[i]).equals(voiceMap.pick(Gender.MALE, entities[i]))) mismatches++;
+		}
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += runHashSet(hashSet, entities);
+			sink += runTreeRing(treeRing, hashes);
+			sink += runSnapshot(voiceMap, entities);
+		}
+
+		long begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += runHashSet(hashSet, entities);
+		double hashSetNs = (System.nanoTime() - begin) / (double) ITERATIONS / ENTITIES;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += runTreeRing(treeRing, hashes);
+		double treeRingNs = (System.nanoTime() - begin) / (double) ITERATIONS / ENTITIES;
+
+		begin = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) sink += runSnapshot(voiceMap, entities);
+		double snapshotNs = (System.nanoTime() - begin) / (double) ITERATIONS / ENTITIES;
+
+		System.out.printf("%d voices, ns per pick: hashset skip %.1f, treemap ring %.1f, snapshot %.1f (incl. hashing)%n",
+			VOICES, hashSetNs, treeRingNs, snapshotNs);
+		System.out.printf("snapshot/treemap mismatches: %d sink:%d%n", mismatches, sink);
+	}
+
+	// the selection VoiceManager used before the ring
+	private static long runHashSet(Set<VoiceID> voiceIDs, EntityID[] entities) {
+		long sink = 0;
+		for (EntityID entity : entities) {
+			int voice = Math.abs(entity.hashCode()) % voiceIDs.size();
+			sink += voiceIDs.stream().skip(voice).findFirst().orElseThrow().hashCode();
+		}
+		return sink;
+	}
+
+	// hashes precomputed, only measures the ring lookup
+	private static long runTreeRing(TreeMap<Long, VoiceID> ring, long[] hashes) {
+		long sink = 0;
+		for (long hash : hashes) sink += treeRing(ring, hash).hashCode();
+		return sink;
+	}
+
+	private static long runSnapshot(GenderedVoiceMap voiceMap, EntityID[] entities) {
+		long sink = 0;
+		for (EntityID entity : entities) sink += voiceMap.pick(Gender.MALE, entity).hashCode();
+		return sink;
+	}
+
+	private static VoiceID treeRing(TreeMap<Long, VoiceID> ring, long hash) {
+		Map.Entry<Long, VoiceID> entry = ring.ceilingEntry(hash);
+		return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+	}
+
+	private static long point(VoiceID voiceID, int node) {
+		return Hashing.murmur3_128().newHasher()
+			.putString(voiceID.toVoiceIDString(), StandardCharsets.UTF_8)
+			.putInt(node)
+			.hash()
+			.asLong();
+	}
+}
@@ -0,0 +1,69 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestCorpusTail {
+
+	private static Map<String, Integer> recount(File file) throws IOException {
+		Map<String, Integer> counts = new HashMap<>();
+		for (String line : Files.readAllLines(file.toPath())) CorpusTail.countLine(counts, line, 1);
+		return counts;
+	}
+
+	private static void append(File file, String text) throws IOException {
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+	@Test
+	public void testAppendsMatchFullRecount() throws IOException {
+		File file = File.createTempFile("corpus", ".txt");
+		file.deleteOnExit();
+		CorpusTail tail = new CorpusTail(file);
+		Map<String, Integer> counts = new HashMap<>();
+
+		for (String text : List.of("buying gf\n", "Selling GP cheap\r\n\n", "visit ", "my site\n", "héllo wörld")) {
+			append(file, text);
+			assert tail.read(counts);
+			assert counts.equals(recount(file)) : counts + " != " + recount(file);
+		}
+
+		// nothing appended
+		assert tail.read(counts);
+		assert counts.equals(recount(file));
+	}
+
+	@Test
+	public void testRewriteDetected() throws IOException {
+		File file = File.createTempFile("corpus", ".txt");
+		file.deleteOnExit();
+		CorpusTail tail = new CorpusTail(file);
+		Map<String, Integer> counts = new HashMap<>();
+
+		append(file, "a long line of spam\n");
+		assert tail.read(counts);
+
+		Files.write(file.toPath(), "ham\n".getBytes(StandardCharsets.UTF_8));
+		assert !tail.read(counts);
+
+		counts.clear();
+		tail.reset();
+		assert tail.read(counts);
+		assert counts.equals(Map.of("ham", 1));
+	}
+
+	@Test
+	public void testMissingFile() throws IOException {
+		CorpusTail tail = new CorpusTail(new File("does-not-exist-corpus.txt"));
+		Map<String, Integer> counts = new HashMap<>();
+		assert tail.read(counts);
+		assert counts.isEmpty();
+	}
+}
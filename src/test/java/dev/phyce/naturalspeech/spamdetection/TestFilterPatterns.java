@@ -0,0 +1,48 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class TestFilterPatterns {
+
+	private static boolean findAny(List<Pattern> patterns, String text) {
+		for (Pattern pattern : patterns) {
+			if (pattern.matcher(text).find()) return true;
+		}
+		return false;
+	}
+
+	@Test
+	public void testCombined() {
+		ImmutableList<Pattern> patterns = FilterPatterns.compile(List.of("^buy(ing)? gp", "w[o0]rld \\d+", "(?i)x|y$"));
+		assert patterns.size() == 1;
+
+		assert findAny(patterns, "BUYING GP cheap");
+		assert findAny(patterns, "go to w0rld 302");
+		assert findAny(patterns, "ends in y");
+		assert !findAny(patterns, "i'm buying gp");
+	}
+
+	@Test
+	public void testNotCombinable() {
+		ImmutableList<Pattern> patterns = FilterPatterns.compile(List.of(
+			"(\\w)\\1{4}", "(?<word>spam) \\k<word>", "\\Qa|b", "(?x) s c a m", "plain", "other"));
+		// the two plain regexes share an alternation
+		assert patterns.size() == 5;
+
+		assert findAny(patterns, "aaaaa");
+		assert findAny(patterns, "SPAM spam");
+		assert findAny(patterns, "literal a|b");
+		assert !findAny(patterns, "a");
+		assert findAny(patterns, "scam");
+	}
+
+	@Test
+	public void testInvalidSkipped() {
+		ImmutableList<Pattern> patterns = FilterPatterns.compile(List.of("(unclosed", "fine", "[also"));
+		assert patterns.size() == 1;
+		assert findAny(patterns, "fine");
+	}
+}
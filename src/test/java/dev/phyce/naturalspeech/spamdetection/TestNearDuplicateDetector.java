@@ -0,0 +1,68 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import org.junit.Test;
+
+public class TestNearDuplicateDetector {
+
+	private static final long SECOND = 1_000_000_000L;
+	private static final int DISTANCE = 8;
+
+	private long now = 0;
+	private final NearDuplicateDetector detector = new NearDuplicateDetector(() -> now);
+
+	@Test
+	public void testVariants() {
+		assert !detector.isNearDuplicate("Buying gold cheap visit g0ldsite dot com 10m", DISTANCE);
+		assert detector.isNearDuplicate("Buying gold cheap visit g0ldsite dot com 11m", DISTANCE);
+		assert detector.isNearDuplicate("BUYING GOLD CHEAP!! visit g0ldsite dot com 10m", DISTANCE);
+		assert !detector.isNearDuplicate("GAMBLING HOUSE FLOWER POKER 2X WIN WORLD 302", DISTANCE);
+		assert detector.isNearDuplicate("GAMBLING HOUSE FLOWER POKER 3X WIN WORLD 330", DISTANCE);
+	}
+
+	@Test
+	public void testDifferentMessages() {
+		assert !detector.isNearDuplicate("Selling lobsters at the GE for 200 each", DISTANCE);
+		assert !detector.isNearDuplicate("anyone want to duo zulrah later tonight", DISTANCE);
+		assert !detector.isNearDuplicate("does anyone know where the fishing guild is", DISTANCE);
+		assert !detector.isNearDuplicate("what level do i need for barrows gloves", DISTANCE);
+	}
+
+	@Test
+	public void testShortMessagesIgnored() {
+		for (int i = 0; i < 5; i++) assert !detector.isNearDuplicate("gz!", DISTANCE);
+	}
+
+	@Test
+	public void testWindow() {
+		String advert = "join clan chat for free giveaways every hour";
+		assert !detector.isNearDuplicate(advert, DISTANCE);
+
+		now += 30 * SECOND;
+		assert detector.isNearDuplicate(advert, DISTANCE);
+
+		// the repeat kept the window open, this is a minute after the repeat
+		now += 61 * SECOND;
+		assert !detector.isNearDuplicate(advert, DISTANCE);
+	}
+
+	@Test
+	public void testClear() {
+		String advert = "join clan chat for free giveaways every hour";
+		assert !detector.isNearDuplicate(advert, DISTANCE);
+
+		// hopped worlds, a different crowd
+		detector.clear();
+		assert !detector.isNearDuplicate(advert, DISTANCE);
+		assert detector.isNearDuplicate(advert, DISTANCE);
+	}
+
+	@Test
+	public void testRingWraps() {
+		String advert = "Buying gold cheap visit g0ldsite dot com 10m";
+		assert !detector.isNearDuplicate(advert, DISTANCE);
+
+		// pushed out of the ring by other messages
+		for (int i = 0; i < 512; i++) detector.isNearDuplicate("filler message number " + i * 7919L, 0);
+		assert !detector.isNearDuplicate(advert, 0);
+	}
+}
@@ -0,0 +1,98 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class TestSpamModel {
+
+	private static final List<String> GOOD = List.of(
+		"anyone want to duo zulrah",
+		"nice drop  gz",
+		"",
+		"lf1m cox learner raid",
+		"Thanks for the trade!");
+
+	private static final List<String> BAD = List.of(
+		"!w gamble at my house 2x your gp",
+		"BUYING GP cheap visit site",
+		"cheap gp fast delivery gp",
+		"\tvisit site now");
+
+	private final Map<String, Integer> goodCounts = counts(GOOD);
+	private final Map<String, Integer> badCounts = counts(BAD);
+	private final SpamModel model = SpamModel.of(goodCounts, badCounts);
+
+	private static Map<String, Integer> counts(List<String> corpus) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (String line : corpus) CorpusTail.countLine(counts, line, 1);
+		return counts;
+	}
+
+	// Spam Filter's scoring
+	private float legacyPMessageBad(String message) {
+		String[] tokens = message.toLowerCase().split("\\s+");
+		if (tokens.length == 1 && !message.startsWith("!")) return 0.0f;
+		Set<String> tokensUnique = new HashSet<>(Arrays.asList(tokens));
+		float pPredictorsCorrect = 1f;
+		float pPredictorsIncorrect = 1f;
+		for (String token : tokensUnique) {
+			int good = goodCounts.getOrDefault(token, 0);
+			int bad = badCounts.getOrDefault(token, 0);
+			float p = good + bad == 0 ? 0.4f : Math.max(Math.min((float) bad / (good + bad), 0.99f), 0.01f);
+			pPredictorsCorrect *= p;
+			pPredictorsIncorrect *= (1 - p);
+		}
+		return pPredictorsCorrect / (pPredictorsCorrect + pPredictorsIncorrect);
+	}
+
+	@Test
+	public void testMatchesLegacyScores() {
+		List<String> messages = List.of(
+			"cheap gp",
+			"CHEAP gp cheap GP visit",
+			"nice drop gz",
+			"  leading whitespace cheap",
+			"trailing whitespace   ",
+			"   ",
+			"",
+			"single",
+			"!w",
+			"!w 2x",
+			"gamble\tat\nmy  house",
+			"Ünïcödé cheap gp",
+			"visit visit visit site",
+			"unknown1 unknown2 UNKNOWN1");
+
+		for (String message : messages) {
+			float legacy = legacyPMessageBad(message);
+			float compiled = model.pMessageBad(message);
+			assert Math.abs(legacy - compiled) < 1e-5 : message + " " + legacy + " != " + compiled;
+
+			for (int threshold = 0; threshold <= 100; threshold += 5) {
+				assert (legacy > threshold / 100f) == model.isSpam(message, threshold) : message + " at " + threshold;
+			}
+		}
+	}
+
+	@Test
+	public void testLongMessagesDoNotUnderflow() {
+		StringBuilder message = new StringBuilder("cheap gp visit site");
+		for (int i = 0; i < 200; i++) message.append(" filler").append(i);
+
+		// legacy products underflow to 0/0
+		assert Float.isNaN(legacyPMessageBad(message.toString()));
+		assert !Float.isNaN(model.pMessageBad(message.toString()));
+		assert model.logOddsBad(message.toString()) < 0;
+	}
+
+	@Test
+	public void testEmptyModel() {
+		assert !SpamModel.EMPTY.isSpam("cheap gp visit site", 50);
+		assert SpamModel.EMPTY.isSpam("cheap gp visit site", 0);
+	}
+}
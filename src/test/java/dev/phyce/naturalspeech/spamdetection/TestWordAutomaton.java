@@ -0,0 +1,46 @@
+package dev.phyce.naturalspeech.spamdetection;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class TestWordAutomaton {
+
+	private static final List<String> WORDS = List.of("gp", "cheap gold", "he", "she", "hers", "Ünï", "a.b");
+
+	// Chat Filter's matching, a quoted case-insensitive pattern per word
+	private static boolean legacyContainsAny(List<String> words, String text) {
+		for (String word : words) {
+			if (Pattern.compile(Pattern.quote(word), Pattern.CASE_INSENSITIVE).matcher(text).find()) return true;
+		}
+		return false;
+	}
+
+	@Test
+	public void testMatchesQuotedPatterns() {
+		WordAutomaton automaton = WordAutomaton.of(WORDS);
+		List<String> texts = List.of(
+			"selling GP", "CHEAP GOLD here", "cheap  gold", "ushers", "sh", "h", "",
+			"ünï lowercase accents", "ÜNÏ", "Ünï", "aXb", "a.b", "no match at all");
+
+		for (String text : texts) {
+			assert automaton.containsAny(text) == legacyContainsAny(WORDS, text) : text;
+		}
+	}
+
+	@Test
+	public void testOverlappingWords() {
+		// "hers" fails over to "he", then "she" is found through the fail links
+		WordAutomaton automaton = WordAutomaton.of(List.of("hers", "she"));
+		assert automaton.containsAny("ushe");
+		assert automaton.containsAny("ahershe");
+		assert !automaton.containsAny("hehe");
+	}
+
+	@Test
+	public void testEmpty() {
+		assert WordAutomaton.EMPTY.isEmpty();
+		assert !WordAutomaton.EMPTY.containsAny("anything");
+		assert WordAutomaton.of(List.of("")).containsAny("anything");
+	}
+}
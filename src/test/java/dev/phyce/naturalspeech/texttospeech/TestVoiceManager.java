@@ -13,10 +13,13 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.config.ConfigManager;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -186,6 +189,129 @@ public class TestVoiceManager {
 
 	}
 
+	@SuppressWarnings({"DataFlowIssue", "OptionalGetWithoutIsPresent"})
+	@Test
+	public void testResolveInvalidation() {
+		ConfigManager configManager = mock(ConfigManager.class);
+		ClientHelper clientHelper = mock(ClientHelper.class);
+		NaturalSpeechConfig config = mock(NaturalSpeechConfig.class);
+
+		when(configManager.getConfiguration(CONFIG_GROUP, ConfigKeys.VOICE_CONFIG_KEY))
+			.thenReturn("{version:1,settings:[]}");
+		when(clientHelper.getGender(any())).thenReturn(Gender.MALE);
+
+		VoiceManager voiceManager = new VoiceManager(configManager, clientHelper, config);
+
+		VoiceID voice0 = VoiceID.fromIDString("libritts:0").get();
+		VoiceID voice1 = VoiceID.fromIDString("libritts:1").get();
+		VoiceID voice2 = VoiceID.fromIDString("libritts:2").get();
+		voiceManager.register(Voice.of(voice0, Gender.MALE));
+		voiceManager.register(Voice.of(voice1, Gender.MALE));
+		voiceManager.register(Voice.of(voice2, Gender.MALE));
+
+		EntityID player = EntityID.name("zezima");
+		EntityID npc = EntityID.id(13297);
+
+		// random voices are stable
+		VoiceID random = voiceManager.resolve(player);
+		assert voiceManager.resolve(player).equals(random);
+
+		VoiceID other = random.equals(voice0) ? voice1 : voice0;
+		voiceManager.set(player, other);
+		assert voiceManager.resolve(player).equals(other);
+
+		voiceManager.unset(player);
+		assert voiceManager.resolve(player).equals(random);
+
+		// global npc voice applies to npcs resolved before it was set
+		voiceManager.resolve(npc);
+		voiceManager.set(EntityID.GLOBAL_NPC, voice2);
+		assert voiceManager.resolve(npc).equals(voice2);
+		assert voiceManager.resolve(player).equals(random);
+
+		voiceManager.unset(EntityID.GLOBAL_NPC);
+		voiceManager.set(npc, voice1);
+		assert voiceManager.resolve(npc).equals(voice1);
+
+		// blacklisted voices are no longer picked randomly
+		voiceManager.blacklist(random);
+		assert !voiceManager.resolve(player).equals(random);
+
+		voiceManager.unregister(voice1);
+		assert !voiceManager.resolve(npc).equals(voice1);
+	}
+
+	@SuppressWarnings({"DataFlowIssue", "OptionalGetWithoutIsPresent"})
+	@Test
+	public void testInvalidationDuringResolve() {
+		ConfigManager configManager = mock(ConfigManager.class);
+		ClientHelper clientHelper = mock(ClientHelper.class);
+		NaturalSpeechConfig config = mock(NaturalSpeechConfig.class);
+
+		when(configManager.getConfiguration(CONFIG_GROUP, ConfigKeys.VOICE_CONFIG_KEY))
+			.thenReturn("{version:1,settings:[]}");
+
+		VoiceManager voiceManager = new VoiceManager(configManager, clientHelper, config);
+
+		VoiceID voice0 = VoiceID.fromIDString("libritts:0").get();
+		VoiceID voice1 = VoiceID.fromIDString("libritts:1").get();
+		voiceManager.register(Voice.of(voice0, Gender.MALE));
+		voiceManager.register(Voice.of(voice1, Gender.MALE));
+
+		EntityID player = EntityID.name("zezima");
+		EntityID npc = EntityID.id(13297);
+		boolean[] raced = {false};
+		// the settings change while resolve() is picking a random voice, like the client thread racing the chat worker
+		doAnswer(call -> {
+			if (!raced[0]) {
+				raced[0] = true;
+				voiceManager.set(player, voice1);
+				voiceManager.set(EntityID.GLOBAL_NPC, voice0);
+			}
+			return Gender.MALE;
+		}).when(clientHelper).getGender(any());
+
+		voiceManager.resolve(player);
+		// the result computed before the change isn't kept
+		assert voiceManager.resolve(player).equals(voice1);
+
+		raced[0] = false;
+		doAnswer(call -> {
+			if (!raced[0]) {
+				raced[0] = true;
+				voiceManager.unset(EntityID.GLOBAL_NPC);
+				voiceManager.set(npc, voice1);
+			}
+			return Gender.MALE;
+		}).when(clientHelper).getGender(any());
+		voiceManager.unset(EntityID.GLOBAL_NPC);
+		voiceManager.resolve(npc);
+		assert voiceManager.resolve(npc).equals(voice1);
+	}
+
+	@SuppressWarnings({"DataFlowIssue", "OptionalGetWithoutIsPresent"})
+	@Test
+	public void testResolveWithCapturedGender() {
+		ConfigManager configManager = mock(ConfigManager.class);
+		ClientHelper clientHelper = mock(ClientHelper.class);
+		NaturalSpeechConfig config = mock(NaturalSpeechConfig.class);
+
+		when(configManager.getConfiguration(CONFIG_GROUP, ConfigKeys.VOICE_CONFIG_KEY))
+			.thenReturn("{version:1,settings:[]}");
+
+		VoiceManager voiceManager = new VoiceManager(configManager, clientHelper, config);
+
+		VoiceID male = VoiceID.fromIDString("libritts:0").get();
+		VoiceID female = VoiceID.fromIDString("libritts:1").get();
+		voiceManager.register(Voice.of(male, Gender.MALE));
+		voiceManager.register(Voice.of(female, Gender.FEMALE));
+
+		// the chat worker passes the gender read on the client thread, the client isn't read again
+		assert voiceManager.resolve(EntityID.name("zezima"), Gender.FEMALE).equals(female);
+		assert voiceManager.resolve(EntityID.name("zezima")).equals(female);
+		verify(clientHelper, never()).getGender(any());
+	}
+
 	private static String captureSavedJson(
 		ConfigManager configManager,
 		VoiceManager voiceManager,
@@ -0,0 +1,220 @@
+package dev.phyce.naturalspeech.texttospeech.engine;
+
+import dev.phyce.naturalspeech.NaturalSpeechConfig;
+import dev.phyce.naturalspeech.configs.ConfigSnapshot;
+import dev.phyce.naturalspeech.entity.EntityID;
+import dev.phyce.naturalspeech.texttospeech.engine.AdmissionController.ShedReason;
+import dev.phyce.naturalspeech.texttospeech.engine.AdmissionController.Source;
+import dev.phyce.naturalspeech.texttospeech.engine.AdmissionController.Speaker;
+import javax.sound.sampled.AudioFormat;
+import org.junit.Test;
+
+public class TestAdmissionController {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private long now = 0;
+
+	private AdmissionController controller(NaturalSpeechConfig.FloodPolicy policy, boolean exemptFriends) {
+		ConfigSnapshot snapshot = ConfigSnapshot.of(new NaturalSpeechConfig() {
+			@Override
+			public FloodPolicy floodPolicy() {
+				return policy;
+			}
+
+			@Override
+			public boolean floodExemptFriends() {
+				return exemptFriends;
+			}
+		});
+		return new AdmissionController(() -> snapshot, () -> now);
+	}
+
+	private static Speaker speaker(String name, Source source) {
+		return Speaker.of(EntityID.name(name), source, false);
+	}
+
+	@Test
+	public void testSpeakerBucket() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+		Speaker spammer = speaker("Spammer", Source.PUBLIC);
+
+		for (int i = 0; i < 3; i++) assert controller.admit(spammer, "buying gf") != null;
+		assert controller.admit(spammer, "buying gf") == null;
+		assert controller.getShed(Source.PUBLIC, ShedReason.SPEAKER) == 1;
+
+		// other speakers have their own bucket
+		assert controller.admit(speaker("Quiet", Source.PUBLIC), "hi") != null;
+
+		// refills one token every five seconds
+		now += 5 * SECOND;
+		assert controller.admit(spammer, "buying gf") != null;
+		assert controller.admit(spammer, "buying gf") == null;
+	}
+
+	@Test
+	public void testSpeakersBounded() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+		Speaker spammer = speaker("Spammer", Source.PUBLIC);
+		for (int i = 0; i < 3; i++) assert controller.admit(spammer, "buying gf") != null;
+
+		// a crowd passes by, the spammer keeps talking and stays limited
+		for (int i = 0; i < 3 * AdmissionController.MAX_SPEAKERS; i++) {
+			controller.admit(speaker("Passerby" + i, Source.SYSTEM), "hi");
+			if (i % 100 == 0) assert controller.admit(spammer, "buying gf") == null;
+		}
+		assert controller.speakerCount() == AdmissionController.MAX_SPEAKERS;
+		assert controller.admit(spammer, "buying gf") == null;
+	}
+
+	@Test
+	public void testKeepLatest() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.KEEP_LATEST, false);
+		Speaker spammer = speaker("Spammer", Source.PUBLIC);
+
+		for (int i = 0; i < 3; i++) assert !controller.admit(spammer, "selling").replace;
+		AdmissionController.Ticket latest = controller.admit(spammer, "selling");
+		assert latest != null && latest.replace;
+		assert controller.getShed(Source.PUBLIC, ShedReason.SPEAKER) == 0;
+
+		// replacements still take from the source
+		for (int i = 4; i < 10; i++) assert controller.admit(spammer, "selling") != null;
+		assert controller.admit(spammer, "selling") == null;
+		assert controller.getShed(Source.PUBLIC, ShedReason.SOURCE) == 1;
+	}
+
+	@Test
+	public void testKeepLatestBudget() {
+		String longText = new String(new char[300]).replace('\0', 'a');
+
+		// a replacement must fit in the budget
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.KEEP_LATEST, false);
+		Speaker spammer = speaker("Spammer", Source.PUBLIC);
+		assert controller.admit(speaker("A", Source.REMOTE), longText) != null;
+		for (int i = 0; i < 3; i++) assert controller.admit(spammer, "hi") != null;
+		assert controller.admit(spammer, longText) == null;
+		assert controller.getShed(Source.PUBLIC, ShedReason.BUDGET) == 1;
+
+		// but not on top of the speech it replaces
+		controller = controller(NaturalSpeechConfig.FloodPolicy.KEEP_LATEST, false);
+		assert controller.admit(spammer, longText) != null;
+		for (int i = 0; i < 2; i++) assert controller.admit(spammer, "hi") != null;
+		AdmissionController.Ticket latest = controller.admit(spammer, longText);
+		assert latest != null && latest.replace;
+	}
+
+	@Test
+	public void testFriendsExempt() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, true);
+		Speaker friend = Speaker.of(EntityID.name("Friend"), Source.REMOTE, true);
+
+		for (int i = 0; i < 20; i++) assert controller.admit(friend, "hey") != null;
+	}
+
+	@Test
+	public void testSourceBucket() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+
+		for (int i = 0; i < 6; i++) assert controller.admit(speaker("Npc" + i, Source.OVERHEAD), "grr") != null;
+		assert controller.admit(speaker("Npc6", Source.OVERHEAD), "grr") == null;
+		assert controller.getShed(Source.OVERHEAD, ShedReason.SOURCE) == 1;
+
+		// sources don't share buckets
+		assert controller.admit(speaker("Player", Source.PUBLIC), "hi") != null;
+	}
+
+	@Test
+	public void testBudget() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+		String longText = new String(new char[300]).replace('\0', 'a');
+
+		// always admitted when idle, however long
+		AdmissionController.Ticket first = controller.admit(speaker("A", Source.PUBLIC), longText);
+		assert first != null;
+		assert controller.admit(speaker("B", Source.REMOTE), longText) == null;
+		assert controller.getShed(Source.REMOTE, ShedReason.BUDGET) == 1;
+
+		// synthesized at 2x realtime, lowers the measured throughput
+		controller.startSynthesis();
+		now += 10 * SECOND;
+		controller.finishSynthesis(audio(20));
+		controller.complete(first);
+		assert controller.admit(speaker("B", Source.REMOTE), longText) != null;
+		assert controller.admit(speaker("C", Source.SYSTEM), longText) == null;
+	}
+
+	@Test
+	public void testThroughputMeasuresSynthesis() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+		AdmissionController.Ticket ticket = controller.admit(speaker("A", Source.PUBLIC), "hello");
+
+		// held behind the line for a minute, synthesized in one second
+		now += 60 * SECOND;
+		controller.startSynthesis();
+		now += SECOND;
+		controller.finishSynthesis(audio(4));
+		controller.complete(ticket);
+		assert Math.abs(controller.getThroughput() - 4) < 0.01f : controller.getThroughput();
+
+		// overlapping syntheses count their busy time once, 8 seconds of audio in 1.5 seconds
+		controller.startSynthesis();
+		now += SECOND / 2;
+		controller.startSynthesis();
+		now += SECOND / 2;
+		controller.finishSynthesis(audio(4));
+		now += SECOND / 2;
+		controller.finishSynthesis(audio(4));
+		assert Math.abs(controller.getThroughput() - 4.27f) < 0.01f : controller.getThroughput();
+
+		// idle time between syntheses isn't busy
+		now += 60 * SECOND;
+		controller.startSynthesis();
+		now += SECOND;
+		controller.finishSynthesis(audio(4));
+		assert Math.abs(controller.getThroughput() - 4.21f) < 0.01f : controller.getThroughput();
+	}
+
+	@Test
+	public void testThroughputNestedSyntheses() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+
+		// a short segment starts and finishes inside a long one, 10 seconds busy for 10 seconds of audio
+		controller.startSynthesis();
+		now += 9 * SECOND;
+		controller.startSynthesis();
+		now += SECOND / 2;
+		controller.finishSynthesis(audio(1));
+		now += SECOND / 2;
+		controller.finishSynthesis(audio(9));
+		assert Math.abs(controller.getThroughput() - 3.4f) < 0.01f : controller.getThroughput();
+
+		// under sustained load, samples end every ten seconds of busy time
+		controller.startSynthesis();
+		for (int i = 0; i < 10; i++) {
+			controller.startSynthesis();
+			now += SECOND;
+			controller.finishSynthesis(audio(4));
+		}
+		assert Math.abs(controller.getThroughput() - 3.52f) < 0.01f : controller.getThroughput();
+		controller.abortSynthesis();
+	}
+
+	@Test
+	public void testThroughputCountsAborted() {
+		AdmissionController controller = controller(NaturalSpeechConfig.FloodPolicy.DROP_NEWEST, false);
+
+		// a failed synthesis kept the engine busy without producing audio
+		controller.startSynthesis();
+		now += SECOND;
+		controller.abortSynthesis();
+		controller.startSynthesis();
+		now += SECOND;
+		controller.finishSynthesis(audio(4));
+		assert Math.abs(controller.getThroughput() - 3.6f) < 0.01f : controller.getThroughput();
+	}
+
+	private static Audio audio(int seconds) {
+		AudioFormat format = new AudioFormat(22050, 16, 1, true, false);
+		return Audio.of(new byte[22050 * 2 * seconds], format);
+	}
+}
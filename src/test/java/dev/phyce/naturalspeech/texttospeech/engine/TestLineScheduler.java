@@ -0,0 +1,216 @@
+package dev.phyce.naturalspeech.texttospeech.engine;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import dev.phyce.naturalspeech.texttospeech.engine.LineScheduler.Utterance;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+import javax.sound.sampled.AudioFormat;
+import org.junit.Test;
+
+public class TestLineScheduler {
+
+	private static final VoiceID VOICE = VoiceID.of("test", "0");
+	private static final VoiceID OTHER_VOICE = VoiceID.of("test", "1");
+	private static final Audio AUDIO = Audio.of(new byte[4], new AudioFormat(22050, 16, 1, true, false));
+
+	private final List<String> synthesized = Collections.synchronizedList(new ArrayList<>());
+	private final List<SettableFuture<Audio>> futures = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+	// synthesized texts submitted as coalesced
+	private final List<String> merged = Collections.synchronizedList(new ArrayList<>());
+
+	private static final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
+		new ThreadFactoryBuilder().setDaemon(true).build());
+
+	private final LineScheduler scheduler = new LineScheduler((utterance, coalesced) -> {
+		synthesized.add(utterance.getText());
+		if (coalesced) merged.add(utterance.getText());
+		SettableFuture<Audio> future = SettableFuture.create();
+		futures.add(future);
+		return future;
+	}, timeoutExecutor);
+
+	private Utterance utterance(VoiceID voiceID, String text, String line) {
+		return new Utterance(voiceID, text, () -> 1f, line, 0, () -> completed.add(text));
+	}
+
+	private void finish(int index) {
+		futures.get(index).set(AUDIO);
+	}
+
+	@Test
+	public void testOneSynthesisPerLine() {
+		scheduler.schedule(utterance(VOICE, "first", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "second", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "other line", "b"), 2, false);
+
+		assert synthesized.equals(List.of("first", "other line"));
+		assert scheduler.heldCount("a") == 1;
+
+		finish(0);
+		assert synthesized.equals(List.of("first", "other line", "second"));
+		assert scheduler.heldCount("a") == 0;
+	}
+
+	@Test
+	public void testBacklogSupersedesOldest() {
+		scheduler.schedule(utterance(VOICE, "one", "a"), 2, false);
+		for (String text : List.of("two", "three", "four", "five")) scheduler.schedule(utterance(VOICE, text, "a"), 2, false);
+
+		// two and three were superseded without synthesis
+		assert completed.equals(List.of("two", "three")) : completed;
+		assert scheduler.heldCount("a") == 2;
+
+		finish(0);
+		assert synthesized.equals(List.of("one", "four. five"));
+	}
+
+	@Test
+	public void testCoalesceOnlySameVoice() {
+		scheduler.schedule(utterance(VOICE, "one", "a"), 3, false);
+		scheduler.schedule(utterance(VOICE, "two!", "a"), 3, false);
+		scheduler.schedule(utterance(VOICE, "three", "a"), 3, false);
+		scheduler.schedule(utterance(OTHER_VOICE, "four", "a"), 3, false);
+
+		finish(0);
+		assert synthesized.get(1).equals("two! three");
+		finish(1);
+		assert synthesized.get(2).equals("four");
+		// only the merged text is marked, it's not worth caching
+		assert merged.equals(List.of("two! three")) : merged;
+	}
+
+	@Test
+	public void testCoalescedCompletion() {
+		scheduler.schedule(utterance(VOICE, "one", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "two", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "three", "a"), 2, false);
+		finish(0);
+		finish(1);
+
+		// every utterance completes once, coalesced ones too
+		assert completed.equals(List.of("one", "two", "three")) : completed;
+	}
+
+	@Test
+	public void testSupersedeSynthesizing() {
+		scheduler.schedule(utterance(VOICE, "old dialog", "dialog"), 1, true);
+		scheduler.schedule(utterance(VOICE, "new dialog", "dialog"), 1, true);
+
+		assert futures.get(0).isCancelled();
+		assert synthesized.equals(List.of("old dialog", "new dialog"));
+	}
+
+	@Test
+	public void testSupersedeDuringHandoff() {
+		LineScheduler[] handoff = new LineScheduler[1];
+		handoff[0] = new LineScheduler((utterance, coalesced) -> {
+			synthesized.add(utterance.getText());
+			// new dialog after the batch left the queue, before its synthesis is published
+			if (utterance.getText().equals("second dialog")) {
+				handoff[0].schedule(utterance(VOICE, "third dialog", "dialog"), 1, true);
+			}
+			SettableFuture<Audio> future = SettableFuture.create();
+			futures.add(future);
+			return future;
+		}, timeoutExecutor);
+
+		handoff[0].schedule(utterance(VOICE, "first dialog", "dialog"), 1, true);
+		handoff[0].schedule(utterance(VOICE, "second dialog", "dialog"), 1, false);
+		finish(0);
+
+		assert futures.get(1).isCancelled();
+		assert synthesized.equals(List.of("first dialog", "second dialog", "third dialog")) : synthesized;
+		assert !futures.get(2).isCancelled();
+		assert completed.equals(List.of("first dialog", "second dialog")) : completed;
+	}
+
+	@Test
+	public void testClearDuringHandoff() {
+		LineScheduler[] handoff = new LineScheduler[1];
+		handoff[0] = new LineScheduler((utterance, coalesced) -> {
+			synthesized.add(utterance.getText());
+			if (utterance.getText().equals("one")) handoff[0].clear("a"::equals, true);
+			SettableFuture<Audio> future = SettableFuture.create();
+			futures.add(future);
+			return future;
+		}, timeoutExecutor);
+
+		handoff[0].schedule(utterance(VOICE, "one", "a"), 2, false);
+		assert futures.get(0).isCancelled();
+		assert handoff[0].lineCount() == 0;
+	}
+
+	@Test
+	public void testIdleLinesAreForgotten() {
+		for (int i = 0; i < 100; i++) {
+			scheduler.schedule(utterance(VOICE, "hi", "line" + i), 2, false);
+			finish(i);
+		}
+		assert scheduler.lineCount() == 0;
+
+		scheduler.schedule(utterance(VOICE, "failed", "a"), 2, false);
+		futures.get(futures.size() - 1).setException(new RuntimeException());
+		assert scheduler.lineCount() == 0;
+	}
+
+	@Test
+	public void testRejectedStartsNext() {
+		List<String> attempts = new ArrayList<>();
+		LineScheduler rejecting = new LineScheduler((utterance, coalesced) -> {
+			attempts.add(utterance.getText());
+			return null;
+		}, timeoutExecutor);
+		rejecting.schedule(utterance(VOICE, "one", "a"), 2, false);
+		rejecting.schedule(utterance(VOICE, "two", "a"), 2, false);
+
+		assert attempts.equals(List.of("one", "two"));
+		assert rejecting.lineCount() == 0;
+	}
+
+	@Test
+	public void testClear() {
+		scheduler.schedule(utterance(VOICE, "one", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "two", "a"), 2, false);
+		scheduler.schedule(utterance(VOICE, "three", "b"), 2, false);
+
+		scheduler.clear("a"::equals, true);
+		assert futures.get(0).isCancelled() && !futures.get(1).isCancelled();
+		assert synthesized.equals(List.of("one", "three"));
+		assert scheduler.lineCount() == 1;
+	}
+
+	@Test
+	public void testHungSynthesisTimesOut() throws InterruptedException {
+		LineScheduler timing = new LineScheduler((utterance, coalesced) -> {
+			synthesized.add(utterance.getText());
+			SettableFuture<Audio> future = SettableFuture.create();
+			futures.add(future);
+			return future;
+		}, timeoutExecutor, 50);
+
+		timing.schedule(utterance(VOICE, "hung", "a"), 2, false);
+		timing.schedule(utterance(VOICE, "next", "a"), 2, false);
+
+		// the hung synthesis is cancelled, and the line moves on
+		awaitTrue(() -> synthesized.size() == 2);
+		assert futures.get(0).isCancelled();
+		assert synthesized.equals(List.of("hung", "next")) : synthesized;
+		assert completed.equals(List.of("hung")) : completed;
+
+		finish(1);
+		assert completed.equals(List.of("hung", "next")) : completed;
+		assert timing.lineCount() == 0;
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) Thread.sleep(10);
+		assert condition.getAsBoolean();
+	}
+}
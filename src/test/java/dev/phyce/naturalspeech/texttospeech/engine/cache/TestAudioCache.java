@@ -0,0 +1,125 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import dev.phyce.naturalspeech.texttospeech.VoiceID;
+import dev.phyce.naturalspeech.texttospeech.engine.Audio;
+import javax.sound.sampled.AudioFormat;
+import org.junit.Test;
+
+public class TestAudioCache {
+
+	private static final AudioFormat FORMAT = new AudioFormat(22050, 16, 1, true, false);
+	private static final VoiceID VOICE = VoiceID.of("libritts", "0");
+
+	private static AudioCache.Key key(String text) {
+		return AudioCache.Key.of(VOICE, text);
+	}
+
+	private static Audio audio(int bytes) {
+		byte[] pcm = new byte[bytes];
+		for (int i = 0; i < bytes; i += 2) pcm[i + 1] = (byte) (i / 2);
+		return Audio.of(pcm, FORMAT);
+	}
+
+	// a miss followed by a put, like the speech path does
+	private static void request(AudioCache cache, String text, int bytes) {
+		AudioCache.Key key = key(text);
+		if (cache.get(key) == null) cache.put(key, audio(bytes));
+	}
+
+	@Test
+	public void testHitAndKeyNormalization() {
+		AudioCache cache = new AudioCache(() -> 10_000, () -> false);
+		request(cache, "Hello  there ", 1000);
+
+		Audio audio = cache.get(key("Hello there"));
+		assert audio != null;
+		assert audio.getAudioStream().length == 1000;
+		assert cache.getStats().getHits() == 1;
+		assert cache.getStats().getMisses() == 1;
+	}
+
+	@Test
+	public void testBudgetEvictsLeastRecentlyUsed() {
+		AudioCache cache = new AudioCache(() -> 3000, () -> false);
+		request(cache, "a", 1000);
+		request(cache, "b", 1000);
+		request(cache, "c", 1000);
+		// a becomes most recently used, b is the eviction candidate
+		assert cache.get(key("a")) != null;
+
+		// requested twice, more often than b
+		request(cache, "d", 1000);
+		request(cache, "d", 1000);
+
+		AudioCache.Stats stats = cache.getStats();
+		assert stats.getEntries() == 3 : stats;
+		assert stats.getBytes() == 3000 : stats;
+		assert stats.getEvictions() == 1 : stats;
+		assert cache.get(key("b")) == null;
+		assert cache.get(key("a")) != null;
+		assert cache.get(key("c")) != null;
+		assert cache.get(key("d")) != null;
+	}
+
+	@Test
+	public void testOneHitEntriesRejectedWhenFull() {
+		AudioCache cache = new AudioCache(() -> 3000, () -> false);
+		request(cache, "a", 1000);
+		request(cache, "b", 1000);
+		request(cache, "c", 1000);
+		request(cache, "a", 1000);
+		request(cache, "b", 1000);
+		request(cache, "c", 1000);
+
+		// a flood of one-off chat doesn't displace anything
+		for (int i = 0; i < 100; i++) request(cache, "spam " + i, 1000);
+
+		AudioCache.Stats stats = cache.getStats();
+		assert stats.getEvictions() == 0 : stats;
+		assert stats.getRejections() == 100 : stats;
+		assert !cache.mightAdmit(key("another one-off"));
+		assert cache.get(key("a")) != null;
+		assert cache.get(key("b")) != null;
+		assert cache.get(key("c")) != null;
+	}
+
+	@Test
+	public void testLargerThanBudgetRejected() {
+		AudioCache cache = new AudioCache(() -> 3000, () -> false);
+		request(cache, "long", 4000);
+		assert cache.getStats().getEntries() == 0;
+		assert cache.getStats().getRejections() == 1;
+
+		AudioCache disabled = new AudioCache(() -> 0, () -> false);
+		assert !disabled.mightAdmit(key("a"));
+	}
+
+	@Test
+	public void testCompactEntries() {
+		AudioCache cache = new AudioCache(() -> 10_000, () -> true);
+		request(cache, "a", 4000);
+
+		// 4 bits per 16 bit sample, plus the block headers
+		assert cache.getStats().getBytes() < 4000 / 3 : cache.getStats();
+		Audio audio = cache.get(key("a"));
+		assert audio != null;
+		assert audio.getAudioStream().length == 4000;
+		assert audio.getAudioFormat() == FORMAT;
+	}
+
+	@Test
+	public void testSketchAges() {
+		FrequencySketch sketch = new FrequencySketch(16);
+		for (int i = 0; i < 5; i++) sketch.increment("recurring");
+		assert sketch.frequency("recurring") == 5;
+		assert sketch.frequency("unseen") == 0;
+
+		// counters saturate
+		for (int i = 0; i < 20; i++) sketch.increment("recurring");
+		assert sketch.frequency("recurring") == 15;
+
+		// 10 * width increments halve every counter
+		for (int i = 0; i < 320; i++) sketch.increment(i);
+		assert sketch.frequency("recurring") <= 7 : sketch.frequency("recurring");
+	}
+}
@@ -0,0 +1,172 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import dev.phyce.naturalspeech.texttospeech.engine.Audio;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sound.sampled.AudioFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestDiskAudioCache {
+
+	private static final AudioFormat FORMAT = new AudioFormat(22050, 16, 1, true, false);
+	private static final int RECORD_BYTES = 4000;
+	private static final long SEGMENT_BYTES = 10_000;
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("audio-cache");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	// runs appends and compaction inline
+	private DiskAudioCache open(long budget) {
+		DiskAudioCache cache = new DiskAudioCache(directory, () -> budget, SEGMENT_BYTES, Runnable::run);
+		cache.startUp();
+		return cache;
+	}
+
+	private static DiskAudioCache.Key key(int i) {
+		return DiskAudioCache.Key.of(42, 0, "record " + i);
+	}
+
+	private static Audio audio(int i) {
+		byte[] pcm = new byte[RECORD_BYTES];
+		Arrays.fill(pcm, (byte) i);
+		return Audio.of(pcm, FORMAT);
+	}
+
+	private static boolean matches(Audio audio, int i) {
+		return audio != null
+			&& Arrays.equals(audio.getAudioStream(), audio(i).getAudioStream())
+			&& audio.getAudioFormat().matches(FORMAT);
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+
+	private long diskBytes() throws IOException {
+		long bytes = 0;
+		for (Path path : segmentFiles()) bytes += Files.size(path);
+		return bytes;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		DiskAudioCache cache = open(1_000_000);
+		assert cache.get(key(1)) == null;
+
+		cache.put(key(1), audio(1));
+		cache.put(key(2), audio(2));
+
+		assert matches(cache.get(key(1)), 1);
+		assert matches(cache.get(key(2)), 2);
+		assert cache.get(key(3)) == null;
+		assert cache.getStats().startsWith("records:2 ") : cache.getStats();
+		cache.shutDown();
+	}
+
+	@Test
+	public void testReloadAfterRestart() throws IOException {
+		DiskAudioCache cache = open(1_000_000);
+		for (int i = 0; i < 5; i++) cache.put(key(i), audio(i));
+		cache.shutDown();
+		// records span sealed segments and the active one
+		assert segmentFiles().size() == 3 : segmentFiles();
+
+		DiskAudioCache reloaded = open(1_000_000);
+		for (int i = 0; i < 5; i++) assert matches(reloaded.get(key(i)), i) : i;
+		reloaded.shutDown();
+	}
+
+	@Test
+	public void testTornTailDropped() throws IOException {
+		DiskAudioCache cache = open(1_000_000);
+		cache.put(key(1), audio(1));
+		cache.put(key(2), audio(2));
+		cache.shutDown();
+
+		Path segment = segmentFiles().get(0);
+		long size = Files.size(segment);
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.setLength(size - 100);
+		}
+
+		DiskAudioCache reloaded = open(1_000_000);
+		assert matches(reloaded.get(key(1)), 1);
+		assert reloaded.get(key(2)) == null;
+		assert Files.size(segment) < size - RECORD_BYTES;
+		reloaded.shutDown();
+	}
+
+	@Test
+	public void testCompactionKeepsReadRecords() throws IOException {
+		long budget = 5 * SEGMENT_BYTES;
+		DiskAudioCache cache = open(budget);
+		cache.put(key(0), audio(0));
+		cache.put(key(1), audio(1));
+		// read since the last compaction, carried over
+		assert matches(cache.get(key(0)), 0);
+
+		for (int i = 2; i < 20; i++) cache.put(key(i), audio(i));
+
+		assert diskBytes() <= budget : diskBytes();
+		assert !segmentFiles().get(0).getFileName().toString().equals("00000000.seg");
+		assert matches(cache.get(key(0)), 0);
+		assert cache.get(key(1)) == null;
+		assert matches(cache.get(key(19)), 19);
+		cache.shutDown();
+	}
+
+	@Test
+	public void testCompactionDropsUnreadableRecords() throws IOException {
+		long budget = 5 * SEGMENT_BYTES;
+		DiskAudioCache cache = open(budget);
+		cache.put(key(0), audio(0));
+		cache.put(key(1), audio(1));
+		assert matches(cache.get(key(0)), 0);
+		assert matches(cache.get(key(1)), 1);
+
+		// corrupt the first record's magic behind the cache's back
+		try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+			file.write(new byte[4]);
+		}
+
+		for (int i = 2; i < 20; i++) cache.put(key(i), audio(i));
+
+		// compaction carried on past the bad record
+		assert diskBytes() <= budget : diskBytes();
+		assert cache.get(key(0)) == null;
+		assert matches(cache.get(key(1)), 1);
+		cache.shutDown();
+	}
+
+	@Test
+	public void testDisabled() throws IOException {
+		DiskAudioCache cache = open(0);
+		cache.put(key(1), audio(1));
+		assert cache.get(key(1)) == null;
+		assert segmentFiles().isEmpty();
+	}
+}
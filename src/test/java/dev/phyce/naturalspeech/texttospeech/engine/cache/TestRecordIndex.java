@@ -0,0 +1,84 @@
+package dev.phyce.naturalspeech.texttospeech.engine.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestRecordIndex {
+
+	@Test
+	public void testRemoveInsideProbeRun() {
+		RecordIndex index = new RecordIndex();
+		// equal lo, every key probes from the same home slot
+		for (int i = 0; i < 5; i++) index.put(i, 7, 100 + i);
+		// a key homed one slot later, pushed behind the run
+		index.put(99, 8, 199);
+
+		index.remove(1, 7);
+		index.remove(3, 7);
+
+		assert index.size() == 4;
+		assert index.get(1, 7) == RecordIndex.MISSING;
+		assert index.get(3, 7) == RecordIndex.MISSING;
+		assert index.get(0, 7) == 100;
+		assert index.get(2, 7) == 102;
+		assert index.get(4, 7) == 104;
+		assert index.get(99, 8) == 199;
+	}
+
+	@Test
+	public void testRemoveAcrossWraparound() {
+		RecordIndex index = new RecordIndex();
+		// the last slot of the 1024 slot table, runs wrap to the start
+		long last = 1023;
+		for (int i = 0; i < 4; i++) index.put(i, last, i);
+		index.put(10, 0, 10);
+		index.put(11, 1, 11);
+
+		index.remove(0, last);
+		for (int i = 1; i < 4; i++) assert index.get(i, last) == i;
+		assert index.get(10, 0) == 10;
+		assert index.get(11, 1) == 11;
+		assert index.size() == 5;
+	}
+
+	@Test
+	public void testAccessedBitFollowsShiftedEntry() {
+		RecordIndex index = new RecordIndex();
+		index.put(0, 7, 0);
+		index.put(1, 7, 1);
+		assert index.access(1, 7) == 1;
+
+		// shifts key 1 into key 0's slot
+		index.remove(0, 7);
+		assert index.clearAccessed(1, 7);
+		assert !index.clearAccessed(1, 7);
+	}
+
+	@Test
+	public void testMatchesHashMap() {
+		Random random = new Random(30);
+		RecordIndex index = new RecordIndex();
+		Map<Long, Long> expected = new HashMap<>();
+
+		for (int i = 0; i < 200_000; i++) {
+			// few distinct keys and clustered slots, for long probe runs
+			long key = random.nextInt(3000);
+			long lo = key % 700;
+			if (random.nextInt(3) == 0) {
+				index.remove(key, lo);
+				expected.remove(key);
+			}
+			else {
+				index.put(key, lo, i);
+				expected.put(key, (long) i);
+			}
+		}
+
+		assert index.size() == expected.size();
+		for (long key = 0; key < 3000; key++) {
+			assert index.get(key, key % 700) == expected.getOrDefault(key, RecordIndex.MISSING) : key;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package dev.phyce.naturalspeech.utils;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class TestStreamableFuture {
+
+	private final List<SettableFuture<String>> segments = List.of(
+		SettableFuture.create(), SettableFuture.create(), SettableFuture.create());
+	private final AtomicInteger joins = new AtomicInteger();
+	private final StreamableFuture<String> future = new StreamableFuture<>(List.copyOf(segments), parts -> {
+		joins.incrementAndGet();
+		return String.join("", parts);
+	});
+
+	private final List<String> delivered = new ArrayList<>();
+	private final List<Throwable> failures = new ArrayList<>();
+
+	private void listen() {
+		future.addStreamListener(new FutureCallback<String>() {
+			@Override
+			public void onSuccess(String result) {
+				delivered.add(result);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				failures.add(t);
+			}
+		}, directExecutor());
+	}
+
+	@Test
+	public void testOutOfOrderDeliveredInOrder() {
+		listen();
+
+		segments.get(2).set("c");
+		segments.get(1).set("b");
+		assert delivered.isEmpty();
+
+		segments.get(0).set("a");
+		assert delivered.equals(List.of("a", "b", "c")) : delivered;
+		assert future.isDone();
+	}
+
+	@Test
+	public void testCancelledSegmentSkipped() {
+		listen();
+
+		segments.get(0).set("a");
+		segments.get(2).set("c");
+		assert delivered.equals(List.of("a"));
+
+		segments.get(1).cancel(false);
+		assert delivered.equals(List.of("a", "c")) : delivered;
+		assert failures.isEmpty();
+		// a cancelled segment cancels the utterance
+		assert future.isCancelled();
+	}
+
+	@Test
+	public void testFailurePassedToOnFailure() throws InterruptedException {
+		listen();
+		IllegalStateException error = new IllegalStateException("expected");
+
+		segments.get(0).set("a");
+		segments.get(1).setException(error);
+		segments.get(2).set("c");
+
+		assert delivered.equals(List.of("a", "c")) : delivered;
+		assert failures.equals(List.of(error));
+		try {
+			future.get();
+			assert false;
+		} catch (ExecutionException e) {
+			assert e.getCause() == error;
+		}
+	}
+
+	@Test
+	public void testLateListenerReceivesEverySegment() {
+		for (int i = 0; i < segments.size(); i++) segments.get(i).set(String.valueOf(i));
+		listen();
+		assert delivered.equals(List.of("0", "1", "2")) : delivered;
+	}
+
+	@Test
+	public void testJoinedOnceOnGet() throws Exception {
+		listen();
+		segments.get(0).set("a");
+		segments.get(1).set("b");
+		segments.get(2).set("c");
+
+		// completing and streaming don't join
+		assert future.isDone();
+		assert joins.get() == 0;
+
+		String first = future.get();
+		assert first.equals("abc");
+		assert future.get() == first;
+		assert joins.get() == 1;
+	}
+
+	@Test
+	public void testCancelCancelsSegments() {
+		ListenableFuture<String> segment = segments.get(1);
+		future.cancel(false);
+		assert segment.isCancelled();
+	}
+}
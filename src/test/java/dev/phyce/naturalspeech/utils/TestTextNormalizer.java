@@ -0,0 +1,77 @@
+package dev.phyce.naturalspeech.utils;
+
+import org.junit.Test;
+
+/**
+ * Expected outputs were produced by the regular expressions TextNormalizer replaced,
+ * TextUtil.renderLargeNumbers, ChatHelper.removeNumericCommas and Text.removeFormattingTags.
+ */
+public class TestTextNormalizer {
+
+	@Test
+	public void testDigitGrouping() {
+		assert TextNormalizer.renderNumbers("selling 1,000 lobsters").equals("selling 1000 lobsters");
+		assert TextNormalizer.renderNumbers("1,234,567 gp").equals("1234567 gp");
+		assert TextNormalizer.renderNumbers("1,234,567,890").equals("1234567890");
+		assert TextNormalizer.renderNumbers("2,500.75 each").equals("2500.75 each");
+		// quirks of the previous two rounds of replacement, kept as is
+		assert TextNormalizer.renderNumbers("12,34,567").equals("1234567");
+		assert TextNormalizer.renderNumbers("1234,567").equals("1234567");
+		assert TextNormalizer.renderNumbers("1,2345").equals("12345");
+		assert TextNormalizer.renderNumbers("1,000.5,000").equals("1000.5000");
+	}
+
+	@Test
+	public void testSuffixes() {
+		assert TextNormalizer.renderNumbers("buying 5k").equals("buying 5 thousand");
+		assert TextNormalizer.renderNumbers("5K each").equals("5 thousand each");
+		assert TextNormalizer.renderNumbers("5 k").equals("5 thousand");
+		assert TextNormalizer.renderNumbers("5  k").equals("5  k");
+		assert TextNormalizer.renderNumbers("2.5m cash").equals("2.5 million cash");
+		assert TextNormalizer.renderNumbers("10b").equals("10 billion");
+		assert TextNormalizer.renderNumbers("3t").equals("3 trillion");
+		assert TextNormalizer.renderNumbers("5k!").equals("5 thousand!");
+		assert TextNormalizer.renderNumbers("5k, 10m.").equals("5 thousand, 10 million.");
+		assert TextNormalizer.renderNumbers("12k\tand 3m").equals("12 thousand\tand 3 million");
+		assert TextNormalizer.renderNumbers("1,000k").equals("1000 thousand");
+		assert TextNormalizer.renderNumbers(".5k").equals(".5 thousand");
+		assert TextNormalizer.renderNumbers("x5k").equals("x5 thousand");
+
+		// suffixes need a word boundary
+		assert TextNormalizer.renderNumbers("5kg").equals("5kg");
+		assert TextNormalizer.renderNumbers("5k_").equals("5k_");
+		assert TextNormalizer.renderNumbers("5k5k").equals("5k5 thousand");
+		assert TextNormalizer.renderNumbers("10 mil").equals("10 mil");
+		assert TextNormalizer.renderNumbers("5,k").equals("5,k");
+
+		assert TextNormalizer.renderNumbers("no numbers here").equals("no numbers here");
+		assert TextNormalizer.renderNumbers("").equals("");
+	}
+
+	@Test
+	public void testGameMessageMarkup() {
+		assert TextNormalizer.normalizeMarkup("<col=ff0000>Congratulations</col>, you've reached level 99.", true, false)
+			.equals("Congratulations, you've reached level 99.");
+		assert TextNormalizer.normalizeMarkup("Price: <col=ff9040>1,234,567</col> coins", true, false)
+			.equals("Price: 1234567 coins");
+		assert TextNormalizer.normalizeMarkup("<br>line", true, false).equals("line");
+		// numbers are ungrouped after tags are removed
+		assert TextNormalizer.normalizeMarkup("1<col=ff>,000", true, false).equals("1000");
+		assert TextNormalizer.normalizeMarkup("1234,567", true, false).equals("1234567");
+		assert TextNormalizer.normalizeMarkup("Total: 12,34,567", true, false).equals("Total: 12,34567");
+
+		// entities are kept, text replacements match against them
+		assert TextNormalizer.normalizeMarkup("<lt>3 you too<gt>", true, false).equals("<lt>3 you too<gt>");
+		assert TextNormalizer.normalizeMarkup("a < b", true, false).equals("a < b");
+		assert TextNormalizer.normalizeMarkup("unclosed <col=ff", true, false).equals("unclosed <col=ff");
+		assert TextNormalizer.normalizeMarkup("<<col=ff>>", true, false).equals(">");
+	}
+
+	@Test
+	public void testTwitchPrefix() {
+		assert TextNormalizer.normalizeMarkup("<colNORMAL>hello 1,000 <col=ff>", false, true).equals("hello 1,000 <col=ff>");
+		assert TextNormalizer.normalizeMarkup("hi <colNORMAL>", false, true).equals("hi <colNORMAL>");
+		assert TextNormalizer.normalizeMarkup("<colNORMAL>", false, true).equals("");
+		assert TextNormalizer.normalizeMarkup("<colNORMAL>hi", false, false).equals("<colNORMAL>hi");
+	}
+}
@@ -0,0 +1,49 @@
+package dev.phyce.naturalspeech.utils;
+
+import org.junit.Test;
+
+public class TestTextReplacer {
+
+	@Test
+	public void testWordBoundaries() {
+		TextReplacer replacer = TextReplacer.builder()
+			.add("lol", "laughing out loud")
+			.add("gl hf", "good luck have fun")
+			.build();
+
+		assert replacer.apply("lol").equals("laughing out loud");
+		assert replacer.apply("LoL, gl hf!").equals("laughing out loud, good luck have fun!");
+		assert replacer.apply("that was lol.").equals("that was laughing out loud.");
+
+		// rule 1, preceded by space or start of text
+		assert replacer.apply("xlol").equals("xlol");
+		assert replacer.apply(",lol").equals(",lol");
+		// rule 2, followed by a valid tail or end of text
+		assert replacer.apply("lolx").equals("lolx");
+		assert replacer.apply("lol:").equals("lol:");
+	}
+
+	@Test
+	public void testPriorityAndOverlap() {
+		TextReplacer replacer = TextReplacer.builder()
+			.add("ty", "thank you")
+			.add("ty", "ignored duplicate")
+			.add("ty m8", "thanks mate")
+			.add("m8", "mate")
+			.build();
+
+		// the match added first wins at the same position
+		assert replacer.apply("ty m8").equals("thank you mate");
+		// replaced text isn't matched again
+		assert TextReplacer.builder().add("a", "a a").build().apply("a a").equals("a a a a");
+		// patterns sharing suffixes, found through fail links
+		TextReplacer suffixes = TextReplacer.builder().add("abcd", "1").add("bc", "2").add("c", "3").build();
+		assert suffixes.apply("abc c bc").equals("abc 3 2");
+	}
+
+	@Test
+	public void testEmpty() {
+		assert TextReplacer.EMPTY.apply("lol").equals("lol");
+		assert TextReplacer.builder().add("", "x").build().isEmpty();
+	}
+}
@@ -0,0 +1,80 @@
+package dev.phyce.naturalspeech.utils;
+
+import java.util.List;
+import org.junit.Test;
+
+public class TestTextUtil {
+
+	@Test
+	public void testShortTextSingleSegment() {
+		assert TextUtil.segmentForLatency("Hello there!", 4).equals(List.of("Hello there!"));
+		assert TextUtil.segmentForLatency("  Hello there!  ", 4).equals(List.of("Hello there!"));
+		assert TextUtil.segmentForLatency("", 4).equals(List.of(""));
+	}
+
+	@Test
+	public void testShortFirstSegment() {
+		List<String> segments = TextUtil.segmentForLatency(
+			"Hello there, adventurer. Welcome to Varrock, the finest city in all of Misthalin. "
+				+ "Please enjoy your stay and visit the museum.", 2);
+
+		// leading clauses up to ~40 characters, then whole sentences
+		assert segments.get(0).equals("Hello there, adventurer.") : segments;
+		assert segments.size() == 2 : segments;
+		assert segments.get(1).startsWith("Welcome to Varrock, the finest city");
+		assert segments.get(1).endsWith("visit the museum.");
+	}
+
+	@Test
+	public void testLongFirstClauseCutAtWhitespace() {
+		String text = "It costs a lot and the trade opens in the afternoon today so please be there on time okay";
+		List<String> segments = TextUtil.segmentForLatency(text, 2);
+
+		assert segments.size() == 2 : segments;
+		assert segments.get(0).length() <= 40 : segments;
+		assert String.join(" ", segments).equals(text);
+	}
+
+	@Test
+	public void testNoBoundarySingleSegment() {
+		String text = "Buyinggggggggggggggggggggggggggggggggggggggggggggggggggggggggggg";
+		assert TextUtil.segmentForLatency(text, 4).equals(List.of(text));
+	}
+
+	@Test
+	public void testSentenceBoundaries() {
+		List<String> segments = TextUtil.segmentForLatency(
+			"Stop right there! Who goes?! State your business at the gate, stranger, or turn back now. "
+				+ "The king has ordered that nobody passes tonight, not even the merchants from Al Kharid.", 1);
+
+		assert segments.get(0).equals("Stop right there! Who goes?!") : segments;
+		// later segments end on a sentence rather than the closer clause
+		for (String segment : segments) {
+			char last = segment.charAt(segment.length() - 1);
+			assert last == '.' || last == '!' || last == '?' : segments;
+		}
+	}
+
+	@Test
+	public void testNumbersAndAbbreviations() {
+		List<String> segments = TextUtil.segmentForLatency(
+			"Please go and find Mr. Smith, e.g. at the store. It costs 1.5 million and opens at 12:30 today.", 1);
+
+		assert segments.size() == 2 : segments;
+		// not "Please go and find Mr."
+		assert segments.get(0).equals("Please go and find Mr. Smith,") : segments;
+		assert segments.get(1).equals("e.g. at the store. It costs 1.5 million and opens at 12:30 today.") : segments;
+	}
+
+	@Test
+	public void testJoinsBackToText() {
+		String text = "I have been training my woodcutting all day, and I finally got the axe I wanted. "
+			+ "Next I will try fletching, then maybe some firemaking! Does anybody know a good spot? "
+			+ "The Grand Exchange is always too crowded for me, so I prefer Draynor.";
+		for (int workers = 1; workers <= 8; workers++) {
+			List<String> segments = TextUtil.segmentForLatency(text, workers);
+			assert String.join(" ", segments).equals(text) : segments;
+			assert segments.get(0).length() <= 40 : segments;
+		}
+	}
+}